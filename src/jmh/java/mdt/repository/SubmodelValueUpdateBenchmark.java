@@ -0,0 +1,166 @@
+package mdt.repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
+import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodel;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodelElementCollection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+
+import mdt.repository.FileBasedSubmodelRepository.CheckpointPolicy;
+
+
+/**
+ * 많은 수의 Property를 갖는 submodel에 대한 {@link InMemorySubmodelService}의
+ * {@code updateSubmodelElementValueByPath} 초당 처리량을 측정한다.
+ * <p>
+ * Property들은 submodel 최상위와 {@value #GROUP_SIZE}개씩 묶인 SubmodelElementCollection 하위에
+ * 절반씩 배치된다. {@code update*Property}는 변경 내역을 저장하지 않고 버리는 write-through 서비스로
+ * 색인과 copy-on-write 비용만을 측정하고, {@code repository*}는 controller와 같이
+ * {@link FileBasedSubmodelRepository#openSubmodelService(String)}로 얻은 서비스를 통해 변경한 뒤
+ * close하여 journal 기록 비용까지 측정한다.
+ * <pre>
+ * gradle jmh
+ * </pre>
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SubmodelValueUpdateBenchmark {
+	private static final int GROUP_SIZE = 100;
+	private static final String SUBMODEL_ID = "urn:mdt:benchmark:submodel";
+	private static final SubmodelDeltaStore DISCARD = new SubmodelDeltaStore() {
+		@Override
+		public void appendSubmodelDeltas(String submodelId, List<SubmodelDelta> deltas) { }
+
+		@Override
+		public void replaceSubmodel(Submodel submodel) { }
+	};
+
+	// JMH가 생성하는 benchmark 코드에서 값을 설정할 수 있도록 public으로 선언한다.
+	@Param({"1000", "5000"})
+	public int m_propertyCount;
+
+	private InMemorySubmodelService m_service;
+	private File m_workspaceDir;
+	private FileBasedSubmodelRepository m_repository;
+	private String[] m_topPaths;
+	private String[] m_nestedPaths;
+	private int m_seqNo;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		int half = m_propertyCount / 2;
+
+		List<SubmodelElement> elements = Lists.newArrayList();
+		m_topPaths = new String[half];
+		for ( int i = 0; i < half; ++i ) {
+			m_topPaths[i] = "prop" + i;
+			elements.add(newProperty(m_topPaths[i]));
+		}
+
+		m_nestedPaths = new String[half];
+		for ( int g = 0; g * GROUP_SIZE < half; ++g ) {
+			String groupId = "group" + g;
+			List<SubmodelElement> members = Lists.newArrayList();
+			for ( int i = g * GROUP_SIZE; i < Math.min(half, (g+1) * GROUP_SIZE); ++i ) {
+				String idShort = "prop" + i;
+				members.add(newProperty(idShort));
+				m_nestedPaths[i] = groupId + "." + idShort;
+			}
+			elements.add(new DefaultSubmodelElementCollection.Builder()
+												.idShort(groupId)
+												.value(members)
+												.build());
+		}
+
+		Submodel submodel = new DefaultSubmodel.Builder()
+												.id(SUBMODEL_ID)
+												.idShort("Benchmark")
+												.submodelElements(elements)
+												.build();
+		// 변경 내역을 모아두지 않도록 write-through 모드로 생성한다.
+		m_service = new InMemorySubmodelService(DISCARD, submodel, true);
+
+		// 첫 경로 접근시 생성되는 idShortPath 색인 비용은 측정에서 제외한다.
+		m_service.getSubmodelElementByPath(m_topPaths[0]);
+
+		m_workspaceDir = Files.createTempDirectory("submodel-benchmark").toFile();
+		File submodelDir = new File(m_workspaceDir, "submodels");
+		Files.createDirectories(submodelDir.toPath());
+		CheckpointPolicy policy = new CheckpointPolicy(new File(m_workspaceDir, "journal"), 1000,
+														Duration.ofSeconds(60));
+		m_repository = new FileBasedSubmodelRepository(submodelDir, policy);
+		m_repository.addSubmodel(submodel);
+		m_repository.openSubmodelService(SUBMODEL_ID).getSubmodelElementByPath(m_topPaths[0]);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		m_repository.close();
+		MoreFiles.deleteRecursively(m_workspaceDir.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+	}
+
+	@Benchmark
+	public void updateTopLevelProperty() {
+		int seqNo = m_seqNo++;
+		m_service.updateSubmodelElementValueByPath(m_topPaths[seqNo % m_topPaths.length],
+													Integer.toString(seqNo));
+	}
+
+	@Benchmark
+	public void updateNestedProperty() {
+		int seqNo = m_seqNo++;
+		m_service.updateSubmodelElementValueByPath(m_nestedPaths[seqNo % m_nestedPaths.length],
+													Integer.toString(seqNo));
+	}
+
+	@Benchmark
+	public void repositoryUpdateTopLevelProperty() throws Exception {
+		int seqNo = m_seqNo++;
+		try ( SubmodelServiceProvider svc = m_repository.openSubmodelService(SUBMODEL_ID) ) {
+			svc.updateSubmodelElementValueByPath(m_topPaths[seqNo % m_topPaths.length],
+												Integer.toString(seqNo));
+		}
+	}
+
+	@Benchmark
+	public void repositoryUpdateNestedProperty() throws Exception {
+		int seqNo = m_seqNo++;
+		try ( SubmodelServiceProvider svc = m_repository.openSubmodelService(SUBMODEL_ID) ) {
+			svc.updateSubmodelElementValueByPath(m_nestedPaths[seqNo % m_nestedPaths.length],
+												Integer.toString(seqNo));
+		}
+	}
+
+	private static SubmodelElement newProperty(String idShort) {
+		return new DefaultProperty.Builder()
+								.idShort(idShort)
+								.valueType(DataTypeDefXsd.INT)
+								.value("0")
+								.build();
+	}
+}
@@ -1,17 +1,22 @@
 package mdt;
 
 import java.io.File;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 
 import org.mandas.docker.client.exceptions.DockerException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
 import utils.jdbc.JdbcProcessor;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+
 import lombok.Data;
 import lombok.Setter;
 import mdt.client.HttpServiceFactory;
@@ -26,8 +31,18 @@ import mdt.instance.k8s.KubernetesInstanceManager;
 import mdt.model.ServiceFactory;
 import mdt.model.instance.MDTInstanceManager;
 import mdt.model.instance.MDTInstanceManagerException;
+import mdt.model.registry.RegistryException;
+import mdt.registry.AssetAdministrationShellRegistryProvider;
 import mdt.registry.CachingFileMDTAASRegistry;
 import mdt.registry.CachingFileMDTSubmodelRegistry;
+import mdt.registry.DescriptorStorage;
+import mdt.registry.DescriptorStorageFactory;
+import mdt.registry.JdbcMDTAASRegistry;
+import mdt.registry.JdbcMDTSubmodelRegistry;
+import mdt.registry.RegistryChangeFeed;
+import mdt.registry.SegmentLogDescriptorStorage;
+import mdt.registry.SubmodelRegistryProvider;
+import mdt.registry.WarmUpOptions;
 
 /**
  *
@@ -37,6 +52,7 @@ import mdt.registry.CachingFileMDTSubmodelRegistry;
 public class MDTConfiguration {
 	@Value("${instance-manager.type}") private String m_instanceManagerType;
 	@Value("file:${instance-manager.workspaceDir}") private File m_workspaceDir;
+	private static final String STORAGE_JDBC = "jdbc";
 	
 	@Bean
 	HttpServiceFactory getServiceFactory() throws MDTInstanceManagerException {
@@ -54,11 +70,11 @@ public class MDTConfiguration {
 		return new MDTInstanceManagerConfiguration();
 	}
 
-	@Bean
+	@Bean(destroyMethod="shutdown")
 	MDTInstanceManager getMDTInstanceManager() throws DockerException, InterruptedException {
 		ServiceFactory svcFact = getServiceFactory();
-		CachingFileMDTAASRegistry aasRegistry = getAssetAdministrationShellRegistry();
-		CachingFileMDTSubmodelRegistry submodelRegistry = getSubmodelRegistry();
+		AssetAdministrationShellRegistryProvider aasRegistry = getAssetAdministrationShellRegistry();
+		SubmodelRegistryProvider submodelRegistry = getSubmodelRegistry();
 		
 		JdbcProcessor jdbc = getJdbcProcessor();
 		if ( !jdbc.existsTable(JdbcInstanceDescriptorManager.TABLE) ) {
@@ -113,9 +129,20 @@ public class MDTConfiguration {
 	}
 	
 	@Bean
-	CachingFileMDTAASRegistry getAssetAdministrationShellRegistry() {
+	AssetAdministrationShellRegistryProvider getAssetAdministrationShellRegistry() {
 		CachingFileBasedRegistryConfiguration aasConf = getAASRegistryConfiguration();
-		return new CachingFileMDTAASRegistry(aasConf.workspaceDir, aasConf.cacheSize);
+		if ( STORAGE_JDBC.equals(aasConf.storage) ) {
+			return new JdbcMDTAASRegistry(getJdbcProcessor());
+		}
+
+		CachingFileMDTAASRegistry registry = new CachingFileMDTAASRegistry(createDescriptorStorage(aasConf),
+																aasConf.cacheCapacity.toBytes(),
+																aasConf.parsedCacheCapacity.toBytes(),
+																aasConf.getWarmUpOptions());
+		if ( aasConf.watchChanges ) {
+			watchStorage(registry::watchStorage, aasConf);
+		}
+		return registry;
 	}
 
 	@Bean
@@ -125,9 +152,21 @@ public class MDTConfiguration {
 	}
 	
 	@Bean
-	CachingFileMDTSubmodelRegistry getSubmodelRegistry() {
+	SubmodelRegistryProvider getSubmodelRegistry() {
 		CachingFileBasedRegistryConfiguration smConf = getSubmodelRegistryConfiguration();
-		return new CachingFileMDTSubmodelRegistry(smConf.workspaceDir, smConf.cacheSize);
+		if ( STORAGE_JDBC.equals(smConf.storage) ) {
+			return new JdbcMDTSubmodelRegistry(getJdbcProcessor());
+		}
+
+		CachingFileMDTSubmodelRegistry registry = new CachingFileMDTSubmodelRegistry(
+																createDescriptorStorage(smConf),
+																smConf.cacheCapacity.toBytes(),
+																smConf.parsedCacheCapacity.toBytes(),
+																smConf.getWarmUpOptions());
+		if ( smConf.watchChanges ) {
+			watchStorage(registry::watchStorage, smConf);
+		}
+		return registry;
 	}
 	
 	@Bean
@@ -136,10 +175,73 @@ public class MDTConfiguration {
 		return new CachingFileBasedRegistryConfiguration();
 	}
 	
+	@Bean
+	RegistryChangeFeed getRegistryChangeFeed(@Value("${registry.changes.capacity:"
+														+ RegistryChangeFeed.DEFAULT_CAPACITY + "}") int capacity) {
+		return new RegistryChangeFeed(getAssetAdministrationShellRegistry(), getSubmodelRegistry(), capacity);
+	}
+	
+	@Bean("registryHealthIndicator")
+	RegistryHealthIndicator getRegistryHealthIndicator() {
+		return new RegistryHealthIndicator(getAssetAdministrationShellRegistry(), getSubmodelRegistry());
+	}
+	
+	@Bean
+	MeterBinder getRegistryMeterBinder() {
+		// registry bean들은 provider 인터페이스 타입으로 등록되기 때문에 직접 바인딩한다.
+		return meterRegistry -> {
+			for ( Object registry: List.of(getAssetAdministrationShellRegistry(), getSubmodelRegistry()) ) {
+				if ( registry instanceof MeterBinder binder ) {
+					binder.bindTo(meterRegistry);
+				}
+			}
+		};
+	}
+	
 	@Setter
 	public static class CachingFileBasedRegistryConfiguration {
 		private File workspaceDir;
-		private int cacheSize;
+		private DataSize cacheCapacity = DataSize.ofMegabytes(16);
+		private DataSize parsedCacheCapacity = DataSize.ofMegabytes(4);
+		private String storage = DescriptorStorageFactory.STORAGE_FILE;
+		private String encoding = DescriptorStorageFactory.ENCODING_JSON;
+		private DataSize segmentSize = DataSize.ofBytes(SegmentLogDescriptorStorage.DEFAULT_SEGMENT_SIZE);
+		private int warmUpThreads = 1;
+		private int preloadCount = 0;
+		private boolean watchChanges = false;
+		
+		WarmUpOptions getWarmUpOptions() {
+			return new WarmUpOptions(warmUpThreads, preloadCount);
+		}
+	}
+	
+	private interface StorageWatcher {
+		public void watchStorage() throws IOException;
+	}
+	
+	private void watchStorage(StorageWatcher watcher, CachingFileBasedRegistryConfiguration conf) {
+		try {
+			watcher.watchStorage();
+		}
+		catch ( IOException e ) {
+			throw new RegistryException("Failed to watch registry storage: dir=" + conf.workspaceDir
+										+ ", cause=" + e);
+		}
+		catch ( UnsupportedOperationException e ) {
+			throw new RegistryException("Registry storage does not support change watching: storage="
+										+ conf.storage);
+		}
+	}
+	
+	private DescriptorStorage createDescriptorStorage(CachingFileBasedRegistryConfiguration conf) {
+		try {
+			return DescriptorStorageFactory.create(conf.workspaceDir, conf.storage, conf.encoding,
+													conf.segmentSize.toBytes());
+		}
+		catch ( IOException e ) {
+			throw new RegistryException("Failed to open registry storage: dir=" + conf.workspaceDir
+										+ ", cause=" + e);
+		}
 	}
 	
 	@Bean
@@ -1,10 +1,14 @@
 package mdt;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
 
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.SerializationException;
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonDeserializer;
@@ -13,6 +17,8 @@ import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonSerializer;
 import mdt.controller.StatusCode;
 import mdt.model.registry.MessageTypeEnum;
 import mdt.model.registry.RegistryExceptionEntity;
+import mdt.registry.BulkDescriptorReader;
+import mdt.registry.BulkItemResult;
 
 
 /**
@@ -22,11 +28,59 @@ import mdt.model.registry.RegistryExceptionEntity;
 public class MDTController<T> {
 	protected static final JsonSerializer s_ser = new JsonSerializer();
 	protected static final JsonDeserializer s_deser = new JsonDeserializer();
+	protected static final int BULK_BATCH_SIZE = BulkDescriptorReader.DEFAULT_BATCH_SIZE;
 	
 	protected String decodeBase64(String encoded) {
 		return new String(Base64.getDecoder().decode(encoded));
 	}
 	
+	/**
+	 * 요청의 {@code If-None-Match} 헤더 값이 주어진 entity tag와 일치하는지 여부를 반환한다.
+	 * <p>
+	 * GET 요청에 대한 weak comparison 규칙에 따라 {@code W/} 접두어는 무시하며,
+	 * {@code *} 혹은 쉼표로 구분된 복수의 entity tag들을 허용한다.
+	 * 
+	 * @param ifNoneMatch	{@code If-None-Match} 헤더 값. 헤더가 없는 경우는 {@code null}.
+	 * @param etag		현재 자원의 entity tag.
+	 * @return	일치하는 경우는 {@code true}.
+	 */
+	protected boolean isNotModified(String ifNoneMatch, String etag) {
+		if ( ifNoneMatch == null ) {
+			return false;
+		}
+		
+		for ( String tag: ifNoneMatch.split(",") ) {
+			tag = tag.trim();
+			if ( tag.equals("*") ) {
+				return true;
+			}
+			if ( tag.startsWith("W/") ) {
+				tag = tag.substring(2);
+			}
+			if ( tag.equals(etag) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * JSON 배열 혹은 NDJSON 형태로 주어진 descriptor들을 일괄 등록한다.
+	 * <p>
+	 * 입력은 하나씩 점진적으로 파싱되며, 올바른 descriptor들은 {@link #BULK_BATCH_SIZE}개씩 모아
+	 * {@code adder}를 통해 한번에 등록된다 ({@link BulkDescriptorReader}).
+	 *
+	 * @param in		요청 입력 스트림.
+	 * @param descCls	descriptor 클래스.
+	 * @param adder		descriptor 목록을 한번에 등록하는 함수.
+	 * @return	입력 순서에 따른 항목별 처리 결과 목록.
+	 * @throws IOException	입력을 읽는 중 오류가 발생된 경우.
+	 */
+	protected List<BulkItemResult> addBulk(InputStream in, Class<T> descCls,
+											Function<List<T>,List<BulkItemResult>> adder) throws IOException {
+		return new BulkDescriptorReader<>(descCls, adder, BULK_BATCH_SIZE).read(in);
+	}
+	
 	protected ResponsePayload toSuccessResult(StatusCode statusCode, Object message) {
 		return new ResponsePayload(statusCode, message);
 	}
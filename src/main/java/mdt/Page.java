@@ -0,0 +1,110 @@
+package mdt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+
+/**
+ * AAS v3 API의 cursor 기반 paging 결과.
+ * <p>
+ * JSON으로 직렬화되면 {@code {"paging_metadata":{"cursor":...},"result":[...]}} 형태가 되며,
+ * 마지막 page인 경우는 cursor가 생략된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+@JsonPropertyOrder({"paging_metadata", "result"})
+public final class Page<T> {
+	public static final int DEFAULT_LIMIT = 100;
+
+	private final List<T> m_result;
+	@Nullable private final String m_cursor;
+
+	public Page(List<T> result, @Nullable String cursor) {
+		m_result = result;
+		m_cursor = cursor;
+	}
+
+	@JsonProperty("result")
+	public List<T> getResult() {
+		return m_result;
+	}
+
+	/**
+	 * 다음 page를 요청할 때 사용할 cursor를 반환한다.
+	 *
+	 * @return	다음 page cursor. 마지막 page인 경우는 {@code null}.
+	 */
+	@Nullable @JsonIgnore
+	public String getCursor() {
+		return m_cursor;
+	}
+
+	@JsonIgnore
+	public boolean hasNext() {
+		return m_cursor != null;
+	}
+
+	@JsonProperty("paging_metadata")
+	public PagingMetadata getPagingMetadata() {
+		return new PagingMetadata(m_cursor);
+	}
+
+	public <S> Page<S> map(Function<? super T, ? extends S> mapper) {
+		List<S> mapped = m_result.stream().<S>map(mapper).toList();
+		return new Page<>(mapped, m_cursor);
+	}
+
+	@JsonInclude(Include.NON_NULL)
+	public static record PagingMetadata(@JsonProperty("cursor") String cursor) { }
+
+	/**
+	 * 주어진 키를 외부에 노출할 cursor 문자열로 변환한다.
+	 *
+	 * @param key	page의 마지막 키.
+	 * @return	cursor 문자열.
+	 */
+	public static String encodeCursor(String key) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Cursor 문자열에서 직전 page의 마지막 키를 복원한다.
+	 *
+	 * @param cursor	cursor 문자열.
+	 * @return	직전 page의 마지막 키.
+	 * @throws IllegalArgumentException	cursor 형식이 올바르지 않은 경우.
+	 */
+	public static String decodeCursor(String cursor) {
+		try {
+			return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+		}
+		catch ( IllegalArgumentException e ) {
+			throw new IllegalArgumentException("invalid cursor: " + cursor);
+		}
+	}
+
+	public static int checkLimit(@Nullable Integer limit) {
+		if ( limit == null ) {
+			return DEFAULT_LIMIT;
+		}
+		if ( limit <= 0 ) {
+			throw new IllegalArgumentException("invalid limit: " + limit);
+		}
+		return limit;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("page[count=%d, cursor=%s]", m_result.size(), m_cursor);
+	}
+}
@@ -0,0 +1,51 @@
+package mdt;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import mdt.registry.AssetAdministrationShellRegistryProvider;
+import mdt.registry.CachingFileMDTAASRegistry;
+import mdt.registry.CachingFileMDTSubmodelRegistry;
+import mdt.registry.SubmodelRegistryProvider;
+
+
+/**
+ * AAS/Submodel registry의 기동시 적재 결과를 보고하는 health indicator.
+ * <p>
+ * Registry들은 생성 과정에서 저장된 descriptor들의 색인 생성과 cache 적재(warm-up)를 마치기 때문에,
+ * 이 indicator를 readiness group에 포함시키면 warm-up이 끝난 뒤에만
+ * {@code /actuator/health/readiness}가 {@code UP}이 된다.
+ * JDBC 기반 registry는 warm-up 과정이 없으므로 저장소 정보만 보고한다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class RegistryHealthIndicator implements HealthIndicator {
+	private final AssetAdministrationShellRegistryProvider m_aasRegistry;
+	private final SubmodelRegistryProvider m_submodelRegistry;
+
+	public RegistryHealthIndicator(AssetAdministrationShellRegistryProvider aasRegistry,
+									SubmodelRegistryProvider submodelRegistry) {
+		m_aasRegistry = aasRegistry;
+		m_submodelRegistry = submodelRegistry;
+	}
+
+	@Override
+	public Health health() {
+		return Health.up()
+					.withDetail("shells", getStatus(m_aasRegistry))
+					.withDetail("submodels", getStatus(m_submodelRegistry))
+					.build();
+	}
+
+	private static Object getStatus(Object registry) {
+		if ( registry instanceof CachingFileMDTAASRegistry aasRegistry ) {
+			return aasRegistry.getWarmUpStatus();
+		}
+		else if ( registry instanceof CachingFileMDTSubmodelRegistry submodelRegistry ) {
+			return submodelRegistry.getWarmUpStatus();
+		}
+		else {
+			return registry.toString();
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package mdt;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.digitaltwin.aas4j.v3.model.Key;
+import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+
+/**
+ * semanticId {@link Reference}를 색인 키로 변환하는 유틸리티.
+ * <p>
+ * semanticId는 보통 하나의 {@code GlobalReference} key로 구성된 ExternalReference이거나
+ * {@code ConceptDescription}을 가리키는 ModelReference이다. 두 경우 모두 참조 대상은
+ * 마지막 key가 나타내기 때문에, 마지막 key의 값을 색인 키로 사용한다.
+ * 따라서 "https://admin-shell.io/zvei/nameplate/2/0/Nameplate"와 같은 semantic 식별자 문자열로
+ * 검색할 수 있다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public final class SemanticIds {
+	private SemanticIds() {
+		throw new AssertionError("Should not be called: class=" + SemanticIds.class);
+	}
+
+	/**
+	 * 주어진 semanticId 참조의 색인 키 목록을 반환한다.
+	 *
+	 * @param semanticId	semanticId 참조.
+	 * @return	색인 키 목록. 참조가 없거나 key가 없는 경우는 빈 목록.
+	 */
+	public static List<String> toKeys(@Nullable Reference semanticId) {
+		if ( semanticId == null || semanticId.getKeys() == null || semanticId.getKeys().isEmpty() ) {
+			return List.of();
+		}
+
+		List<Key> keys = semanticId.getKeys();
+		String value = keys.get(keys.size()-1).getValue();
+		return (value != null) ? List.of(value) : List.of();
+	}
+
+	/**
+	 * JSON으로 표현된 semanticId 참조의 색인 키 목록을 반환한다.
+	 *
+	 * @param semanticId	semanticId 참조 JSON 노드.
+	 * @return	색인 키 목록. 참조가 없거나 key가 없는 경우는 빈 목록.
+	 */
+	public static List<String> toKeys(@Nullable JsonNode semanticId) {
+		if ( semanticId == null ) {
+			return List.of();
+		}
+
+		JsonNode keys = semanticId.get("keys");
+		if ( keys == null || !keys.isArray() || keys.size() == 0 ) {
+			return List.of();
+		}
+
+		JsonNode value = keys.get(keys.size()-1).get("value");
+		return (value != null && value.isTextual()) ? List.of(value.asText()) : List.of();
+	}
+}
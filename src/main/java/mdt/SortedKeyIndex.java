@@ -0,0 +1,92 @@
+package mdt;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.Lists;
+
+
+/**
+ * 식별자들을 정렬된 상태로 유지하여 cursor 기반 paging을 지원하는 in-memory 색인.
+ * <p>
+ * 한 page를 구성할 때 색인에서 해당 구간의 식별자들만 접근하기 때문에,
+ * 저장된 전체 객체를 읽지 않고 page에 포함될 객체들만 읽을 수 있다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class SortedKeyIndex {
+	private final ConcurrentSkipListSet<String> m_keys = new ConcurrentSkipListSet<>();
+
+	public SortedKeyIndex() { }
+
+	public SortedKeyIndex(Collection<String> keys) {
+		m_keys.addAll(keys);
+	}
+
+	public int size() {
+		return m_keys.size();
+	}
+
+	public boolean contains(String key) {
+		return m_keys.contains(key);
+	}
+
+	public List<String> getKeyAll() {
+		return Lists.newArrayList(m_keys);
+	}
+
+	public void add(String key) {
+		m_keys.add(key);
+	}
+
+	public void remove(String key) {
+		m_keys.remove(key);
+	}
+
+	public void clear() {
+		m_keys.clear();
+	}
+
+	/**
+	 * 주어진 cursor 다음부터 최대 {@code limit}개의 키로 구성된 page를 반환한다.
+	 *
+	 * @param cursor	직전 page의 cursor. 첫번째 page인 경우는 {@code null}.
+	 * @param limit		page에 포함될 최대 키 갯수.
+	 * @return	키 page.
+	 */
+	public Page<String> getPage(@Nullable String cursor, int limit) {
+		return getPage(m_keys, cursor, limit);
+	}
+
+	/**
+	 * 정렬된 키 집합에서 주어진 cursor 다음부터 최대 {@code limit}개의 키로 구성된 page를 반환한다.
+	 *
+	 * @param keys		정렬된 키 집합.
+	 * @param cursor	직전 page의 cursor. 첫번째 page인 경우는 {@code null}.
+	 * @param limit		page에 포함될 최대 키 갯수.
+	 * @return	키 page.
+	 */
+	public static Page<String> getPage(NavigableSet<String> keys, @Nullable String cursor, int limit) {
+		NavigableSet<String> tail = (cursor != null) ? keys.tailSet(Page.decodeCursor(cursor), false) : keys;
+
+		List<String> pageKeys = Lists.newArrayListWithCapacity(Math.min(limit, 256));
+		Iterator<String> iter = tail.iterator();
+		while ( iter.hasNext() && pageKeys.size() < limit ) {
+			pageKeys.add(iter.next());
+		}
+
+		String next = (iter.hasNext() && pageKeys.size() > 0)
+					? Page.encodeCursor(pageKeys.get(pageKeys.size()-1)) : null;
+		return new Page<>(pageKeys, next);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("sorted_keys[%d]", m_keys.size());
+	}
+}
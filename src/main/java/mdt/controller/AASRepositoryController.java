@@ -3,6 +3,8 @@ package mdt.controller;
 import java.io.File;
 import java.nio.file.Files;
 import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.DeserializationException;
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.SerializationException;
@@ -19,12 +21,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import utils.stream.FStream;
 
 import mdt.MDTController;
+import mdt.Page;
+import mdt.SortedKeyIndex;
 import mdt.model.instance.MDTInstance;
 import mdt.repository.AssetAdministrationShellRepositoryProvider;
 import mdt.repository.FileBasedAASRepository;
@@ -60,10 +65,26 @@ public class AASRepositoryController extends MDTController<MDTInstance> implemen
 
     @GetMapping("")
     @ResponseStatus(HttpStatus.OK)
-    public List<String> getAllAssetAdministrationShells(@PathVariable("id") String id) throws Exception {
-    	return FStream.from(m_repo.getAllAssetAdministrationShells())
-		    			.map(this::toEndpoint)
-		    			.toList();
+    public Object getAllAssetAdministrationShells(@RequestParam(name="assetIds", required=false) String assetId,
+    											@RequestParam(name="idShort", required=false) String idShort,
+    											@RequestParam(name="limit", required=false) Integer limit,
+    											@RequestParam(name="cursor", required=false) String cursor)
+    	throws Exception {
+    	if ( assetId != null ) {
+    		return toEndpoints(m_repo.getAllAssetAdministrationShellsByAssetId(assetId), limit, cursor);
+    	}
+    	else if ( idShort != null ) {
+    		return toEndpoints(m_repo.getAssetAdministrationShellByIdShort(idShort), limit, cursor);
+    	}
+    	else if ( limit != null || cursor != null ) {
+    		return m_repo.getAssetAdministrationShellPage(cursor, Page.checkLimit(limit))
+    					.map(this::toEndpoint);
+    	}
+    	else {
+    		return FStream.from(m_repo.getAllAssetAdministrationShells())
+    						.map(this::toEndpoint)
+    						.toList();
+    	}
     }
 
     @GetMapping("/{aasId}")
@@ -73,23 +94,6 @@ public class AASRepositoryController extends MDTController<MDTInstance> implemen
     	return toEndpoint(m_repo.getAssetAdministrationShellById(decoded));
     }
 
-    @GetMapping("?assetids={assetId}")
-    @ResponseStatus(HttpStatus.OK)
-    public List<String> getAllAssetAdministrationShellsByAssetId(@PathVariable("assetId") String assetId)
-    	throws Exception {
-    	return FStream.from(m_repo.getAllAssetAdministrationShellsByAssetId(assetId))
-		    			.map(this::toEndpoint)
-		    			.toList();
-    }
-
-    @GetMapping("?idShort={assetId}")
-    @ResponseStatus(HttpStatus.OK)
-    public List<String> getAllAssetAdministrationShellsByIdShort(@PathVariable("idShort") String idShort) throws Exception {
-    	return FStream.from(m_repo.getAssetAdministrationShellByIdShort(idShort))
-    					.map(this::toEndpoint)
-		    			.toList();
-    }
-
     @PostMapping({""})
     @ResponseStatus(HttpStatus.CREATED)
     public String addAssetAdministrationShell(@RequestBody String aasJson) throws DeserializationException {
@@ -115,4 +119,17 @@ public class AASRepositoryController extends MDTController<MDTInstance> implemen
 	private String toEndpoint(ServiceIdentifier svcId) {
 		return String.format("%s/%s", m_endpoint, svcId.getId());
 	}
+	
+	private Object toEndpoints(List<ServiceIdentifier> svcIds, Integer limit, String cursor) {
+		if ( limit != null || cursor != null ) {
+			TreeSet<String> ids = svcIds.stream()
+										.map(ServiceIdentifier::getId)
+										.collect(Collectors.toCollection(TreeSet::new));
+			return SortedKeyIndex.getPage(ids, cursor, Page.checkLimit(limit))
+									.map(id -> toEndpoint(new ServiceIdentifier(id)));
+		}
+		else {
+			return FStream.from(svcIds).map(this::toEndpoint).toList();
+		}
+	}
 }
@@ -0,0 +1,81 @@
+package mdt.controller;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import utils.stream.FStream;
+
+import mdt.MDTController;
+import mdt.Page;
+import mdt.registry.AssetAdministrationShellRegistryProvider;
+import mdt.registry.AssetLink;
+
+
+/**
+ * AAS v3 Discovery 서비스 API.
+ * <p>
+ * AAS registry가 유지하는 asset 식별자 색인을 이용하여 asset 식별자로부터 AAS 식별자를 찾는다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+@RestController
+@RequestMapping("/lookup/shells")
+public class DiscoveryController extends MDTController<AssetLink> implements InitializingBean {
+	private final Logger s_logger = LoggerFactory.getLogger(DiscoveryController.class);
+	private static final JsonMapper s_mapper = JsonMapper.builder().build();
+	
+	@Autowired
+    private AssetAdministrationShellRegistryProvider m_registry;
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		if ( s_logger.isInfoEnabled() ) {
+			s_logger.info("{} is ready to serve: registry={}", getClass().getName(), m_registry);
+		}
+	}
+
+	/**
+	 * 주어진 asset 식별자들을 모두 포함하는 AAS들의 식별자를 반환한다.
+	 * <p>
+	 * 각 {@code assetIds} 인자는 {@code {"name":...,"value":...}} 형태 JSON의 base64url 인코딩이다.
+	 */
+    @GetMapping({"", "/"})
+    public Page<String> getAllAssetAdministrationShellIdsByAssetLink(
+    										@RequestParam(name="assetIds", required=false) List<String> assetIds,
+    										@RequestParam(name="limit", required=false) Integer limit,
+    										@RequestParam(name="cursor", required=false) String cursor) {
+    	List<AssetLink> links = (assetIds != null)
+    							? FStream.from(assetIds).map(this::decodeAssetLink).toList()
+    							: List.of();
+    	return m_registry.getAssetAdministrationShellIdPageByAssetLinks(links, cursor, Page.checkLimit(limit));
+    }
+
+    @GetMapping("/{aasId}")
+    public List<AssetLink> getAllAssetLinksById(@PathVariable("aasId") String aasId) {
+		aasId = decodeBase64(aasId);
+		return m_registry.getAssetLinksById(aasId);
+    }
+    
+    private AssetLink decodeAssetLink(String encoded) {
+    	try {
+    		byte[] json = Base64.getUrlDecoder().decode(encoded);
+    		return s_mapper.readValue(json, AssetLink.class);
+    	}
+    	catch ( IOException | IllegalArgumentException e ) {
+    		throw new IllegalArgumentException("invalid assetIds: " + encoded + ", cause=" + e);
+    	}
+    }
+}
@@ -33,6 +33,7 @@ import utils.io.IOUtils;
 import utils.stream.FStream;
 
 import mdt.MDTController;
+import mdt.Page;
 import mdt.instance.AbstractInstanceManager;
 import mdt.instance.MDTInstanceProvider;
 import mdt.instance.docker.DockerInstanceManager;
@@ -93,7 +94,13 @@ public class MDTInstanceManagerController extends MDTController<MDTInstance> imp
     
     @GetMapping({"/all"})
     @ResponseStatus(HttpStatus.OK)
-    public List<MDTInstancePayload> getAllMDTInstaces() throws MDTInstanceManagerException, SerializationException {
+    public Object getAllMDTInstaces(@RequestParam(name="limit", required=false) Integer limit,
+    								@RequestParam(name="cursor", required=false) String cursor)
+    	throws MDTInstanceManagerException, SerializationException {
+    	if ( limit != null || cursor != null ) {
+    		return m_instance_manager.getInstancePage(cursor, Page.checkLimit(limit))
+    								.map(this::toPayloadAndClose);
+    	}
 		return m_instance_manager.getInstanceAll().stream()
 								.map(this::toPayloadAndClose)
 								.collect(Collectors.toList());
@@ -0,0 +1,70 @@
+package mdt.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import mdt.MDTController;
+import mdt.registry.RegistryChangeFeed;
+import mdt.registry.RegistryChangeFeed.ChangeBatch;
+
+
+/**
+*
+* @author Kang-Woo Lee (ETRI)
+*/
+@RestController
+@RequestMapping("/registry/changes")
+public class RegistryChangeController extends MDTController<ChangeBatch> implements InitializingBean {
+	private final Logger s_logger = LoggerFactory.getLogger(RegistryChangeController.class);
+	private static final int DEFAULT_LIMIT = 1000;
+	private static final long MAX_WAIT_SECONDS = 60;
+
+	@Autowired RegistryChangeFeed m_feed;
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		if ( s_logger.isInfoEnabled() ) {
+			s_logger.info("{} is ready to serve: feed={}", getClass().getName(), m_feed);
+		}
+	}
+
+	/**
+	 * 주어진 일련번호 이후의 registry 변경 내역을 반환한다.
+	 * <p>
+	 * {@code wait}가 주어지고 새로운 변경이 없는 경우는 변경이 발생하거나 대기 시간이 만료될 때까지
+	 * 응답을 지연시킨다 (long-poll). 대기 시간이 만료된 경우는 빈 변경 내역을 반환한다.
+	 */
+    @GetMapping({"", "/"})
+    public DeferredResult<ChangeBatch> getChanges(@RequestParam(name="since", defaultValue="0") long since,
+    										@RequestParam(name="epoch", required=false) String epoch,
+    										@RequestParam(name="limit", required=false) Integer limit,
+    										@RequestParam(name="wait", defaultValue="0") long waitSeconds) {
+    	int maxCount = (limit != null) ? limit : DEFAULT_LIMIT;
+    	long timeout = Math.min(Math.max(waitSeconds, 0), MAX_WAIT_SECONDS) * 1000;
+
+    	ChangeBatch batch = m_feed.getChanges(epoch, since, maxCount);
+    	if ( timeout == 0 || batch.isReset() || !batch.getChanges().isEmpty() ) {
+    		DeferredResult<ChangeBatch> result = new DeferredResult<>();
+    		result.setResult(batch);
+    		return result;
+    	}
+
+    	DeferredResult<ChangeBatch> result = new DeferredResult<>(timeout);
+    	Runnable waiter = () -> result.setResult(m_feed.getChanges(epoch, since, maxCount));
+    	result.onTimeout(() -> result.setResult(m_feed.getChanges(epoch, since, maxCount)));
+    	result.onCompletion(() -> m_feed.removeWaiter(waiter));
+    	if ( !m_feed.addWaiter(since, waiter) ) {
+    		// 조회 직후 새로운 변경이 발생한 경우
+    		waiter.run();
+    	}
+
+    	return result;
+    }
+}
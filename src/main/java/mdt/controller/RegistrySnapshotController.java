@@ -0,0 +1,86 @@
+package mdt.controller;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import mdt.MDTController;
+import mdt.registry.AssetAdministrationShellRegistryProvider;
+import mdt.registry.RegistryChangeFeed;
+import mdt.registry.RegistrySnapshot;
+import mdt.registry.RegistrySnapshot.ImportSummary;
+import mdt.registry.SubmodelRegistryProvider;
+
+
+/**
+*
+* @author Kang-Woo Lee (ETRI)
+*/
+@RestController
+@RequestMapping("/registry/snapshot")
+public class RegistrySnapshotController extends MDTController<ImportSummary> implements InitializingBean {
+	private final Logger s_logger = LoggerFactory.getLogger(RegistrySnapshotController.class);
+	private static final String CONTENT_TYPE_ZIP = "application/zip";
+
+	@Autowired AssetAdministrationShellRegistryProvider m_aasRegistry;
+	@Autowired SubmodelRegistryProvider m_submodelRegistry;
+	@Autowired RegistryChangeFeed m_feed;
+	private RegistrySnapshot m_snapshot;
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		m_snapshot = new RegistrySnapshot(m_aasRegistry, m_submodelRegistry);
+		if ( s_logger.isInfoEnabled() ) {
+			s_logger.info("{} is ready to serve: shells={}, submodels={}", getClass().getName(),
+							m_aasRegistry, m_submodelRegistry);
+		}
+	}
+
+	/**
+	 * AAS/Submodel registry 전체를 하나의 ZIP archive로 내려받는다.
+	 * <p>
+	 * Manifest에는 내보내기 시작 시점의 변경 피드 epoch과 일련번호가 기록되기 때문에, archive로
+	 * 복제한 registry는 해당 일련번호 이후의 변경 피드를 반영하여 최신 상태를 따라잡을 수 있다.
+	 */
+    @GetMapping({"", "/"})
+    public void exportSnapshot(HttpServletResponse resp) throws IOException {
+    	String ts = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+    	String fileName = String.format("mdt-registry-%s.zip", ts);
+    	resp.setStatus(HttpStatus.OK.value());
+    	resp.setContentType(CONTENT_TYPE_ZIP);
+    	resp.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+
+    	Map<String,Object> extra = Map.of("epoch", m_feed.getEpoch(), "last_seq", m_feed.getLastSequence());
+    	OutputStream out = new BufferedOutputStream(resp.getOutputStream());
+    	m_snapshot.export(extra, out);
+    	out.flush();
+    }
+
+	/**
+	 * ZIP archive에 포함된 descriptor들을 registry에 등록한다.
+	 * 이미 등록된 식별자의 descriptor는 {@code replace}가 지정된 경우는 교체하고, 그렇지 않으면 건너뛴다.
+	 */
+    @PostMapping({"", "/"})
+    public ImportSummary importSnapshot(@RequestParam(name="replace", defaultValue="false") boolean replace,
+    									HttpServletRequest req) throws IOException {
+    	return m_snapshot.importFrom(new BufferedInputStream(req.getInputStream()), replace);
+    }
+}
@@ -1,5 +1,9 @@
 package mdt.controller;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.DeserializationException;
@@ -9,20 +13,29 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import mdt.MDTController;
-import mdt.registry.CachingFileMDTSubmodelRegistry;
+import mdt.Page;
+import mdt.registry.BulkItemResult;
+import mdt.registry.LazyDescriptor;
+import mdt.registry.SubmodelRegistryProvider;
 
 
 /**
@@ -35,32 +48,64 @@ public class SubmodelRegistryController extends MDTController<SubmodelDescriptor
 											implements InitializingBean {
 	private final Logger s_logger = LoggerFactory.getLogger(SubmodelRegistryController.class);
 	
-	@Autowired CachingFileMDTSubmodelRegistry m_registry;
+	@Autowired SubmodelRegistryProvider m_registry;
 
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		if ( s_logger.isInfoEnabled() ) {
-			s_logger.info("set Submodel Registry store: {}", m_registry.getStoreDir().getAbsolutePath());
+			s_logger.info("set Submodel Registry store: {}", m_registry);
 		}
 	}
 
     @GetMapping({"", "/"})
-    @ResponseStatus(HttpStatus.OK)
-    public String getAllSubmodelDescriptors(@RequestParam(name="idShort", required=false) String idShort)
-    	throws SerializationException {
-		List<SubmodelDescriptor> submodelList
-			= (idShort != null)
-					? m_registry.getAllSubmodelDescriptorsByIdShort(idShort)
-					: m_registry.getAllSubmodelDescriptors();
-		return s_ser.writeList(submodelList);
+    public void getAllSubmodelDescriptors(@RequestParam(name="idShort", required=false) String idShort,
+    										@RequestParam(name="semanticId", required=false) String semanticId,
+    										@RequestParam(name="limit", required=false) Integer limit,
+    										@RequestParam(name="cursor", required=false) String cursor,
+    										HttpServletResponse resp) throws IOException {
+    	resp.setStatus(HttpStatus.OK.value());
+    	resp.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    	resp.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    	
+    	// 저장된 descriptor JSON을 역직렬화 없이 응답 스트림으로 바로 출력한다.
+    	// 출력 도중 오류가 발생하는 경우 예외 처리기가 응답을 작성할 수 있도록 스트림을 닫지 않는다.
+    	OutputStream out = new BufferedOutputStream(resp.getOutputStream());
+    	if ( semanticId != null ) {
+    		if ( limit != null || cursor != null ) {
+    			m_registry.writeJsonSubmodelDescriptorPageBySemanticId(semanticId, idShort, cursor,
+    																	Page.checkLimit(limit), out);
+    		}
+    		else {
+    			m_registry.writeAllJsonSubmodelDescriptorsBySemanticId(semanticId, idShort, out);
+    		}
+    	}
+    	else if ( limit != null || cursor != null ) {
+    		// paging 인자가 주어진 경우만 AAS v3 paging 결과 형태로 출력한다.
+    		m_registry.writeJsonSubmodelDescriptorPage(idShort, cursor, Page.checkLimit(limit), out);
+    	}
+    	else if ( idShort != null ) {
+    		m_registry.writeAllJsonSubmodelDescriptorsByIdShort(idShort, out);
+    	}
+    	else {
+    		m_registry.writeAllJsonSubmodelDescriptors(out);
+    	}
+    	out.flush();
     }
 
     @GetMapping(value = "/{submodelId}")
-    @ResponseStatus(HttpStatus.OK)
-    public String getSubmodelDescriptorById(@PathVariable("submodelId") String submodelId)
+    public ResponseEntity<String> getSubmodelDescriptorById(@PathVariable("submodelId") String submodelId,
+    		@RequestHeader(name=HttpHeaders.IF_NONE_MATCH, required=false) String ifNoneMatch)
     	throws SerializationException {
 		submodelId = decodeBase64(submodelId);
-		return m_registry.getJsonSubmodelDescriptorById(submodelId);
+		
+		LazyDescriptor<SubmodelDescriptor> desc = m_registry.getLazySubmodelDescriptorById(submodelId);
+		if ( isNotModified(ifNoneMatch, desc.getETag()) ) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(desc.getETag()).build();
+		}
+		return ResponseEntity.ok()
+							.eTag(desc.getETag())
+							.contentType(MediaType.APPLICATION_JSON)
+							.body(desc.getJson());
     }
 
     @PostMapping({"", "/"})
@@ -71,6 +116,16 @@ public class SubmodelRegistryController extends MDTController<SubmodelDescriptor
 		return s_ser.write(m_registry.addSubmodelDescriptor(aas));
     }
 
+    /**
+     * JSON 배열 혹은 NDJSON (한 줄에 하나의 descriptor) 형태로 주어진 SubmodelDescriptor들을 일괄 등록한다.
+     * <p>
+     * 일부 항목의 등록이 실패하더라도 나머지 항목들은 등록되며, 항목별 처리 결과를 입력 순서대로 반환한다.
+     */
+    @PostMapping("/bulk")
+    public List<BulkItemResult> addSubmodelDescriptors(HttpServletRequest req) throws IOException {
+    	return addBulk(req.getInputStream(), SubmodelDescriptor.class, m_registry::addSubmodelDescriptors);
+    }
+
     @DeleteMapping(value = "/{submodelId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void removeSubmodelDescriptor(@PathVariable("submodelId") String submodelId)
@@ -2,31 +2,47 @@ package mdt.controller;
 
 import java.io.File;
 import java.nio.file.Files;
+import java.time.Duration;
 import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.DeserializationException;
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.SerializationException;
 import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import utils.stream.FStream;
+
 import mdt.MDTController;
+import mdt.Page;
+import mdt.SortedKeyIndex;
 import mdt.model.instance.MDTInstance;
 import mdt.repository.FileBasedSubmodelRepository;
+import mdt.repository.FileBasedSubmodelRepository.CheckpointPolicy;
+import mdt.repository.FileBasedSubmodelRepository.StaleSubmodelServiceException;
 import mdt.repository.ServiceIdentifier;
 import mdt.repository.SubmodelRepositoryProvider;
+import mdt.repository.SubmodelServiceProvider;
 
 
 /**
@@ -35,7 +51,8 @@ import mdt.repository.SubmodelRepositoryProvider;
 */
 @RestController
 @RequestMapping("/api/v3.0/submodels")
-public class SubmodelRepositoryController extends MDTController<MDTInstance> implements InitializingBean {
+public class SubmodelRepositoryController extends MDTController<MDTInstance>
+											implements InitializingBean, DisposableBean {
 	private final Logger s_logger = LoggerFactory.getLogger(SubmodelRepositoryController.class);
 
 	@Value("file:${repository.workspaceDir}")
@@ -43,6 +60,14 @@ public class SubmodelRepositoryController extends MDTController<MDTInstance> imp
 	private SubmodelRepositoryProvider m_repository;
 	@Value("${repository.endpoint}")
 	private String m_endpoint;
+	@Value("${repository.journal.enabled:false}")
+	private boolean m_journalEnabled;
+	@Value("${repository.journal.checkpointDeltas:1000}")
+	private int m_checkpointDeltas;
+	@Value("${repository.journal.checkpointInterval:60s}")
+	private Duration m_checkpointInterval;
+	@Value("${repository.serviceCacheSize:" + FileBasedSubmodelRepository.DEFAULT_SERVICE_CACHE_SIZE + "}")
+	private int m_serviceCacheSize;
 
 	@Override
 	public void afterPropertiesSet() throws Exception {
@@ -52,34 +77,42 @@ public class SubmodelRepositoryController extends MDTController<MDTInstance> imp
 		}
 		Files.createDirectories(workspaceDir.toPath());
 		
-		m_repository = new FileBasedSubmodelRepository(workspaceDir);
+		CheckpointPolicy policy = null;
+		if ( m_journalEnabled ) {
+			File journalDir = new File(m_repositoryWorkspaceDir, "submodels_journal");
+			policy = new CheckpointPolicy(journalDir, m_checkpointDeltas, m_checkpointInterval);
+		}
+		m_repository = new FileBasedSubmodelRepository(workspaceDir, policy, m_serviceCacheSize);
 		m_endpoint = m_endpoint + "/submodels";
 	}
 
-    @GetMapping("")
-    @ResponseStatus(HttpStatus.OK)
-    public List<String> getAllSubmodels() throws Exception {
-    	return m_repository.getAllSubmodels().stream()
-    						.map(this::toEndpoint)
-    						.toList();
-    }
-
-    @GetMapping("?semanticId={semanticId}")
-    @ResponseStatus(HttpStatus.OK)
-    public List<String> getAllSubmodelsBySemanticId(@PathVariable("semanticId") String semanticId)
-    	throws Exception {
-    	return m_repository.getAllSubmodelBySemanticId(semanticId).stream()
-							.map(this::toEndpoint)
-							.toList();
-    }
+	@Override
+	public void destroy() throws Exception {
+		// 남은 journal을 submodel 파일에 반영한다.
+		m_repository.close();
+	}
 
-    @GetMapping("?idShort={idShort}")
+    @GetMapping("")
     @ResponseStatus(HttpStatus.OK)
-    public List<String> getAllSubmodelsByIdShort(@PathVariable("idShort") String idShort)
-    	throws Exception {
-    	return m_repository.getAllSubmodelsByIdShort( idShort).stream()
-							.map(this::toEndpoint)
-							.toList();
+    public Object getAllSubmodels(@RequestParam(name="semanticId", required=false) String semanticId,
+    								@RequestParam(name="idShort", required=false) String idShort,
+    								@RequestParam(name="limit", required=false) Integer limit,
+    								@RequestParam(name="cursor", required=false) String cursor) throws Exception {
+    	if ( semanticId != null ) {
+    		return toEndpoints(m_repository.getAllSubmodelBySemanticId(semanticId), limit, cursor);
+    	}
+    	else if ( idShort != null ) {
+    		return toEndpoints(m_repository.getAllSubmodelsByIdShort(idShort), limit, cursor);
+    	}
+    	else if ( limit != null || cursor != null ) {
+    		return m_repository.getSubmodelPage(cursor, Page.checkLimit(limit))
+    							.map(this::toEndpoint);
+    	}
+    	else {
+    		return m_repository.getAllSubmodels().stream()
+    							.map(this::toEndpoint)
+    							.toList();
+    	}
     }
 
     @GetMapping("/{aasId}")
@@ -108,8 +141,103 @@ public class SubmodelRepositoryController extends MDTController<MDTInstance> imp
     public void removeSubmodelById(@PathVariable("submodelId") String id) throws SerializationException {
 		m_repository.removeSubmodelById(id);
     }
+
+    @GetMapping("/{submodelId}/submodel-elements/{idShortPath}")
+    public ResponseEntity<String> getSubmodelElementByPath(@PathVariable("submodelId") String submodelId,
+    														@PathVariable("idShortPath") String idShortPath)
+    	throws Exception {
+    	SubmodelElement element = callSubmodelService(submodelId,
+    												svc -> svc.getSubmodelElementByPath(idShortPath));
+    	return ResponseEntity.ok()
+    						.contentType(MediaType.APPLICATION_JSON)
+    						.body(s_ser.write(element));
+    }
+
+    /**
+     * Submodel 최상위에 SubmodelElement를 추가한다.
+     * <p>
+     * 동일 submodel에 대한 변경 요청들은 repository가 공유하는 서비스에서 서로 직렬화되며,
+     * 변경 내역은 SubmodelElement 단위로 저장된다.
+     */
+    @PostMapping("/{submodelId}/submodel-elements")
+    @ResponseStatus(HttpStatus.CREATED)
+    public String addSubmodelElement(@PathVariable("submodelId") String submodelId,
+    									@RequestBody String elementJson) throws Exception {
+    	SubmodelElement element = s_deser.read(elementJson, SubmodelElement.class);
+    	return s_ser.write(callSubmodelService(submodelId, svc -> svc.addSubmodelElement(element)));
+    }
+
+    @PutMapping("/{submodelId}/submodel-elements/{idShortPath}")
+    public String updateSubmodelElementByPath(@PathVariable("submodelId") String submodelId,
+    											@PathVariable("idShortPath") String idShortPath,
+    											@RequestBody String elementJson) throws Exception {
+    	SubmodelElement element = s_deser.read(elementJson, SubmodelElement.class);
+    	SubmodelElement updated = callSubmodelService(submodelId,
+    										svc -> svc.updateSubmodelElementByPath(idShortPath, element));
+    	return s_ser.write(updated);
+    }
+
+    /**
+     * 주어진 idShortPath의 element 값을 value-only 형태 ({@code $value})의 JSON으로 변경한다.
+     */
+    @PatchMapping("/{submodelId}/submodel-elements/{idShortPath}/$value")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void updateSubmodelElementValueByPath(@PathVariable("submodelId") String submodelId,
+    											@PathVariable("idShortPath") String idShortPath,
+    											@RequestBody String valueJson) throws Exception {
+    	callSubmodelService(submodelId, svc -> {
+    		svc.updateSubmodelElementValueByPath(idShortPath, valueJson);
+    		return null;
+    	});
+    }
+
+    @DeleteMapping("/{submodelId}/submodel-elements/{idShortPath}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteSubmodelElementByPath(@PathVariable("submodelId") String submodelId,
+    										@PathVariable("idShortPath") String idShortPath)
+    	throws Exception {
+    	callSubmodelService(submodelId, svc -> {
+    		svc.deleteSubmodelElementByPath(idShortPath);
+    		return null;
+    	});
+    }
+	
+	private interface SubmodelServiceCall<T> {
+		public T call(SubmodelServiceProvider svc) throws Exception;
+	}
+	
+	/**
+	 * 주어진 submodel의 서비스로 요청을 수행한다.
+	 * <p>
+	 * 서비스를 얻은 뒤 submodel이 교체/삭제되어 변경이 거부된 경우는 새 서비스로 한번 더 수행한다.
+	 */
+	private <T> T callSubmodelService(String submodelId, SubmodelServiceCall<T> call) throws Exception {
+		for ( int trial = 0;; ++trial ) {
+			try ( SubmodelServiceProvider svc = m_repository.openSubmodelService(submodelId) ) {
+				return call.call(svc);
+			}
+			catch ( StaleSubmodelServiceException e ) {
+				if ( trial > 0 ) {
+					throw e;
+				}
+			}
+		}
+	}
 	
 	private String toEndpoint(ServiceIdentifier svcId) {
 		return String.format("%s/%s", m_endpoint, svcId.getId());
 	}
+	
+	private Object toEndpoints(List<ServiceIdentifier> svcIds, Integer limit, String cursor) {
+		if ( limit != null || cursor != null ) {
+			TreeSet<String> ids = svcIds.stream()
+										.map(ServiceIdentifier::getId)
+										.collect(Collectors.toCollection(TreeSet::new));
+			return SortedKeyIndex.getPage(ids, cursor, Page.checkLimit(limit))
+									.map(id -> toEndpoint(new ServiceIdentifier(id)));
+		}
+		else {
+			return FStream.from(svcIds).map(this::toEndpoint).toList();
+		}
+	}
 }
@@ -8,6 +8,7 @@ import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -35,6 +36,7 @@ import org.springframework.util.FileSystemUtils;
 
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.eventbus.Subscribe;
@@ -44,15 +46,16 @@ import utils.func.Try;
 import utils.stream.FStream;
 
 import mdt.Globals;
+import mdt.Page;
 import mdt.client.Utils;
 import mdt.client.registry.RegistryModelConverter;
 import mdt.model.ServiceFactory;
 import mdt.model.instance.MDTInstance;
 import mdt.model.instance.MDTInstanceManagerException;
-import mdt.model.registry.AssetAdministrationShellRegistry;
 import mdt.model.registry.ResourceAlreadyExistsException;
 import mdt.model.registry.ResourceNotFoundException;
-import mdt.model.registry.SubmodelRegistry;
+import mdt.registry.AssetAdministrationShellRegistryProvider;
+import mdt.registry.SubmodelRegistryProvider;
 
 /**
  *
@@ -60,16 +63,18 @@ import mdt.model.registry.SubmodelRegistry;
  */
 public abstract class AbstractInstanceManager implements MDTInstanceManagerProvider, LoggerSettable {
 	private static final Logger s_logger = LoggerFactory.getLogger(AbstractInstanceManager.class);
+	private static final JsonDeserializer s_deser = new JsonDeserializer();
 	
 	private final ServiceFactory m_serviceFact;
-	private final AssetAdministrationShellRegistry m_aasRegistry;
-	private final SubmodelRegistry m_submodelRegistry;
+	private final AssetAdministrationShellRegistryProvider m_aasRegistry;
+	private final SubmodelRegistryProvider m_submodelRegistry;
 	private final String m_repositoryEndpointFormat;
 	private final File m_workspaceDir;
 	private final InstanceDescriptorManager m_descriptorManager;
 	private Logger m_logger;
 	protected final ReadWriteLock m_rwLock = new ReentrantReadWriteLock();
 	private final MqttClient m_mqttClient;
+	private final EndpointUpdateBatcher m_endpointUpdater;
 	
 	abstract protected InstanceDescriptor initializeInstance(InstanceDescriptor desc);
 	abstract protected AbstractInstance toInstance(InstanceDescriptor descriptor)
@@ -93,6 +98,9 @@ public abstract class AbstractInstanceManager implements MDTInstanceManagerProvi
 			}
 		}
 		m_repositoryEndpointFormat = epFormat;
+		m_endpointUpdater = new EndpointUpdateBatcher(this::updateServiceEndpoints,
+														EndpointUpdateBatcher.DEFAULT_LINGER,
+														EndpointUpdateBatcher.DEFAULT_MAX_BATCH_SIZE);
 		
 		try {
 			MqttClientPersistence persist = new MemoryPersistence();
@@ -113,12 +121,12 @@ public abstract class AbstractInstanceManager implements MDTInstanceManagerProvi
 	}
 	
 	@Override
-	public AssetAdministrationShellRegistry getAssetAdministrationShellRegistry() {
+	public AssetAdministrationShellRegistryProvider getAssetAdministrationShellRegistry() {
 		return m_aasRegistry;
 	}
 	
 	@Override
-	public SubmodelRegistry getSubmodelRegistry() {
+	public SubmodelRegistryProvider getSubmodelRegistry() {
 		return m_submodelRegistry;
 	}
 	
@@ -129,6 +137,25 @@ public abstract class AbstractInstanceManager implements MDTInstanceManagerProvi
 	public File getInstanceWorkspaceDir(String id) {
 		return new File(m_workspaceDir, id);
 	}
+	
+	/**
+	 * InstanceManager를 종료시킨다.
+	 * <p>
+	 * 더 이상 상태 변경 이벤트를 수신하지 않도록 한 뒤, 아직 반영되지 않은 서비스 endpoint 갱신 요청들을
+	 * registry에 반영하고 MQTT 연결을 종료한다.
+	 */
+	public void shutdown() {
+		Globals.EVENT_BUS.unregister(this);
+		m_endpointUpdater.close();
+		
+		try {
+			m_mqttClient.disconnect();
+			m_mqttClient.close();
+		}
+		catch ( MqttException e ) {
+			getLogger().warn("failed to close MQTT client, cause={}", e.toString());
+		}
+	}
 
 	@Override
 	public AbstractInstance getInstance(String id) throws ResourceNotFoundException {
@@ -172,6 +199,21 @@ public abstract class AbstractInstanceManager implements MDTInstanceManagerProvi
 		}
 	}
 
+	public Page<MDTInstance> getInstancePage(String cursor, int limit) throws MDTInstanceManagerException {
+		m_rwLock.readLock().lock();
+		try {
+			Page<InstanceDescriptor> descPage = m_descriptorManager.getInstanceDescriptorPage(cursor, limit);
+			List<MDTInstance> instList = FStream.from(descPage.getResult())
+												.mapOrIgnore(this::toInstance)
+												.cast(MDTInstance.class)
+												.toList();
+			return new Page<>(instList, descPage.getCursor());
+		}
+		finally {
+			m_rwLock.readLock().unlock();
+		}
+	}
+
 	@Override
 	public List<MDTInstance> getInstanceAllByIdShort(String aasIdShort) throws MDTInstanceManagerException {
 		Preconditions.checkNotNull(aasIdShort);
@@ -316,14 +358,15 @@ public abstract class AbstractInstanceManager implements MDTInstanceManagerProvi
 	public void updateServiceEndpoint(InstanceStatusChangeEvent ev) {
 		m_rwLock.readLock().lock();
 		try {
-			MDTInstance inst = getInstance(ev.getId());
+			// Registry 갱신은 EventBus 쓰레드에서 바로 수행하지 않고, 인접한 상태 변경들과 모아서
+			// 전용 쓰레드에서 한번에 수행한다.
 			switch ( ev.getStatus() ) {
 				case RUNNING:
-					setServiceEndpoint(inst.getAASId(), ev.getServiceEndpoint());
+					m_endpointUpdater.submit(getInstance(ev.getId()).getAASId(), ev.getServiceEndpoint());
 					break;
 				case STOPPED:
 				case FAILED:
-					unsetServiceEndpoint(inst.getAASId());
+					m_endpointUpdater.submit(getInstance(ev.getId()).getAASId(), null);
 					break;
 				default: break;
 			}
@@ -438,66 +481,113 @@ public abstract class AbstractInstanceManager implements MDTInstanceManagerProvi
 		Try.run(() -> m_aasRegistry.removeAssetAdministrationShellDescriptorById(aasDesc.getId()));
 	}
 	
+	/**
+	 * 주어진 AAS의 서비스 endpoint 설정을 요청한다.
+	 * <p>
+	 * 변경은 다른 endpoint 변경 요청들과 함께 모아서 비동기적으로 registry에 반영된다.
+	 */
 	protected void setServiceEndpoint(String aasId, String svcEndpoint) {
-		AssetAdministrationShellDescriptor aasDesc
-											= m_aasRegistry.getAssetAdministrationShellDescriptorById(aasId);
-		
-		String encodedAssId = Utils.encodeBase64(aasId);
-		Endpoint aasEp = RegistryModelConverter.createEndpoint(svcEndpoint + "/shells/"
-																+ encodedAssId, "AAS-3.0");
-		aasDesc.setEndpoints(Arrays.asList(aasEp));
-		
-		if ( getLogger().isInfoEnabled() ) {
-			getLogger().info("updated Endpoints in the AssetAdministrationShell Registry: aas={}", aasId);
-		}
-		
-		String prefix = svcEndpoint + "/submodels";
-		List<SubmodelDescriptor> smDescList
-				= FStream.from(aasDesc.getSubmodelDescriptors())
-						.map(smDesc -> {
-							String url = prefix + "/" + Utils.encodeBase64(smDesc.getId());
-							List<Endpoint> eps = RegistryModelConverter.createEndpoints(url, "SUBMODEL-3.0");
-							smDesc.setEndpoints(eps);
-							return smDesc;
-						})
-						.toList();
-		m_aasRegistry.updateAssetAdministrationShellDescriptorById(aasDesc);
-		
-		for ( SubmodelDescriptor smDesc: smDescList ) {
-			m_submodelRegistry.updateSubmodelDescriptorById(smDesc);
-		}
-		
-		if ( getLogger().isInfoEnabled() ) {
-			getLogger().info("updated Endpoints in the Submodel Registry: aas={}", aasId);
-		}
+		m_endpointUpdater.submit(aasId, svcEndpoint);
 	}
 	
+	/**
+	 * 주어진 AAS의 서비스 endpoint 해제를 요청한다.
+	 * <p>
+	 * 변경은 다른 endpoint 변경 요청들과 함께 모아서 비동기적으로 registry에 반영된다.
+	 */
 	protected void unsetServiceEndpoint(String aasId) {
-		AssetAdministrationShellDescriptor aasDesc
-											= m_aasRegistry.getAssetAdministrationShellDescriptorById(aasId);
-		Endpoint aasEp = RegistryModelConverter.createEndpoint("", "AAS-3.0");
-		aasDesc.setEndpoints(Arrays.asList(aasEp));
+		m_endpointUpdater.submit(aasId, null);
+	}
+	
+	/**
+	 * 주어진 AAS들과 그 Submodel들의 서비스 endpoint를 변경한다.
+	 * <p>
+	 * 변경된 descriptor들은 AAS registry와 Submodel registry 각각에 한번의 저장 연산으로 반영된다.
+	 * 
+	 * @param endpoints	AAS 식별자에서 서비스 endpoint로의 맵. endpoint가 비어있는 경우는
+	 * 					해당 AAS의 endpoint를 해제한다.
+	 */
+	protected void updateServiceEndpoints(Map<String,Optional<String>> endpoints) {
+		List<AssetAdministrationShellDescriptor> aasDescList = Lists.newArrayList();
+		List<SubmodelDescriptor> smDescList = Lists.newArrayList();
+		for ( Map.Entry<String,Optional<String>> ent: endpoints.entrySet() ) {
+			String aasId = ent.getKey();
+			AssetAdministrationShellDescriptor aasDesc;
+			try {
+				// registry가 반환하는 descriptor 객체는 cache를 통해 다른 호출자들과 공유되기 때문에
+				// 변경할 descriptor 객체는 JSON으로부터 별도로 생성한다.
+				String json = m_aasRegistry.getJsonAssetAdministrationShellDescriptorById(aasId);
+				aasDesc = s_deser.read(json, AssetAdministrationShellDescriptor.class);
+			}
+			catch ( ResourceNotFoundException e ) {
+				getLogger().warn("skip updating Endpoints of unknown AssetAdministrationShell: aas={}", aasId);
+				continue;
+			}
+			catch ( DeserializationException e ) {
+				getLogger().warn("skip updating Endpoints of invalid AssetAdministrationShell descriptor: "
+								+ "aas={}, cause={}", aasId, e.toString());
+				continue;
+			}
+			
+			String svcEndpoint = ent.getValue().orElse(null);
+			if ( svcEndpoint != null ) {
+				String encodedAssId = Utils.encodeBase64(aasId);
+				Endpoint aasEp = RegistryModelConverter.createEndpoint(svcEndpoint + "/shells/"
+																		+ encodedAssId, "AAS-3.0");
+				aasDesc.setEndpoints(Arrays.asList(aasEp));
+				
+				String prefix = svcEndpoint + "/submodels";
+				for ( SubmodelDescriptor smDesc: aasDesc.getSubmodelDescriptors() ) {
+					String url = prefix + "/" + Utils.encodeBase64(smDesc.getId());
+					smDesc.setEndpoints(RegistryModelConverter.createEndpoints(url, "SUBMODEL-3.0"));
+					smDescList.add(smDesc);
+				}
+			}
+			else {
+				Endpoint aasEp = RegistryModelConverter.createEndpoint("", "AAS-3.0");
+				aasDesc.setEndpoints(Arrays.asList(aasEp));
+				
+				for ( SubmodelDescriptor smDesc: aasDesc.getSubmodelDescriptors() ) {
+					smDesc.setEndpoints(RegistryModelConverter.createEndpoints("", "SUBMODEL-3.0"));
+					smDescList.add(smDesc);
+				}
+			}
+			aasDescList.add(aasDesc);
+		}
 		
-		if ( getLogger().isInfoEnabled() ) {
-			getLogger().info("Remove Endpoints in the AssetAdministrationShell Registry: aas={}", aasId);
+		try {
+			m_aasRegistry.updateAssetAdministrationShellDescriptors(aasDescList);
 		}
-
-		List<SubmodelDescriptor> smDescList
-				= FStream.from(aasDesc.getSubmodelDescriptors())
-						.map(smDesc -> {
-							List<Endpoint> eps = RegistryModelConverter.createEndpoints("", "SUBMODEL-3.0");
-							smDesc.setEndpoints(eps);
-							return smDesc;
-						})
-						.toList();
-		m_aasRegistry.updateAssetAdministrationShellDescriptorById(aasDesc);
-
-		for ( SubmodelDescriptor smDesc: smDescList ) {
-			m_submodelRegistry.updateSubmodelDescriptorById(smDesc);
+		catch ( ResourceNotFoundException e ) {
+			// 조회 이후 삭제된 descriptor가 있는 경우는 개별적으로 변경한다.
+			for ( AssetAdministrationShellDescriptor aasDesc: aasDescList ) {
+				try {
+					m_aasRegistry.updateAssetAdministrationShellDescriptorById(aasDesc);
+				}
+				catch ( Exception ex ) {
+					getLogger().warn("failed to update Endpoints of AssetAdministrationShell: "
+									+ "aas={}, cause={}", aasDesc.getId(), ex.toString());
+				}
+			}
+		}
+		try {
+			m_submodelRegistry.updateSubmodelDescriptors(smDescList);
+		}
+		catch ( ResourceNotFoundException e ) {
+			for ( SubmodelDescriptor smDesc: smDescList ) {
+				try {
+					m_submodelRegistry.updateSubmodelDescriptorById(smDesc);
+				}
+				catch ( Exception ex ) {
+					getLogger().warn("failed to update Endpoints of Submodel: submodel={}, cause={}",
+									smDesc.getId(), ex.toString());
+				}
+			}
 		}
 		
 		if ( getLogger().isInfoEnabled() ) {
-			getLogger().info("Remove Endpoints in the Submodel Registry: aas={}", aasId);
+			getLogger().info("updated Endpoints in the AssetAdministrationShell/Submodel Registry: "
+							+ "aas-count={}, submodel-count={}", aasDescList.size(), smDescList.size());
 		}
 	}
 }
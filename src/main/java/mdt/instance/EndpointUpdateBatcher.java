@@ -0,0 +1,128 @@
+package mdt.instance;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+
+/**
+ * MDTInstance 상태 변경에 따른 서비스 endpoint 갱신 요청들을 모아서 한번에 처리하는 group-commit 처리기.
+ * <p>
+ * 요청이 들어오면 {@code linger} 시간동안 뒤이어 들어오는 요청들을 모은 뒤 한번에 처리하며,
+ * 모인 요청 수가 {@code maxBatchSize}에 도달하면 즉시 처리한다. 동일 AAS에 대한 요청들은
+ * 마지막 요청으로 병합된다. 모든 처리는 하나의 전용 쓰레드에서 요청 순서대로 수행된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+class EndpointUpdateBatcher implements AutoCloseable {
+	private static final Logger s_logger = LoggerFactory.getLogger(EndpointUpdateBatcher.class);
+
+	static final Duration DEFAULT_LINGER = Duration.ofMillis(50);
+	static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+	private final Consumer<Map<String,Optional<String>>> m_committer;
+	private final long m_lingerMillis;
+	private final int m_maxBatchSize;
+	private final ScheduledExecutorService m_executor;
+
+	private final Object m_mutex = new Object();
+	private Map<String,Optional<String>> m_pending = Maps.newLinkedHashMap();	// guarded by m_mutex
+	private boolean m_flushScheduled = false;									// guarded by m_mutex
+
+	/**
+	 * Group-commit 처리기를 생성한다.
+	 *
+	 * @param committer		모인 요청들을 처리할 함수. AAS 식별자에서 서비스 endpoint로의 맵을 인자로
+	 * 						받으며, endpoint가 비어있는 경우는 endpoint 해제를 의미한다.
+	 * @param linger		요청을 모으는 최대 대기 시간.
+	 * @param maxBatchSize	한번에 처리할 최대 요청 수.
+	 */
+	EndpointUpdateBatcher(Consumer<Map<String,Optional<String>>> committer, Duration linger, int maxBatchSize) {
+		Preconditions.checkArgument(maxBatchSize > 0, "invalid max batch size: " + maxBatchSize);
+
+		m_committer = committer;
+		m_lingerMillis = linger.toMillis();
+		m_maxBatchSize = maxBatchSize;
+		m_executor = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "endpoint-updater");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * 서비스 endpoint 갱신을 요청한다.
+	 *
+	 * @param aasId		대상 AAS 식별자.
+	 * @param endpoint	설정할 서비스 endpoint. endpoint를 해제하는 경우는 {@code null}.
+	 */
+	void submit(String aasId, @Nullable String endpoint) {
+		synchronized ( m_mutex ) {
+			m_pending.put(aasId, Optional.ofNullable(endpoint));
+
+			if ( m_pending.size() >= m_maxBatchSize ) {
+				m_flushScheduled = true;
+				m_executor.execute(this::flush);
+			}
+			else if ( !m_flushScheduled ) {
+				m_flushScheduled = true;
+				m_executor.schedule(this::flush, m_lingerMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+
+	/**
+	 * 처리기를 종료시킨다.
+	 * <p>
+	 * 종료 전까지 접수된 요청들은 linger 시간을 기다리지 않고 즉시 처리된다.
+	 */
+	@Override
+	public void close() {
+		try {
+			m_executor.execute(this::flush);
+		}
+		catch ( RejectedExecutionException e ) {
+			// 이미 종료된 경우
+			return;
+		}
+		m_executor.shutdown();
+		try {
+			m_executor.awaitTermination(5, TimeUnit.SECONDS);
+		}
+		catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void flush() {
+		Map<String,Optional<String>> batch;
+		synchronized ( m_mutex ) {
+			if ( m_pending.isEmpty() ) {
+				return;
+			}
+			batch = m_pending;
+			m_pending = Maps.newLinkedHashMap();
+			m_flushScheduled = false;
+		}
+
+		try {
+			m_committer.accept(batch);
+		}
+		catch ( Exception e ) {
+			s_logger.error("failed to update service endpoints: aas-ids={}, cause={}", batch.keySet(), e);
+		}
+	}
+}
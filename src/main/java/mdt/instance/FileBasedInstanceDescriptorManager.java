@@ -3,8 +3,11 @@ package mdt.instance;
 import java.io.File;
 import java.nio.file.Files;
 import java.util.List;
+import java.util.TreeSet;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.util.FileSystemUtils;
 
@@ -13,6 +16,8 @@ import com.fasterxml.jackson.databind.json.JsonMapper;
 import utils.func.Try;
 import utils.stream.FStream;
 
+import mdt.Page;
+import mdt.SortedKeyIndex;
 import mdt.model.instance.MDTInstanceManagerException;
 import mdt.model.registry.ResourceAlreadyExistsException;
 import mdt.model.registry.ResourceNotFoundException;
@@ -97,6 +102,26 @@ public class FileBasedInstanceDescriptorManager implements InstanceDescriptorMan
 		}
 	}
 
+	@Override
+	public Page<InstanceDescriptor> getInstanceDescriptorPage(String cursor, int limit)
+		throws MDTInstanceManagerException {
+		m_rwLock.readLock().lock();
+		try {
+			// 디렉토리 이름만으로 page를 구성하고, page에 포함된 descriptor 파일들만 읽는다.
+			TreeSet<String> ids = Stream.of(m_workspaceDir.listFiles(File::isDirectory))
+											.map(File::getName)
+											.collect(Collectors.toCollection(TreeSet::new));
+			Page<String> idPage = SortedKeyIndex.getPage(ids, cursor, limit);
+			List<InstanceDescriptor> descList = FStream.from(idPage.getResult())
+														.mapOrIgnore(this::readDescriptor)
+														.toList();
+			return new Page<>(descList, idPage.getCursor());
+		}
+		finally {
+			m_rwLock.readLock().unlock();
+		}
+	}
+
 	@Override
 	public void addInstanceDescriptor(InstanceDescriptor desc)
 			throws MDTInstanceManagerException, ResourceAlreadyExistsException {
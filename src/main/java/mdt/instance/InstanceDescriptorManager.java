@@ -2,6 +2,7 @@ package mdt.instance;
 
 import java.util.List;
 
+import mdt.Page;
 import mdt.model.instance.MDTInstanceManagerException;
 import mdt.model.registry.ResourceAlreadyExistsException;
 import mdt.model.registry.ResourceNotFoundException;
@@ -26,4 +27,15 @@ public interface InstanceDescriptorManager {
 			throws MDTInstanceManagerException;
 	
 	public List<InstanceDescriptor> getInstanceDescriptorAll() throws MDTInstanceManagerException; 
+	
+	/**
+	 * 식별자 순으로 정렬된 instance descriptor들 중 주어진 cursor 다음의 page를 반환한다.
+	 *
+	 * @param cursor	직전 page의 cursor. 첫번째 page인 경우는 {@code null}.
+	 * @param limit		page에 포함될 최대 descriptor 갯수.
+	 * @return	instance descriptor page.
+	 * @throws MDTInstanceManagerException	descriptor 조회 중 오류가 발생된 경우.
+	 */
+	public Page<InstanceDescriptor> getInstanceDescriptorPage(String cursor, int limit)
+		throws MDTInstanceManagerException;
 }
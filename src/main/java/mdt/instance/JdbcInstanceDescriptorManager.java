@@ -13,6 +13,7 @@ import utils.func.CheckedFunctionX;
 import utils.jdbc.JdbcProcessor;
 import utils.jdbc.JdbcRowSource;
 
+import mdt.Page;
 import mdt.model.instance.MDTInstanceManagerException;
 import mdt.model.registry.ResourceAlreadyExistsException;
 import mdt.model.registry.ResourceNotFoundException;
@@ -126,6 +127,52 @@ public class JdbcInstanceDescriptorManager implements InstanceDescriptorManager
 		}
 	}
 
+	private static final String SQL_GET_PAGE_FIRST = String.format(
+			"select id, aas_id, aas_id_short, arguments from %s order by id limit ?", TABLE);
+	private static final String SQL_GET_PAGE_NEXT = String.format(
+			"select id, aas_id, aas_id_short, arguments from %s where id > ? order by id limit ?", TABLE);
+	@Override
+	public Page<InstanceDescriptor> getInstanceDescriptorPage(String cursor, int limit)
+		throws MDTInstanceManagerException {
+		String lastId = (cursor != null) ? Page.decodeCursor(cursor) : null;
+		
+		try ( Connection conn = m_jdbc.connect() ) {
+			conn.setAutoCommit(false);
+			
+			// 다음 page 존재 여부를 알기 위해 하나를 더 읽는다.
+			List<InstanceDescriptor> descList = Lists.newArrayList();
+			String sqlStr = (lastId != null) ? SQL_GET_PAGE_NEXT : SQL_GET_PAGE_FIRST;
+			try ( PreparedStatement pstmt = conn.prepareStatement(sqlStr) ) {
+				int idx = 1;
+				if ( lastId != null ) {
+					pstmt.setString(idx++, lastId);
+				}
+				pstmt.setInt(idx, limit + 1);
+				
+				ResultSet rs = pstmt.executeQuery();
+				while ( rs.next() ) {
+					descList.add(DESER.apply(rs));
+				}
+			}
+			
+			String next = null;
+			if ( descList.size() > limit ) {
+				descList = Lists.newArrayList(descList.subList(0, limit));
+				next = Page.encodeCursor(descList.get(limit-1).getId());
+			}
+			for ( InstanceDescriptor desc: descList ) {
+				desc.setSubmodels(getSubmodelDescriptorAllById(conn, desc.getId()));
+			}
+			conn.commit();
+			
+			return new Page<>(descList, next);
+		}
+		catch ( SQLException e ) {
+			throw new MDTInstanceManagerException("Failed to get InstanceDescriptor page: cursor=" + cursor
+													+ ", cause=" + e);
+		}
+	}
+
 	@Override
 	public InstanceDescriptor getInstanceDescriptorBySubmodelId(String submodelId)
 		throws MDTInstanceManagerException {
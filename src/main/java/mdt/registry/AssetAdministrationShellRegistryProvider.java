@@ -1,5 +1,12 @@
 package mdt.registry;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.eclipse.digitaltwin.aas4j.v3.model.AssetAdministrationShellDescriptor;
+
+import mdt.Page;
 import mdt.model.registry.AssetAdministrationShellRegistry;
 import mdt.model.registry.RegistryException;
 import mdt.model.registry.ResourceNotFoundException;
@@ -12,4 +19,64 @@ import mdt.model.registry.ResourceNotFoundException;
 public interface AssetAdministrationShellRegistryProvider extends AssetAdministrationShellRegistry {
 	public String getJsonAssetAdministrationShellDescriptorById(String aasId) throws ResourceNotFoundException,
 																						RegistryException;
+	public LazyDescriptor<AssetAdministrationShellDescriptor>
+	getLazyAssetAdministrationShellDescriptorById(String aasId) throws ResourceNotFoundException,
+																		RegistryException;
+	
+	public void writeAllJsonAssetAdministrationShellDescriptors(OutputStream out)
+		throws IOException, RegistryException;
+	public void writeAllJsonAssetAdministrationShellDescriptorsByIdShort(String idShort, OutputStream out)
+		throws IOException, RegistryException;
+	/**
+	 * 주어진 AssetAdministrationShellDescriptor들을 하나의 저장 연산으로 변경한다.
+	 * 
+	 * @param descriptors	변경될 AssetAdministrationShellDescriptor 목록.
+	 * @throws ResourceNotFoundException	등록되지 않은 descriptor가 포함된 경우. 이때 어떠한
+	 * 									descriptor도 변경되지 않는다.
+	 * @throws RegistryException	저장 중 오류가 발생된 경우.
+	 */
+	public void updateAssetAdministrationShellDescriptors(List<AssetAdministrationShellDescriptor> descriptors)
+		throws ResourceNotFoundException, RegistryException;
+	
+	/**
+	 * 주어진 AssetAdministrationShellDescriptor들을 하나의 저장 연산으로 등록한다.
+	 * <p>
+	 * 이미 등록된 식별자의 descriptor는 등록하지 않고 {@link BulkItemResult.Status#CONFLICT}로 보고한다.
+	 * 
+	 * @param descriptors	등록할 AssetAdministrationShellDescriptor 목록. 식별자는 서로 달라야 한다.
+	 * @return	주어진 descriptor 순서에 따른 처리 결과 목록.
+	 * @throws RegistryException	저장 중 오류가 발생된 경우.
+	 */
+	public List<BulkItemResult>
+	addAssetAdministrationShellDescriptors(List<AssetAdministrationShellDescriptor> descriptors)
+		throws RegistryException;
+	
+	public void writeJsonAssetAdministrationShellDescriptorPage(String idShort, String cursor, int limit,
+																OutputStream out)
+		throws IOException, RegistryException;
+	
+	/**
+	 * 주어진 AssetLink들을 모두 포함하는 AAS들의 식별자를 반환한다.
+	 * <p>
+	 * AssetLink 색인을 사용하기 때문에 등록된 descriptor들을 읽지 않는다.
+	 * 
+	 * @param assetLinks	검색 조건 AssetLink 목록. 빈 목록인 경우는 모든 AAS 식별자를 반환한다.
+	 * @return	식별자 순으로 정렬된 AAS 식별자 목록.
+	 * @throws RegistryException	검색 중 오류가 발생된 경우.
+	 */
+	public List<String> getAssetAdministrationShellIdsByAssetLinks(List<AssetLink> assetLinks)
+		throws RegistryException;
+	public Page<String> getAssetAdministrationShellIdPageByAssetLinks(List<AssetLink> assetLinks,
+																		String cursor, int limit)
+		throws RegistryException;
+	
+	/**
+	 * 주어진 AAS에 등록된 AssetLink들 ({@code globalAssetId} 및 {@code specificAssetIds})을 반환한다.
+	 * 
+	 * @param aasId	AAS 식별자.
+	 * @return	AssetLink 목록.
+	 * @throws ResourceNotFoundException	등록되지 않은 AAS인 경우.
+	 * @throws RegistryException	검색 중 오류가 발생된 경우.
+	 */
+	public List<AssetLink> getAssetLinksById(String aasId) throws ResourceNotFoundException, RegistryException;
 }
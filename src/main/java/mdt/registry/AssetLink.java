@@ -0,0 +1,37 @@
+package mdt.registry;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+
+
+/**
+ * AAS Discovery 서비스에서 사용하는 asset 식별자 (AssetLink).
+ * <p>
+ * AAS descriptor의 {@code specificAssetIds} 항목 각각과 {@code globalAssetId}가 하나의 AssetLink에
+ * 해당하며, {@code globalAssetId}는 이름이 {@value #GLOBAL_ASSET_ID}인 AssetLink로 표현된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public record AssetLink(@JsonProperty("name") String name, @JsonProperty("value") String value) {
+	public static final String GLOBAL_ASSET_ID = "globalAssetId";
+	private static final char KEY_DELIM = '\u0000';
+
+	public AssetLink {
+		Preconditions.checkArgument(name != null, "AssetLink name is null");
+		Preconditions.checkArgument(value != null, "AssetLink value is null");
+	}
+
+	/**
+	 * 색인에서 사용할 키 문자열을 반환한다.
+	 *
+	 * @return	색인 키.
+	 */
+	String toKey() {
+		return name + KEY_DELIM + value;
+	}
+
+	static AssetLink fromKey(String key) {
+		int idx = key.indexOf(KEY_DELIM);
+		return new AssetLink(key.substring(0, idx), key.substring(idx+1));
+	}
+}
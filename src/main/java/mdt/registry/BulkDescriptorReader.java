@@ -0,0 +1,128 @@
+package mdt.registry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.DeserializationException;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonDeserializer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+
+/**
+ * JSON 배열 혹은 NDJSON 형태의 descriptor 목록을 점진적으로 읽어 일정 갯수씩 일괄 등록하는 처리기.
+ * <p>
+ * 식별자가 없거나 형식이 잘못된 항목과 같은 입력 내에서 중복된 식별자의 항목은 등록되지 않는다.
+ * 입력 자체의 JSON 구문이 잘못된 경우는 그 이전까지의 항목들만 처리하고 마지막에 실패 결과를 추가한다.
+ * 입력 스트림은 닫지 않는다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class BulkDescriptorReader<T> {
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+	private static final JsonMapper s_mapper = JsonMapper.builder()
+														.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+														.build();
+	private static final JsonDeserializer s_deser = new JsonDeserializer();
+
+	private final Class<T> m_descCls;
+	private final Function<List<T>,List<BulkItemResult>> m_adder;
+	private final int m_batchSize;
+
+	/**
+	 * 일괄 등록 처리기를 생성한다.
+	 *
+	 * @param descCls	descriptor 클래스.
+	 * @param adder		descriptor 목록을 한번에 등록하는 함수.
+	 * @param batchSize	한번에 등록할 최대 descriptor 수.
+	 */
+	public BulkDescriptorReader(Class<T> descCls, Function<List<T>,List<BulkItemResult>> adder, int batchSize) {
+		Preconditions.checkArgument(batchSize > 0, "invalid batch size: " + batchSize);
+
+		m_descCls = descCls;
+		m_adder = adder;
+		m_batchSize = batchSize;
+	}
+
+	/**
+	 * 주어진 입력의 descriptor들을 읽어 등록한다.
+	 *
+	 * @param in	입력 스트림.
+	 * @return	입력 순서에 따른 항목별 처리 결과 목록.
+	 * @throws IOException	입력을 읽는 중 오류가 발생된 경우.
+	 */
+	public List<BulkItemResult> read(InputStream in) throws IOException {
+		List<BulkItemResult> results = Lists.newArrayList();
+		Set<String> seen = Sets.newHashSet();
+		List<T> batch = Lists.newArrayList();
+		List<Integer> slots = Lists.newArrayList();
+
+		try ( JsonParser parser = s_mapper.createParser(in) ) {
+			try {
+				JsonToken token = parser.nextToken();
+				boolean isArray = token == JsonToken.START_ARRAY;
+				if ( isArray ) {
+					token = parser.nextToken();
+				}
+				while ( token != null && !(isArray && token == JsonToken.END_ARRAY) ) {
+					JsonNode node = parser.readValueAsTree();
+					token = parser.nextToken();
+
+					JsonNode idNode = node.get("id");
+					String id = (idNode != null && idNode.isTextual()) ? idNode.asText() : null;
+					if ( id == null || id.isEmpty() ) {
+						results.add(BulkItemResult.invalid(null, "missing descriptor id"));
+					}
+					else if ( !seen.add(id) ) {
+						results.add(BulkItemResult.conflict(id));
+					}
+					else {
+						try {
+							batch.add(s_deser.read(node.toString(), m_descCls));
+							slots.add(results.size());
+							results.add(null);
+						}
+						catch ( DeserializationException e ) {
+							results.add(BulkItemResult.invalid(id, "" + e.getMessage()));
+						}
+					}
+
+					if ( batch.size() >= m_batchSize ) {
+						flush(batch, slots, results);
+					}
+				}
+			}
+			catch ( JsonProcessingException e ) {
+				flush(batch, slots, results);
+				results.add(BulkItemResult.invalid(null, "malformed input: " + e.getOriginalMessage()));
+				return results;
+			}
+		}
+		flush(batch, slots, results);
+
+		return results;
+	}
+
+	private void flush(List<T> batch, List<Integer> slots, List<BulkItemResult> results) {
+		if ( batch.isEmpty() ) {
+			return;
+		}
+
+		List<BulkItemResult> added = m_adder.apply(batch);
+		for ( int i = 0; i < added.size(); ++i ) {
+			results.set(slots.get(i), added.get(i));
+		}
+		batch.clear();
+		slots.clear();
+	}
+}
@@ -0,0 +1,51 @@
+package mdt.registry;
+
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+
+/**
+ * 일괄 등록 요청에 포함된 descriptor 하나의 처리 결과.
+ *
+ * @param id		descriptor 식별자. 식별자를 알 수 없는 경우는 {@code null}.
+ * @param status	처리 결과.
+ * @param message	실패한 경우의 원인 메시지.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+@JsonPropertyOrder({"id", "status", "message"})
+@JsonInclude(Include.NON_NULL)
+public record BulkItemResult(@Nullable @JsonProperty("id") String id,
+								@JsonProperty("status") Status status,
+								@Nullable @JsonProperty("message") String message) {
+	public static enum Status {
+		/** 등록된 경우. */
+		CREATED,
+		/** 동일 식별자의 descriptor가 이미 등록되어 있거나 같은 요청에 중복된 경우. */
+		CONFLICT,
+		/** descriptor 형식이 올바르지 않은 경우. */
+		INVALID,
+		/** 이미 등록된 동일 식별자의 descriptor를 교체한 경우. */
+		REPLACED,
+	};
+
+	public static BulkItemResult created(String id) {
+		return new BulkItemResult(id, Status.CREATED, null);
+	}
+
+	public static BulkItemResult conflict(String id) {
+		return new BulkItemResult(id, Status.CONFLICT, "already exists");
+	}
+
+	public static BulkItemResult replaced(String id) {
+		return new BulkItemResult(id, Status.REPLACED, null);
+	}
+
+	public static BulkItemResult invalid(@Nullable String id, String message) {
+		return new BulkItemResult(id, Status.INVALID, message);
+	}
+}
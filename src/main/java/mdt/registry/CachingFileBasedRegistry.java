@@ -1,242 +1,967 @@
 package mdt.registry;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.Method;
-import java.nio.file.Files;
-import java.util.Base64;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import utils.Throwables;
-import utils.fostore.CachingFileObjectStore;
-import utils.fostore.DefaultFileObjectStore;
-import utils.fostore.FileObjectHandler;
-import utils.fostore.FileObjectStore;
 import utils.stream.FStream;
 
+import mdt.Globals;
+import mdt.Page;
+import mdt.SortedKeyIndex;
 import mdt.model.registry.RegistryException;
 import mdt.model.registry.ResourceAlreadyExistsException;
 import mdt.model.registry.ResourceNotFoundException;
 
 
 /**
+ * 저장 엔진에 저장된 descriptor들을 cache를 통해 제공하는 registry.
+ * <p>
+ * Cache는 두 단계로 구성된다. JSON cache는 descriptor의 JSON 문자열만을 보관하며 많은 수의
+ * descriptor를 유지한다. JSON에 비해 수 배의 메모리를 사용하는 역직렬화된 descriptor 객체는
+ * 별도의 작은 객체 cache에 보관되며, 밀려난 경우는 필요할 때 JSON으로부터 다시 생성된다.
+ * 두 cache 모두 descriptor 갯수가 아닌 추정 메모리 크기(byte)로 제한되며,
+ * cache 통계는 {@link #bindTo(MeterRegistry)}를 통해 metric으로 제공된다.
+ * <p>
+ * Descriptor 변경은 식별자별 (striped) lock으로 보호되기 때문에 서로 다른 descriptor에 대한 변경은
+ * 병렬로 수행되고, 동일 descriptor에 대한 변경은 순차적으로 수행된다. 조회는 lock을 사용하지 않는다.
  *
  * @author Kang-Woo Lee (ETRI)
  */
-public class CachingFileBasedRegistry<D> {
+public class CachingFileBasedRegistry<D> implements Closeable, MeterBinder {
+	private static final Logger s_logger = LoggerFactory.getLogger(CachingFileBasedRegistry.class);
+	private static final JsonMapper s_mapper = JsonMapper.builder().build();
+	private static final int LOCK_STRIPES = 64;
+	// 저장소 감시 중 자신이 기록한 descriptor의 entity tag를 기억하는 기간.
+	private static final Duration SELF_WRITE_RETENTION = Duration.ofMinutes(10);
+
 	private final String m_resourceName;
-	private final CachingFileObjectStore<String, LazyDescriptor<D>> m_store;
-	private final Method m_getIdShort;
-	private final int m_cacheSize;
-	
-	public CachingFileBasedRegistry(File storeDir, int cacheSize, Class<D> descCls, Function<String,D> deser)
-		throws RegistryException {
+	private final DescriptorStorage m_storage;
+	private final Function<String,D> m_deser;
+	private final LoadingCache<String, LazyDescriptor<D>> m_cache;
+	private final DescriptorIndex m_idShortIndex = DescriptorIndex.onField("idShort");
+	private final List<DescriptorIndex> m_indexes;
+	private final SortedKeyIndex m_keyIndex = new SortedKeyIndex();
+	private final long m_cacheCapacity;
+	private final Cache<String,ParsedDescriptor<D>> m_parsedCache;
+	private final long m_parsedCacheCapacity;
+	private final AtomicLong m_negativeLookupCount = new AtomicLong(0);
+	private final AtomicLong m_missedLookupCount = new AtomicLong(0);
+	private final WarmUpStatus m_warmUpStatus;
+	private final Striped<Lock> m_locks = Striped.lock(LOCK_STRIPES);
+	@Nullable private volatile Closeable m_watcher;
+	// 저장소 감시 중 자신이 마지막으로 기록한 descriptor별 entity tag.
+	// 자신이 수행한 변경에 대한 통보를 외부 변경과 구분하는데 사용된다.
+	private final Cache<String,String> m_writtenETags = CacheBuilder.newBuilder()
+																.expireAfterWrite(SELF_WRITE_RETENTION)
+																.build();
+
+	/**
+	 * Registry 객체를 생성한다.
+	 *
+	 * @param storeDir		descriptor 저장 디렉토리.
+	 * @param cacheCapacity	JSON cache의 최대 크기 (byte 단위).
+	 * @param parsedCacheCapacity	역직렬화된 descriptor 객체 cache의 최대 크기 (byte 단위).
+	 * @param descCls		descriptor 클래스.
+	 * @param deser			JSON descriptor 역직렬화 함수.
+	 * @throws RegistryException	저장된 descriptor 색인 생성 중 오류가 발생된 경우.
+	 */
+	public CachingFileBasedRegistry(File storeDir, long cacheCapacity, long parsedCacheCapacity,
+									Class<D> descCls, Function<String,D> deser) throws RegistryException {
+		this(createFileStorage(storeDir), cacheCapacity, parsedCacheCapacity, descCls, deser);
+	}
+
+	public CachingFileBasedRegistry(DescriptorStorage storage, long cacheCapacity, long parsedCacheCapacity,
+									Class<D> descCls, Function<String,D> deser) throws RegistryException {
+		this(storage, cacheCapacity, parsedCacheCapacity, descCls, deser, List.of(), WarmUpOptions.DEFAULT);
+	}
+
+	/**
+	 * Registry 객체를 생성한다.
+	 * <p>
+	 * 주어진 추가 색인들은 idShort 색인과 함께 descriptor의 등록/변경/삭제시 갱신된다.
+	 *
+	 * @param storage		descriptor 저장 엔진.
+	 * @param cacheCapacity	JSON cache의 최대 크기 (byte 단위).
+	 * @param parsedCacheCapacity	역직렬화된 descriptor 객체 cache의 최대 크기 (byte 단위).
+	 * @param descCls		descriptor 클래스.
+	 * @param deser			JSON descriptor 역직렬화 함수.
+	 * @param indexes		추가 색인 목록.
+	 * @param warmUp		기동시 저장된 descriptor들의 적재 방법.
+	 * @throws RegistryException	저장된 descriptor 색인 생성 중 오류가 발생된 경우.
+	 */
+	public CachingFileBasedRegistry(DescriptorStorage storage, long cacheCapacity, long parsedCacheCapacity,
+									Class<D> descCls, Function<String,D> deser, List<DescriptorIndex> indexes,
+									WarmUpOptions warmUp) throws RegistryException {
+		Preconditions.checkArgument(cacheCapacity >= 0, "invalid cache capacity: " + cacheCapacity);
+		Preconditions.checkArgument(parsedCacheCapacity >= 0,
+									"invalid parsed-descriptor cache capacity: " + parsedCacheCapacity);
+
+		m_resourceName = descCls.getSimpleName();
+		m_storage = storage;
+		m_indexes = Lists.newArrayList(m_idShortIndex);
+		m_indexes.addAll(indexes);
+		m_deser = deser;
+		m_cacheCapacity = cacheCapacity;
+		m_cache = CacheBuilder.newBuilder()
+								.maximumWeight(cacheCapacity)
+								.weigher((String id, LazyDescriptor<D> desc) -> weigh(desc.getEstimatedSize()))
+								.recordStats()
+								.build(new DescriptorCacheLoader());
+		m_parsedCacheCapacity = parsedCacheCapacity;
+		m_parsedCache = CacheBuilder.newBuilder()
+									.maximumWeight(parsedCacheCapacity)
+									.weigher((String id, ParsedDescriptor<D> parsed) -> weigh(parsed.size()))
+									.recordStats()
+									.build();
+
 		try {
-			m_resourceName = descCls.getSimpleName();
-			
-			m_cacheSize = cacheSize;
-			DescriptorHandler<D> descHandler = new DescriptorHandler<>(storeDir, deser);
-			FileObjectStore<String,LazyDescriptor<D>> baseStore = new DefaultFileObjectStore<>(storeDir, descHandler);
-			LoadingCache<String, LazyDescriptor<D>> cache = CacheBuilder.newBuilder()
-														.maximumSize(cacheSize)
-														.build(new DescriptorCacheLoader<>(baseStore));
-			m_store = new CachingFileObjectStore<>(baseStore, cache);
-			if ( !storeDir.exists() ) {
-				Files.createDirectories(storeDir.toPath());
-			}
-			
-			Method method;
-			try {
-				method = descCls.getDeclaredMethod("getIdShort");
-			}
-			catch ( Exception expected ) {
-				method = null;
-			}
-			m_getIdShort = method;
+			// 저장된 모든 descriptor에 대한 식별자 색인과 보조 색인들을 생성하고,
+			// 설정된 수 만큼의 descriptor들을 cache에 미리 적재한다.
+			// 색인은 lookup의 정확성에 필요하기 때문에 생성자에서 완료된 뒤에 서비스를 시작한다.
+			m_warmUpStatus = warmUp(warmUp);
 		}
 		catch ( IOException e ) {
 			throw new RegistryException("" + e);
 		}
 	}
-	
+
+	/**
+	 * 기동시 수행된 descriptor 적재 결과를 반환한다.
+	 *
+	 * @return	적재 결과.
+	 */
+	public WarmUpStatus getWarmUpStatus() {
+		return m_warmUpStatus;
+	}
+
 	public File getStoreDir() {
-		return m_store.getRootDir();
+		return m_storage.getRootDir();
+	}
+
+	public DescriptorStorage getStorage() {
+		return m_storage;
+	}
+
+	@Override
+	public void close() throws IOException {
+		Closeable watcher = m_watcher;
+		if ( watcher != null ) {
+			watcher.close();
+		}
+		m_storage.close();
+	}
+
+	/**
+	 * 다른 프로세스가 저장소를 변경하는 경우 이를 cache와 색인에 반영하도록 저장소 감시를 시작한다.
+	 * <p>
+	 * 동일 저장 디렉토리를 여러 프로세스가 공유하는 경우에 사용한다. 외부에서 변경된 descriptor는
+	 * cache에서 갱신되고 색인에 다시 반영되며, 변경 이벤트 역시 발송된다.
+	 *
+	 * @throws IOException	감시 시작 중 오류가 발생된 경우.
+	 * @throws UnsupportedOperationException	저장 엔진이 변경 감시를 지원하지 않는 경우.
+	 */
+	public synchronized void watchStorage() throws IOException {
+		if ( m_watcher == null ) {
+			m_watcher = m_storage.watchChanges(new DescriptorStorage.ChangeListener() {
+				@Override
+				public void onChanged(String id) {
+					refreshDescriptor(id);
+				}
+
+				@Override
+				public void onOverflow() {
+					refreshAll();
+				}
+			});
+		}
 	}
 
 	public LazyDescriptor<D> getDescriptorById(String id) throws ResourceNotFoundException, RegistryException {
 		Preconditions.checkNotNull(id, m_resourceName + " id");
-		
-		try {
-			Optional<LazyDescriptor<D>> resource = m_store.get(id);
-			if ( resource.isEmpty() ) {
+
+		if ( !m_keyIndex.contains(id) ) {
+			// 저장소를 감시하는 경우는 식별자 색인이 저장된 모든 descriptor의 식별자를 정확히 유지하기 때문에,
+			// 색인에 없는 식별자는 저장 엔진을 접근하지 않고 바로 실패 처리한다.
+			if ( m_watcher != null ) {
+				m_negativeLookupCount.incrementAndGet();
 				throw new ResourceNotFoundException(m_resourceName, id);
 			}
-			
-			return resource.get();
+
+			// 감시하지 않는 경우는 저장소를 공유하는 다른 프로세스가 추가한 descriptor일 수 있다.
+			return loadUnindexedDescriptor(id);
 		}
-		catch ( IOException e ) {
-			throw new RegistryException("" + e);
+
+		try {
+			return m_cache.get(id);
 		}
-		catch ( ExecutionException e ) {
-			Throwable cause = Throwables.unwrapThrowable(e);
+		catch ( ExecutionException | UncheckedExecutionException e ) {
+			Throwable cause = e.getCause();
+			if ( cause instanceof ResourceNotFoundException rnfe ) {
+				// 색인 확인 직후 삭제된 경우
+				m_missedLookupCount.incrementAndGet();
+				throw rnfe;
+			}
 			throw new RegistryException("" + cause);
 		}
 	}
 
-    public List<String> getAllDescriptorIds() throws RegistryException {
-    	try {
-        	return Lists.newArrayList(m_store.getFileObjectKeyAll());
+	/**
+	 * 식별자 색인에 없는 descriptor를 저장소에서 읽어 색인과 cache에 적재한다.
+	 * <p>
+	 * 저장소를 감시하지 않는 동안 다른 프로세스가 추가한 descriptor를 조회할 수 있도록 하기 위해 사용된다.
+	 * 변경 통보를 받은 것이 아니므로 변경 이벤트는 발송하지 않는다.
+	 */
+	private LazyDescriptor<D> loadUnindexedDescriptor(String id) throws ResourceNotFoundException,
+																		RegistryException {
+		Lock lock = m_locks.get(id);
+		lock.lock();
+		try {
+			LazyDescriptor<D> cached = m_cache.getIfPresent(id);
+			if ( cached != null ) {
+				// lock을 획득하는 동안 추가된 경우
+				return cached;
+			}
+
+			Optional<byte[]> bytes = m_storage.get(id);
+			if ( bytes.isEmpty() ) {
+				m_missedLookupCount.incrementAndGet();
+				throw new ResourceNotFoundException(m_resourceName, id);
+			}
+
+			String json = new String(bytes.get(), StandardCharsets.UTF_8);
+			JsonNode tree = s_mapper.readTree(json);
+			LazyDescriptor<D> descriptor = toResident(id, json, LazyDescriptor.computeETag(tree));
+			m_cache.put(id, descriptor);
+			m_keyIndex.add(id);
+			indexDescriptor(id, tree);
+
+			return descriptor;
 		}
 		catch ( IOException e ) {
 			throw new RegistryException("" + e);
 		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+    public List<String> getAllDescriptorIds() throws RegistryException {
+    	return m_keyIndex.getKeyAll();
     }
 
-	public List<LazyDescriptor<D>> getAllDescriptors() throws RegistryException {
-		try {
-			return m_store.getFileObjectAll();
+    public boolean existsDescriptor(String id) {
+    	return m_keyIndex.contains(id);
+    }
+
+	/**
+	 * 식별자 순으로 정렬된 descriptor 식별자들 중 주어진 cursor 다음의 page를 반환한다.
+	 *
+	 * @param idShort	idShort 조건. 조건이 없는 경우는 {@code null}.
+	 * @param cursor	직전 page의 cursor. 첫번째 page인 경우는 {@code null}.
+	 * @param limit		page에 포함될 최대 descriptor 갯수.
+	 * @return	descriptor 식별자 page.
+	 */
+	public Page<String> getDescriptorIdPage(@Nullable String idShort, @Nullable String cursor, int limit) {
+		if ( idShort != null ) {
+			return SortedKeyIndex.getPage(new TreeSet<>(m_idShortIndex.get(idShort)), cursor, limit);
 		}
-		catch ( IOException e ) {
-			throw new RegistryException("" + e);
+		else {
+			return m_keyIndex.getPage(cursor, limit);
 		}
-		catch ( ExecutionException e ) {
-			Throwable cause = Throwables.unwrapThrowable(e);
-			throw new RegistryException("" + cause);
+	}
+
+	public Set<String> getAllDescriptorIdsByShortId(String idShort) {
+		Preconditions.checkNotNull(idShort, m_resourceName + " idShort");
+
+		return m_idShortIndex.get(idShort);
+	}
+
+	/**
+	 * 주어진 식별자들에 해당하는 descriptor들을 반환한다.
+	 * 조회 도중 삭제된 descriptor는 결과에서 제외된다.
+	 *
+	 * @param ids	descriptor 식별자 목록.
+	 * @return	descriptor 목록.
+	 * @throws RegistryException	descriptor 적재 중 오류가 발생된 경우.
+	 */
+	public List<LazyDescriptor<D>> getDescriptorsByIds(Iterable<String> ids) throws RegistryException {
+		List<LazyDescriptor<D>> descList = Lists.newArrayList();
+		for ( String id: ids ) {
+			try {
+				descList.add(getDescriptorById(id));
+			}
+			catch ( ResourceNotFoundException ignored ) {
+				// 식별자 목록 조회 이후 삭제된 경우는 무시한다.
+			}
 		}
+		return descList;
+	}
+
+	public List<LazyDescriptor<D>> getAllDescriptors() throws RegistryException {
+		return getDescriptorsByIds(getAllDescriptorIds());
 	}
 
 	public List<LazyDescriptor<D>> getAllDescriptorsByShortId(String idShort) throws RegistryException {
+		return getDescriptorsByIds(getAllDescriptorIdsByShortId(idShort));
+	}
+
+	public void writeAllDescriptors(OutputStream out) throws IOException, RegistryException {
+		writeJsonArray(getAllDescriptorIds(), out);
+	}
+
+	public void writeAllDescriptorsByShortId(String idShort, OutputStream out) throws IOException,
+																						RegistryException {
 		Preconditions.checkNotNull(idShort, m_resourceName + " idShort");
-		
+
+		writeJsonArray(m_idShortIndex.get(idShort), out);
+	}
+
+	/**
+	 * Descriptor page를 AAS v3 API의 paging 결과 형태
+	 * ({@code {"paging_metadata":{...},"result":[...]}})로 출력한다.
+	 * <p>
+	 * Page에 포함된 descriptor들만 읽는다.
+	 *
+	 * @param idShort	idShort 조건. 조건이 없는 경우는 {@code null}.
+	 * @param cursor	직전 page의 cursor. 첫번째 page인 경우는 {@code null}.
+	 * @param limit		page에 포함될 최대 descriptor 갯수.
+	 * @param out		출력 스트림.
+	 * @throws IOException	출력 중 오류가 발생된 경우.
+	 */
+	public void writeDescriptorPage(@Nullable String idShort, @Nullable String cursor, int limit,
+									OutputStream out) throws IOException {
+		writeDescriptorPage(getDescriptorIdPage(idShort, cursor, limit), out);
+	}
+
+	/**
+	 * 주어진 식별자 page에 해당하는 descriptor들을 AAS v3 API의 paging 결과 형태로 출력한다.
+	 *
+	 * @param page	descriptor 식별자 page.
+	 * @param out	출력 스트림.
+	 * @throws IOException	출력 중 오류가 발생된 경우.
+	 */
+	public void writeDescriptorPage(Page<String> page, OutputStream out) throws IOException {
+		out.write("{\"paging_metadata\":{".getBytes(StandardCharsets.UTF_8));
+		if ( page.hasNext() ) {
+			// cursor는 base64url 문자열이므로 JSON escape가 필요없다.
+			out.write(("\"cursor\":\"" + page.getCursor() + "\"").getBytes(StandardCharsets.UTF_8));
+		}
+		out.write("},\"result\":".getBytes(StandardCharsets.UTF_8));
+		writeJsonArray(page.getResult(), out);
+		out.write('}');
+	}
+
+	/**
+	 * 주어진 식별자들에 해당하는 descriptor들을 JSON 배열 형태로 출력한다.
+	 * <p>
+	 * 저장된 JSON을 그대로 출력하기 때문에 descriptor 객체로의 역직렬화/재직렬화가 발생하지 않는다.
+	 * Cache에 없는 descriptor는 cache를 거치지 않고 저장 엔진에서 직접 읽는다.
+	 *
+	 * @param ids	출력할 descriptor 식별자 목록.
+	 * @param out	출력 스트림.
+	 * @throws IOException	출력 중 오류가 발생된 경우.
+	 */
+	public void writeJsonArray(Iterable<String> ids, OutputStream out) throws IOException {
+		out.write('[');
+		boolean first = true;
+		for ( String id: ids ) {
+			byte[] json = readJsonBytes(id);
+			if ( json == null ) {
+				continue;
+			}
+
+			if ( !first ) {
+				out.write(',');
+			}
+			out.write(json);
+			first = false;
+		}
+		out.write(']');
+	}
+
+	public LazyDescriptor<D> addDescriptor(String id, LazyDescriptor<D> descriptor)
+		throws ResourceAlreadyExistsException, RegistryException {
+		Preconditions.checkNotNull(descriptor);
+		Preconditions.checkNotNull(id, m_resourceName + " id");
+
+		Lock lock = m_locks.get(id);
+		lock.lock();
 		try {
-			FStream<LazyDescriptor<D>> stream = FStream.from(m_store.getFileObjectAll());
-			if ( idShort != null ) {
-				stream = stream.filter(desc -> filterByShortId(desc, idShort));
+			if ( !m_storage.insert(id, toBytes(descriptor)) ) {
+				throw new ResourceAlreadyExistsException(m_resourceName, id);
 			}
-			return stream.toList();
+			cacheDescriptor(id, descriptor);
+			m_keyIndex.add(id);
+			indexDescriptor(id, descriptor.getJson());
+			Globals.EVENT_BUS.post(DescriptorChangeEvent.ADDED(m_resourceName, id, descriptor.getJson()));
+
+			return descriptor;
 		}
 		catch ( IOException e ) {
 			throw new RegistryException("" + e);
 		}
-		catch ( ExecutionException e ) {
-			Throwable cause = Throwables.unwrapThrowable(e);
-			throw new RegistryException("" + cause);
+		finally {
+			lock.unlock();
 		}
 	}
 
-	public LazyDescriptor<D> addDescriptor(String id, LazyDescriptor<D> descriptor)
-		throws ResourceAlreadyExistsException, RegistryException {
+	/**
+	 * 주어진 descriptor들을 하나의 저장 연산으로 추가한다.
+	 * <p>
+	 * 이미 등록된 식별자의 descriptor는 추가하지 않는다. 이미 등록된 것으로 색인된 식별자는
+	 * 저장 엔진에 전달하기 전에 걸러낸다.
+	 *
+	 * @param descriptors	추가할 descriptor들. 식별자를 키로 한다.
+	 * @return	이미 등록되어 있어 추가되지 않은 식별자 집합.
+	 * @throws RegistryException	저장 중 오류가 발생된 경우.
+	 */
+	public Set<String> addDescriptors(Map<String,LazyDescriptor<D>> descriptors) throws RegistryException {
+		Preconditions.checkNotNull(descriptors);
+
+		Set<String> existing = Sets.newHashSet();
+		Map<String,byte[]> values = Maps.newLinkedHashMap();
+		for ( Map.Entry<String,LazyDescriptor<D>> ent: descriptors.entrySet() ) {
+			if ( m_keyIndex.contains(ent.getKey()) ) {
+				existing.add(ent.getKey());
+			}
+			else {
+				values.put(ent.getKey(), toBytes(ent.getValue()));
+			}
+		}
+		if ( values.isEmpty() ) {
+			return existing;
+		}
+
+		// 교착 상태를 피하기 위해 Striped#bulkGet이 반환하는 일정한 순서로 lock들을 획득한다.
+		List<Lock> locks = Lists.newArrayList(m_locks.bulkGet(values.keySet()));
+		locks.forEach(Lock::lock);
 		try {
-			Preconditions.checkNotNull(descriptor);
-			Preconditions.checkNotNull(id, m_resourceName + " id");
-			
-			Optional<File> file = m_store.insert(id, descriptor);
-			if ( file.isEmpty() ) {
-				throw new ResourceAlreadyExistsException(m_resourceName, id);
+			existing.addAll(m_storage.insertAll(values));
+			for ( String id: values.keySet() ) {
+				if ( existing.contains(id) ) {
+					continue;
+				}
+
+				LazyDescriptor<D> descriptor = descriptors.get(id);
+				cacheDescriptor(id, descriptor);
+				m_keyIndex.add(id);
+				indexDescriptor(id, descriptor.getJson());
+				Globals.EVENT_BUS.post(DescriptorChangeEvent.ADDED(m_resourceName, id, descriptor.getJson()));
 			}
-			return descriptor;
+			return existing;
 		}
 		catch ( IOException e ) {
 			throw new RegistryException("" + e);
 		}
-		catch ( ExecutionException e ) {
-			Throwable cause = Throwables.unwrapThrowable(e);
-			throw new RegistryException("" + cause);
+		finally {
+			Lists.reverse(locks).forEach(Lock::unlock);
 		}
 	}
 
 	public void removeDescriptor(String id) throws ResourceNotFoundException, RegistryException {
 		Preconditions.checkNotNull(id, m_resourceName + " id");
-		
+
+		Lock lock = m_locks.get(id);
+		lock.lock();
     	try {
-    		boolean done = m_store.remove(id);
-    		if ( !done ) {
-				throw new ResourceAlreadyExistsException(m_resourceName, id);
+    		if ( !m_storage.remove(id) ) {
+				throw new ResourceNotFoundException(m_resourceName, id);
     		}
+    		m_cache.invalidate(id);
+    		m_parsedCache.invalidate(id);
+    		m_writtenETags.invalidate(id);
+    		m_keyIndex.remove(id);
+    		m_indexes.forEach(idx -> idx.remove(id));
+    		Globals.EVENT_BUS.post(DescriptorChangeEvent.REMOVED(m_resourceName, id));
 		}
 		catch ( IOException e ) {
 			throw new RegistryException("" + e);
 		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	public LazyDescriptor<D> updateDescriptor(String id, LazyDescriptor<D> descriptor)
 		throws ResourceNotFoundException, RegistryException {
-		removeDescriptor(id);
-		return addDescriptor(id, descriptor);
+		Preconditions.checkNotNull(descriptor);
+		Preconditions.checkNotNull(id, m_resourceName + " id");
+
+		// 저장 엔진의 변경은 원자적인 교체(replace)이며, 동일 식별자에 대한 변경들은 lock으로 직렬화된다.
+		Lock lock = m_locks.get(id);
+		lock.lock();
+		try {
+			if ( !m_storage.update(id, toBytes(descriptor)) ) {
+				throw new ResourceNotFoundException(m_resourceName, id);
+			}
+			cacheDescriptor(id, descriptor);
+			indexDescriptor(id, descriptor.getJson());
+			Globals.EVENT_BUS.post(DescriptorChangeEvent.UPDATED(m_resourceName, id, descriptor.getJson()));
+
+			return descriptor;
+		}
+		catch ( IOException e ) {
+			throw new RegistryException("" + e);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 주어진 descriptor들을 한번에 변경한다.
+	 * <p>
+	 * 변경 대상 중 하나라도 등록되지 않은 descriptor가 있는 경우는 어떠한 descriptor도 변경하지 않고
+	 * {@link ResourceNotFoundException}을 발생시킨다.
+	 * <p>
+	 * 저장 도중 오류가 발생된 경우의 원자성은 저장 엔진에 따른다. 변경들을 하나의 쓰기로 기록하는
+	 * 저장 엔진 (segment-log)과 달리 파일 저장 엔진은 descriptor별로 기록하기 때문에 일부만 변경될 수 있다.
+	 * 이 경우 변경 대상 descriptor들은 모두 cache에서 제거되고 저장소의 내용으로 다시 색인되며,
+	 * 실제로 변경된 descriptor들에 대해서만 변경 이벤트가 발생된다.
+	 *
+	 * @param descriptors	descriptor 식별자와 변경될 descriptor의 맵.
+	 * @throws ResourceNotFoundException	등록되지 않은 descriptor가 포함된 경우.
+	 * @throws RegistryException	저장 중 오류가 발생된 경우.
+	 */
+	public void updateDescriptors(Map<String,LazyDescriptor<D>> descriptors)
+		throws ResourceNotFoundException, RegistryException {
+		Preconditions.checkNotNull(descriptors);
+		if ( descriptors.isEmpty() ) {
+			return;
+		}
+
+		Map<String,byte[]> values = Maps.newLinkedHashMap();
+		for ( Map.Entry<String,LazyDescriptor<D>> ent: descriptors.entrySet() ) {
+			values.put(ent.getKey(), toBytes(ent.getValue()));
+		}
+
+		// 교착 상태를 피하기 위해 Striped#bulkGet이 반환하는 일정한 순서로 lock들을 획득한다.
+		List<Lock> locks = Lists.newArrayList(m_locks.bulkGet(descriptors.keySet()));
+		locks.forEach(Lock::lock);
+		try {
+			if ( !m_storage.updateAll(values) ) {
+				String missing = FStream.from(descriptors.keySet())
+										.filter(id -> !m_keyIndex.contains(id))
+										.findFirst()
+										.getOrElse("?");
+				throw new ResourceNotFoundException(m_resourceName, missing);
+			}
+
+			for ( Map.Entry<String,LazyDescriptor<D>> ent: descriptors.entrySet() ) {
+				String id = ent.getKey();
+				LazyDescriptor<D> descriptor = ent.getValue();
+
+				cacheDescriptor(id, descriptor);
+				indexDescriptor(id, descriptor.getJson());
+				Globals.EVENT_BUS.post(DescriptorChangeEvent.UPDATED(m_resourceName, id, descriptor.getJson()));
+			}
+		}
+		catch ( IOException e ) {
+			resyncDescriptors(descriptors);
+			throw new RegistryException("" + e);
+		}
+		finally {
+			Lists.reverse(locks).forEach(Lock::unlock);
+		}
 	}
-	
+
+	/**
+	 * 일부만 저장되었을 수 있는 일괄 변경 이후, 변경 대상 descriptor들의 cache와 색인을 저장소의 내용에 맞춘다.
+	 * 호출자는 대상 descriptor들의 lock을 획득한 상태이어야 한다.
+	 */
+	private void resyncDescriptors(Map<String,LazyDescriptor<D>> descriptors) {
+		for ( Map.Entry<String,LazyDescriptor<D>> ent: descriptors.entrySet() ) {
+			String id = ent.getKey();
+			m_cache.invalidate(id);
+			m_parsedCache.invalidate(id);
+			m_writtenETags.invalidate(id);
+			try {
+				Optional<byte[]> bytes = m_storage.get(id);
+				if ( bytes.isPresent() ) {
+					JsonNode tree = s_mapper.readTree(new String(bytes.get(), StandardCharsets.UTF_8));
+					indexDescriptor(id, tree);
+
+					LazyDescriptor<D> descriptor = ent.getValue();
+					if ( LazyDescriptor.computeETag(tree).equals(descriptor.getETag()) ) {
+						Globals.EVENT_BUS.post(DescriptorChangeEvent.UPDATED(m_resourceName, id,
+																			descriptor.getJson()));
+					}
+				}
+			}
+			catch ( IOException e ) {
+				s_logger.warn("failed to re-index {} after a failed batch update: id={}, cause={}",
+								m_resourceName, id, e.toString());
+			}
+		}
+	}
+
+	public CacheStats getCacheStats() {
+		return m_cache.stats();
+	}
+
+	public CacheStats getParsedCacheStats() {
+		return m_parsedCache.stats();
+	}
+
+	/**
+	 * 현재 JSON cache에 적재된 descriptor들의 추정 크기의 합(byte)을 반환한다.
+	 *
+	 * @return	JSON cache 사용량.
+	 */
+	public long getCacheWeight() {
+		long weight = 0;
+		for ( LazyDescriptor<D> desc: m_cache.asMap().values() ) {
+			weight += weigh(desc.getEstimatedSize());
+		}
+		return weight;
+	}
+
+	/**
+	 * 현재 객체 cache에 적재된 descriptor 객체들의 추정 크기의 합(byte)을 반환한다.
+	 *
+	 * @return	객체 cache 사용량.
+	 */
+	public long getParsedCacheWeight() {
+		long weight = 0;
+		for ( ParsedDescriptor<D> parsed: m_parsedCache.asMap().values() ) {
+			weight += weigh(parsed.size());
+		}
+		return weight;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		String cacheName = "registry." + m_resourceName;
+		bindCacheMetrics(registry, m_cache, cacheName, this::getCacheWeight, m_cacheCapacity);
+		bindCacheMetrics(registry, m_parsedCache, cacheName + ".parsed", this::getParsedCacheWeight,
+						m_parsedCacheCapacity);
+
+		Tags tags = Tags.of("resource", m_resourceName);
+		FunctionCounter.builder("mdt.registry.lookups.negative", m_negativeLookupCount, AtomicLong::get)
+				.description("the number of lookups for unknown ids rejected without accessing the storage")
+				.tags(tags)
+				.register(registry);
+		FunctionCounter.builder("mdt.registry.lookups.missed", m_missedLookupCount, AtomicLong::get)
+				.description("the number of unknown-id lookups that passed the id filter")
+				.tags(tags)
+				.register(registry);
+		Gauge.builder("mdt.registry.lookups.false_positive_ratio", this,
+						CachingFileBasedRegistry::getFalsePositiveRatio)
+				.description("the ratio of unknown-id lookups that passed the id filter")
+				.tags(tags)
+				.register(registry);
+	}
+
+	/**
+	 * 등록되지 않은 식별자에 대한 조회 중 식별자 색인을 통과하여 저장 엔진까지 접근한 조회의 비율을 반환한다.
+	 * 저장소를 감시하는 경우 식별자 색인은 정확한 집합이므로 이 값은 조회와 삭제가 경합한 경우에만
+	 * 0보다 커진다. 감시하지 않는 경우는 색인에 없는 모든 조회가 저장 엔진을 접근한다.
+	 *
+	 * @return	false-positive 비율.
+	 */
+	public double getFalsePositiveRatio() {
+		long missed = m_missedLookupCount.get();
+		long total = missed + m_negativeLookupCount.get();
+		return (total > 0) ? (double)missed / total : 0;
+	}
+
 	@Override
 	public String toString() {
-		return String.format("resource=%s, store=%s, cache_size=%d",
-								m_resourceName, m_store.getRootDir(), m_cacheSize);
-	}
-	
-	private static final class DescriptorHandler<D> implements FileObjectHandler<String, LazyDescriptor<D>> {
-		private final File m_rootDir;
-		private final Function<String,D> m_deser;
-		
-		DescriptorHandler(File rootDir, Function<String,D> deser) {
-			m_rootDir = rootDir;
-			m_deser = deser;
-		}
-		
-		@Override
-		public LazyDescriptor<D> readFileObject(File file) throws IOException, ExecutionException {
-			String jsonDesc = Files.readString(file.toPath());
-			return new LazyDescriptor<>(jsonDesc, m_deser);
-		}
+		return String.format("resource=%s, store=%s, cache_capacity=%d, parsed_cache_capacity=%d",
+								m_resourceName, m_storage, m_cacheCapacity, m_parsedCacheCapacity);
+	}
 
-		@Override
-		public void writeFileObject(LazyDescriptor<D> obj, File file) throws IOException, ExecutionException {
-			Files.writeString(file.toPath(), obj.getJson());
+	private static void bindCacheMetrics(MeterRegistry registry, Cache<?,?> cache, String cacheName,
+										Supplier<Number> weight, long capacity) {
+		// 'cache.gets', 'cache.evictions', 'cache.load.duration' 등의 표준 cache metric들을 등록한다.
+		GuavaCacheMetrics.monitor(registry, cache, cacheName);
+
+		Tags tags = Tags.of("cache", cacheName);
+		Gauge.builder("mdt.registry.cache.hit_ratio", cache, c -> c.stats().hitRate())
+				.description("the ratio of descriptor lookups served from the cache")
+				.tags(tags)
+				.register(registry);
+		Gauge.builder("mdt.registry.cache.weight", weight)
+				.description("the estimated heap size of the cached descriptors")
+				.baseUnit("bytes")
+				.tags(tags)
+				.register(registry);
+		Gauge.builder("mdt.registry.cache.capacity", () -> capacity)
+				.description("the maximum estimated heap size of the cached descriptors")
+				.baseUnit("bytes")
+				.tags(tags)
+				.register(registry);
+	}
+
+	private static int weigh(long size) {
+		return (int)Math.min(size, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * 주어진 descriptor를 cache에 적재한다.
+	 * <p>
+	 * JSON cache에는 descriptor 객체를 보관하지 않는 형태로 적재한다. 호출자가 전달한 descriptor 객체는
+	 * 이후 호출자에 의해 변경될 수 있으므로 객체 cache에 적재하지 않으며, 객체는 필요할 때 JSON으로부터
+	 * 다시 생성된다.
+	 */
+	private void cacheDescriptor(String id, LazyDescriptor<D> descriptor) {
+		m_cache.put(id, toResident(id, descriptor.getJson(), descriptor.getETag()));
+		m_parsedCache.invalidate(id);
+		if ( m_watcher != null ) {
+			// Entity tag는 서식과 무관하기 때문에 저장소에서 다시 읽은 JSON과 비교할 수 있다.
+			m_writtenETags.put(id, descriptor.getETag());
 		}
+	}
 
-		@Override
-		public File toFile(String key) {
-			String encodedName = Base64.getEncoder().encodeToString(key.getBytes());
-			return new File(m_rootDir, encodedName);
+	private LazyDescriptor<D> toResident(String id, String json, String etag) {
+		return new LazyDescriptor<>(json, etag, () -> getParsedDescriptor(id, json, etag));
+	}
+
+	/**
+	 * 객체 cache에서 주어진 JSON descriptor에 해당하는 descriptor 객체를 반환한다.
+	 * <p>
+	 * 객체 cache에 없거나 cache된 객체가 다른 내용(entity tag)의 descriptor로부터 생성된 경우는
+	 * JSON으로부터 다시 생성하여 객체 cache에 적재한다. 반환된 객체는 여러 호출자가 공유하므로
+	 * 변경하지 않아야 하며, 변경이 필요한 경우는 JSON으로부터 별도의 객체를 생성하여 사용한다.
+	 */
+	private D getParsedDescriptor(String id, String json, String etag) {
+		ParsedDescriptor<D> parsed = m_parsedCache.getIfPresent(id);
+		if ( parsed != null && parsed.etag().equals(etag) ) {
+			return parsed.descriptor();
 		}
 
-		@Override
-		public String toFileObjectKey(File file) {
-			return new String(Base64.getDecoder().decode(file.getName()));
+		D descriptor = m_deser.apply(json);
+		long size = LazyDescriptor.estimateObjectSize(json);
+		m_parsedCache.put(id, new ParsedDescriptor<>(etag, descriptor, size));
+		return descriptor;
+	}
+
+	private static record ParsedDescriptor<D>(String etag, D descriptor, long size) { }
+
+	static DescriptorStorage createFileStorage(File storeDir) throws RegistryException {
+		try {
+			return new FileDescriptorStorage(storeDir);
+		}
+		catch ( IOException e ) {
+			throw new RegistryException("" + e);
 		}
+	}
 
-		@Override
-		public boolean isVallidFile(File file) {
-			return file.getParentFile().equals(m_rootDir);
-		}
-	}
-    
-    private static class DescriptorCacheLoader<D> extends CacheLoader<String, LazyDescriptor<D>> {
-    	private final FileObjectStore<String,LazyDescriptor<D>> m_store;
-    	
-    	DescriptorCacheLoader(FileObjectStore<String,LazyDescriptor<D>> store) {
-    		m_store = store;
-    	}
-    	
-		@Override
-		public LazyDescriptor<D> load(String key) throws Exception {
-			return m_store.get(key).get();
+	/**
+	 * 저장소에 기록된 descriptor를 다시 읽어 cache와 색인을 갱신한다.
+	 * <p>
+	 * 자신이 마지막으로 기록한 내용과 동일하거나 현재 cache 혹은 색인의 상태와 동일한 경우는 무시한다.
+	 * 자신이 기록한 descriptor가 이미 cache에서 제거된 경우에도 자신의 변경에 대한 통보를 구분할 수 있도록
+	 * cache와 별도로 기록한 내용의 entity tag를 비교한다.
+	 */
+	private void refreshDescriptor(String id) {
+		Lock lock = m_locks.get(id);
+		lock.lock();
+		try {
+			Optional<byte[]> bytes = m_storage.get(id);
+			if ( bytes.isEmpty() ) {
+				m_writtenETags.invalidate(id);
+				if ( m_keyIndex.contains(id) ) {
+					m_cache.invalidate(id);
+					m_parsedCache.invalidate(id);
+					m_keyIndex.remove(id);
+					m_indexes.forEach(idx -> idx.remove(id));
+					Globals.EVENT_BUS.post(DescriptorChangeEvent.REMOVED(m_resourceName, id));
+				}
+				return;
+			}
+
+			String json = new String(bytes.get(), StandardCharsets.UTF_8);
+			JsonNode tree = s_mapper.readTree(json);
+			String etag = LazyDescriptor.computeETag(tree);
+			String written = m_writtenETags.getIfPresent(id);
+			if ( written != null && written.equals(etag) ) {
+				return;
+			}
+			LazyDescriptor<D> cached = m_cache.getIfPresent(id);
+			if ( cached != null && cached.getETag().equals(etag) ) {
+				return;
+			}
+
+			// 외부에서 변경되었으므로 이후 같은 내용으로 다시 변경되는 경우도 외부 변경으로 처리한다.
+			m_writtenETags.invalidate(id);
+			boolean exists = m_keyIndex.contains(id);
+			if ( cached != null ) {
+				m_cache.put(id, toResident(id, json, etag));
+			}
+			m_parsedCache.invalidate(id);
+			m_keyIndex.add(id);
+			indexDescriptor(id, tree);
+
+			DescriptorChangeEvent ev = exists ? DescriptorChangeEvent.UPDATED(m_resourceName, id, json)
+												: DescriptorChangeEvent.ADDED(m_resourceName, id, json);
+			Globals.EVENT_BUS.post(ev);
 		}
-    }
-	
-	private boolean filterByShortId(LazyDescriptor<D> desc, String idShort) {
+		catch ( IOException e ) {
+			s_logger.warn("failed to refresh {}: id={}, cause={}", m_resourceName, id, e);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private void refreshAll() {
+		s_logger.warn("lost some {} change notifications, refreshing all", m_resourceName);
 		try {
-			Object ret = m_getIdShort.invoke(desc);
-			return idShort.equals(ret);
+			Set<String> ids = Sets.newHashSet(m_storage.getIdAll());
+			ids.addAll(m_keyIndex.getKeyAll());
+			ids.forEach(this::refreshDescriptor);
 		}
-		catch ( Exception e ) {
-			return false;
+		catch ( IOException e ) {
+			s_logger.warn("failed to refresh {}, cause={}", m_resourceName, e);
 		}
 	}
+
+	private WarmUpStatus warmUp(WarmUpOptions options) throws IOException {
+		long started = System.currentTimeMillis();
+		List<String> ids = Lists.newArrayList(m_storage.getIdAll());
+		AtomicInteger preloaded = new AtomicInteger(0);
+
+		if ( options.threads() == 1 || ids.size() <= 1 ) {
+			for ( String id: ids ) {
+				loadDescriptor(id, options.preloadCount(), preloaded);
+			}
+		}
+		else {
+			ExecutorService executor = Executors.newFixedThreadPool(options.threads(), task -> {
+				Thread thread = new Thread(task, "registry-loader-" + m_resourceName);
+				thread.setDaemon(true);
+				return thread;
+			});
+			try {
+				List<Future<?>> futures = Lists.newArrayListWithCapacity(ids.size());
+				for ( String id: ids ) {
+					futures.add(executor.submit(() -> {
+						loadDescriptor(id, options.preloadCount(), preloaded);
+						return null;
+					}));
+				}
+				for ( Future<?> future: futures ) {
+					future.get();
+				}
+			}
+			catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+				throw new IOException("interrupted while loading " + m_resourceName);
+			}
+			catch ( ExecutionException e ) {
+				Throwable cause = Throwables.unwrapThrowable(e);
+				throw (cause instanceof IOException ioe) ? ioe : new IOException(cause);
+			}
+			finally {
+				executor.shutdownNow();
+			}
+		}
+
+		WarmUpStatus status = new WarmUpStatus(m_keyIndex.size(), preloaded.get(),
+												System.currentTimeMillis() - started);
+		if ( s_logger.isInfoEnabled() ) {
+			s_logger.info("loaded {}: {}, {}, {}", m_resourceName, m_keyIndex, m_indexes, status);
+		}
+		return status;
+	}
+
+	private void loadDescriptor(String id, int preloadCount, AtomicInteger preloaded) throws IOException {
+		Optional<byte[]> bytes = m_storage.get(id);
+		if ( bytes.isPresent() ) {
+			String json = new String(bytes.get(), StandardCharsets.UTF_8);
+			JsonNode tree = s_mapper.readTree(json);
+			m_keyIndex.add(id);
+			indexDescriptor(id, tree);
+
+			if ( preloaded.getAndUpdate(cnt -> (cnt < preloadCount) ? cnt + 1 : cnt) < preloadCount ) {
+				m_cache.put(id, toResident(id, json, LazyDescriptor.computeETag(tree)));
+			}
+		}
+	}
+
+	/**
+	 * 기동시 descriptor 적재 결과.
+	 *
+	 * @param descriptorCount	적재된 descriptor 수.
+	 * @param preloadedCount	cache에 미리 적재된 descriptor 수.
+	 * @param elapsedMillis		적재에 소요된 시간 (millisecond).
+	 */
+	public static record WarmUpStatus(int descriptorCount, int preloadedCount, long elapsedMillis) { }
+
+	private void indexDescriptor(String id, String json) throws IOException {
+		indexDescriptor(id, s_mapper.readTree(json));
+	}
+
+	private void indexDescriptor(String id, JsonNode node) {
+		for ( DescriptorIndex index: m_indexes ) {
+			index.put(id, node);
+		}
+	}
+
+	private byte[] readJsonBytes(String id) throws IOException {
+		LazyDescriptor<D> cached = m_cache.getIfPresent(id);
+		if ( cached != null ) {
+			return toBytes(cached);
+		}
+		return m_storage.get(id).orElse(null);
+	}
+
+	private byte[] toBytes(LazyDescriptor<D> descriptor) {
+		return descriptor.getJson().getBytes(StandardCharsets.UTF_8);
+	}
+
+    private class DescriptorCacheLoader extends CacheLoader<String, LazyDescriptor<D>> {
+		@Override
+		public LazyDescriptor<D> load(String key) throws Exception {
+			byte[] bytes = m_storage.get(key)
+									.orElseThrow(() -> new ResourceNotFoundException(m_resourceName, key));
+			String json = new String(bytes, StandardCharsets.UTF_8);
+			return toResident(key, json, LazyDescriptor.computeETag(json));
+		}
+    }
 }
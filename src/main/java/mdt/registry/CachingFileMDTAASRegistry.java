@@ -1,7 +1,12 @@
 package mdt.registry;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.function.Function;
 
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.DeserializationException;
@@ -10,8 +15,15 @@ import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonDeserializer;
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonSerializer;
 import org.eclipse.digitaltwin.aas4j.v3.model.AssetAdministrationShellDescriptor;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import utils.stream.FStream;
 
+import mdt.Page;
+import mdt.SortedKeyIndex;
 import mdt.model.registry.RegistryException;
 import mdt.model.registry.ResourceAlreadyExistsException;
 import mdt.model.registry.ResourceNotFoundException;
@@ -21,20 +33,55 @@ import mdt.model.registry.ResourceNotFoundException;
  *
  * @author Kang-Woo Lee (ETRI)
  */
-public class CachingFileMDTAASRegistry implements AssetAdministrationShellRegistryProvider {
+public class CachingFileMDTAASRegistry implements AssetAdministrationShellRegistryProvider, MeterBinder {
     private final CachingFileBasedRegistry<AssetAdministrationShellDescriptor> m_store;
+    private final DescriptorIndex m_assetLinkIndex = DescriptorIndex.onAssetLinks();
     private final JsonSerializer m_jsonSer = new JsonSerializer();
 	private final JsonDeserializer m_jsonDeser = new JsonDeserializer();
 
+    public CachingFileMDTAASRegistry(File storeDir, long cacheCapacity,
+									long parsedCacheCapacity) throws RegistryException {
+    	this(CachingFileBasedRegistry.createFileStorage(storeDir), cacheCapacity, parsedCacheCapacity);
+    }
+
+    public CachingFileMDTAASRegistry(DescriptorStorage storage, long cacheCapacity,
+									long parsedCacheCapacity) throws RegistryException {
+    	this(storage, cacheCapacity, parsedCacheCapacity, WarmUpOptions.DEFAULT);
+    }
+
     @SuppressWarnings({ "rawtypes", "unchecked" })
-    public CachingFileMDTAASRegistry(File storeDir, int cacheSize) throws RegistryException {
-    	m_store = new CachingFileBasedRegistry(storeDir, cacheSize,
-    											AssetAdministrationShellDescriptor.class, m_deser);
+    public CachingFileMDTAASRegistry(DescriptorStorage storage, long cacheCapacity, long parsedCacheCapacity,
+									WarmUpOptions warmUp) throws RegistryException {
+    	m_store = new CachingFileBasedRegistry(storage, cacheCapacity, parsedCacheCapacity,
+    											AssetAdministrationShellDescriptor.class, m_deser,
+    											List.of(m_assetLinkIndex), warmUp);
     }
     
     public File getStoreDir() {
     	return m_store.getStoreDir();
     }
+    
+    public CachingFileBasedRegistry.WarmUpStatus getWarmUpStatus() {
+    	return m_store.getWarmUpStatus();
+    }
+    
+    public void close() throws IOException {
+    	m_store.close();
+    }
+    
+    public void watchStorage() throws IOException {
+    	m_store.watchStorage();
+    }
+    
+    @Override
+    public String toString() {
+    	return String.format("%s[%s]", getClass().getSimpleName(), getStoreDir().getAbsolutePath());
+    }
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		m_store.bindTo(registry);
+	}
 
 	@Override
 	public List<AssetAdministrationShellDescriptor> getAllAssetAdministrationShellDescriptors()
@@ -56,6 +103,13 @@ public class CachingFileMDTAASRegistry implements AssetAdministrationShellRegist
 		return m_store.getDescriptorById(aasId).getJson();
 	}
 
+	@Override
+	public LazyDescriptor<AssetAdministrationShellDescriptor>
+	getLazyAssetAdministrationShellDescriptorById(String aasId) throws ResourceNotFoundException,
+																		RegistryException {
+		return m_store.getDescriptorById(aasId);
+	}
+
 	@Override
 	public List<AssetAdministrationShellDescriptor>
 	getAllAssetAdministrationShellDescriptorsByIdShort(String idShort) throws RegistryException {
@@ -64,6 +118,48 @@ public class CachingFileMDTAASRegistry implements AssetAdministrationShellRegist
 						.toList();
 	}
 
+	@Override
+	public void writeAllJsonAssetAdministrationShellDescriptors(OutputStream out)
+		throws IOException, RegistryException {
+		m_store.writeAllDescriptors(out);
+	}
+
+	@Override
+	public void writeAllJsonAssetAdministrationShellDescriptorsByIdShort(String idShort, OutputStream out)
+		throws IOException, RegistryException {
+		m_store.writeAllDescriptorsByShortId(idShort, out);
+	}
+
+	@Override
+	public void writeJsonAssetAdministrationShellDescriptorPage(String idShort, String cursor, int limit,
+																OutputStream out)
+		throws IOException, RegistryException {
+		m_store.writeDescriptorPage(idShort, cursor, limit, out);
+	}
+
+	@Override
+	public List<String> getAssetAdministrationShellIdsByAssetLinks(List<AssetLink> assetLinks)
+		throws RegistryException {
+		return Lists.newArrayList(findAssetAdministrationShellIds(assetLinks));
+	}
+
+	@Override
+	public Page<String> getAssetAdministrationShellIdPageByAssetLinks(List<AssetLink> assetLinks,
+																		String cursor, int limit)
+		throws RegistryException {
+		return SortedKeyIndex.getPage(findAssetAdministrationShellIds(assetLinks), cursor, limit);
+	}
+
+	@Override
+	public List<AssetLink> getAssetLinksById(String aasId) throws ResourceNotFoundException, RegistryException {
+		if ( !m_store.existsDescriptor(aasId) ) {
+			throw new ResourceNotFoundException("AssetAdministrationShellDescriptor", aasId);
+		}
+		return FStream.from(m_assetLinkIndex.getKeys(aasId))
+						.map(AssetLink::fromKey)
+						.toList();
+	}
+
 	@Override
 	public AssetAdministrationShellDescriptor
 	addAssetAdministrationShellDescriptor(AssetAdministrationShellDescriptor descriptor)
@@ -79,6 +175,29 @@ public class CachingFileMDTAASRegistry implements AssetAdministrationShellRegist
 		}
 	}
 
+	@Override
+	public List<BulkItemResult>
+	addAssetAdministrationShellDescriptors(List<AssetAdministrationShellDescriptor> descriptors)
+		throws RegistryException {
+		Map<String,LazyDescriptor<AssetAdministrationShellDescriptor>> descMap = Maps.newLinkedHashMap();
+		for ( AssetAdministrationShellDescriptor descriptor: descriptors ) {
+			try {
+				String json = m_jsonSer.write(descriptor);
+				descMap.put(descriptor.getId(), new LazyDescriptor<>(descriptor, json));
+			}
+			catch ( SerializationException e ) {
+				throw new RegistryException("Failed to add AssetAdministrationShellDescriptor: id="
+											+ descriptor.getId() + ", cause=" + e);
+			}
+		}
+
+		Set<String> existing = m_store.addDescriptors(descMap);
+		return FStream.from(descMap.keySet())
+						.map(id -> existing.contains(id) ? BulkItemResult.conflict(id)
+														: BulkItemResult.created(id))
+						.toList();
+	}
+
 	@Override
 	public AssetAdministrationShellDescriptor
 	updateAssetAdministrationShellDescriptorById(AssetAdministrationShellDescriptor descriptor)
@@ -94,6 +213,23 @@ public class CachingFileMDTAASRegistry implements AssetAdministrationShellRegist
 		}
 	}
 
+	@Override
+	public void updateAssetAdministrationShellDescriptors(List<AssetAdministrationShellDescriptor> descriptors)
+		throws ResourceNotFoundException, RegistryException {
+		Map<String,LazyDescriptor<AssetAdministrationShellDescriptor>> descMap = Maps.newLinkedHashMap();
+		for ( AssetAdministrationShellDescriptor descriptor: descriptors ) {
+			try {
+				String json = m_jsonSer.write(descriptor);
+				descMap.put(descriptor.getId(), new LazyDescriptor<>(descriptor, json));
+			}
+			catch ( SerializationException e ) {
+				throw new RegistryException("Failed to update AssetAdministrationShellDescriptor: id="
+											+ descriptor.getId() + ", cause=" + e);
+			}
+		}
+		m_store.updateDescriptors(descMap);
+	}
+
 	@Override
 	public void removeAssetAdministrationShellDescriptorById(String aasId)
 		throws ResourceNotFoundException, RegistryException {
@@ -104,11 +240,38 @@ public class CachingFileMDTAASRegistry implements AssetAdministrationShellRegist
 		@Override
 		public AssetAdministrationShellDescriptor apply(String json) {
 			try {
-				return m_jsonDeser.read(json, AssetAdministrationShellDescriptor.class);
+				AssetAdministrationShellDescriptor desc
+								= m_jsonDeser.read(json, AssetAdministrationShellDescriptor.class);
+				return DescriptorInterner.internStrings(desc);
 			}
 			catch ( DeserializationException e ) {
 				throw new RegistryException("" + e);
 			}
 		}
     };
+
+	/**
+	 * 주어진 AssetLink들을 모두 포함하는 AAS 식별자들을 색인에서 찾는다.
+	 * AssetLink가 주어지지 않은 경우는 모든 AAS 식별자를 반환한다.
+	 */
+	private TreeSet<String> findAssetAdministrationShellIds(List<AssetLink> assetLinks) {
+		if ( assetLinks.isEmpty() ) {
+			return new TreeSet<>(m_store.getAllDescriptorIds());
+		}
+
+		TreeSet<String> found = null;
+		for ( AssetLink link: assetLinks ) {
+			Set<String> ids = m_assetLinkIndex.get(link.toKey());
+			if ( found == null ) {
+				found = new TreeSet<>(ids);
+			}
+			else {
+				found.retainAll(ids);
+			}
+			if ( found.isEmpty() ) {
+				break;
+			}
+		}
+		return found;
+	}
 }
@@ -1,17 +1,31 @@
 package mdt.registry;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.function.Function;
 
+import javax.annotation.Nullable;
+
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.DeserializationException;
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.SerializationException;
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonDeserializer;
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonSerializer;
 import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelDescriptor;
 
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import utils.stream.FStream;
 
+import mdt.Page;
+import mdt.SortedKeyIndex;
 import mdt.model.InternalException;
 import mdt.model.registry.RegistryException;
 import mdt.model.registry.ResourceAlreadyExistsException;
@@ -22,19 +36,55 @@ import mdt.model.registry.ResourceNotFoundException;
  *
  * @author Kang-Woo Lee (ETRI)
  */
-public class CachingFileMDTSubmodelRegistry implements SubmodelRegistryProvider {
+public class CachingFileMDTSubmodelRegistry implements SubmodelRegistryProvider, MeterBinder {
     private final CachingFileBasedRegistry<SubmodelDescriptor> m_store;
+    private final DescriptorIndex m_semanticIdIndex = DescriptorIndex.onSemanticId();
     private final JsonSerializer m_jsonSer = new JsonSerializer();
 	private final JsonDeserializer m_jsonDeser = new JsonDeserializer();
     
+	public CachingFileMDTSubmodelRegistry(File storeDir, long cacheCapacity,
+									long parsedCacheCapacity) throws RegistryException {
+    	this(CachingFileBasedRegistry.createFileStorage(storeDir), cacheCapacity, parsedCacheCapacity);
+    }
+
+	public CachingFileMDTSubmodelRegistry(DescriptorStorage storage, long cacheCapacity,
+									long parsedCacheCapacity) throws RegistryException {
+    	this(storage, cacheCapacity, parsedCacheCapacity, WarmUpOptions.DEFAULT);
+    }
+
     @SuppressWarnings({ "rawtypes", "unchecked" })
-	public CachingFileMDTSubmodelRegistry(File storeDir, int cacheSize) throws RegistryException {
-    	m_store = new CachingFileBasedRegistry(storeDir, cacheSize, SubmodelDescriptor.class, m_deser);
+	public CachingFileMDTSubmodelRegistry(DescriptorStorage storage, long cacheCapacity, long parsedCacheCapacity,
+									WarmUpOptions warmUp) throws RegistryException {
+    	m_store = new CachingFileBasedRegistry(storage, cacheCapacity, parsedCacheCapacity,
+    											SubmodelDescriptor.class, m_deser, List.of(m_semanticIdIndex),
+    											warmUp);
     }
     
     public File getStoreDir() {
     	return m_store.getStoreDir();
     }
+    
+    public CachingFileBasedRegistry.WarmUpStatus getWarmUpStatus() {
+    	return m_store.getWarmUpStatus();
+    }
+    
+    public void close() throws IOException {
+    	m_store.close();
+    }
+    
+    public void watchStorage() throws IOException {
+    	m_store.watchStorage();
+    }
+    
+    @Override
+    public String toString() {
+    	return String.format("%s[%s]", getClass().getSimpleName(), getStoreDir().getAbsolutePath());
+    }
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		m_store.bindTo(registry);
+	}
 
 	@Override
 	public SubmodelDescriptor getSubmodelDescriptorById(String submodelId) throws ResourceNotFoundException,
@@ -48,6 +98,12 @@ public class CachingFileMDTSubmodelRegistry implements SubmodelRegistryProvider
 		return m_store.getDescriptorById(submodelId).getJson();
 	}
 
+	@Override
+	public LazyDescriptor<SubmodelDescriptor> getLazySubmodelDescriptorById(String submodelId)
+		throws ResourceNotFoundException, RegistryException {
+		return m_store.getDescriptorById(submodelId);
+	}
+
 	@Override
 	public List<SubmodelDescriptor> getAllSubmodelDescriptors() throws RegistryException {
 		return FStream.from(m_store.getAllDescriptors())
@@ -62,6 +118,45 @@ public class CachingFileMDTSubmodelRegistry implements SubmodelRegistryProvider
 						.toList();
 	}
 
+	@Override
+	public void writeAllJsonSubmodelDescriptors(OutputStream out) throws IOException, RegistryException {
+		m_store.writeAllDescriptors(out);
+	}
+
+	@Override
+	public void writeAllJsonSubmodelDescriptorsByIdShort(String idShort, OutputStream out)
+		throws IOException, RegistryException {
+		m_store.writeAllDescriptorsByShortId(idShort, out);
+	}
+
+	@Override
+	public void writeJsonSubmodelDescriptorPage(String idShort, String cursor, int limit, OutputStream out)
+		throws IOException, RegistryException {
+		m_store.writeDescriptorPage(idShort, cursor, limit, out);
+	}
+
+	@Override
+	public List<SubmodelDescriptor> getAllSubmodelDescriptorsBySemanticId(String semanticId)
+		throws RegistryException {
+		return FStream.from(m_store.getDescriptorsByIds(findSubmodelIds(semanticId, null)))
+						.map(LazyDescriptor::get)
+						.toList();
+	}
+
+	@Override
+	public void writeAllJsonSubmodelDescriptorsBySemanticId(String semanticId, String idShort, OutputStream out)
+		throws IOException, RegistryException {
+		m_store.writeJsonArray(findSubmodelIds(semanticId, idShort), out);
+	}
+
+	@Override
+	public void writeJsonSubmodelDescriptorPageBySemanticId(String semanticId, String idShort, String cursor,
+															int limit, OutputStream out)
+		throws IOException, RegistryException {
+		Page<String> page = SortedKeyIndex.getPage(findSubmodelIds(semanticId, idShort), cursor, limit);
+		m_store.writeDescriptorPage(page, out);
+	}
+
 	@Override
 	public SubmodelDescriptor addSubmodelDescriptor(SubmodelDescriptor descriptor)
 		throws ResourceAlreadyExistsException, RegistryException {
@@ -76,6 +171,28 @@ public class CachingFileMDTSubmodelRegistry implements SubmodelRegistryProvider
 		}
 	}
 
+	@Override
+	public List<BulkItemResult> addSubmodelDescriptors(List<SubmodelDescriptor> descriptors)
+		throws RegistryException {
+		Map<String,LazyDescriptor<SubmodelDescriptor>> descMap = Maps.newLinkedHashMap();
+		for ( SubmodelDescriptor descriptor: descriptors ) {
+			try {
+				String json = m_jsonSer.write(descriptor);
+				descMap.put(descriptor.getId(), new LazyDescriptor<>(descriptor, json));
+			}
+			catch ( SerializationException e ) {
+				throw new RegistryException("Failed to add SubmodelDescriptor: id=" + descriptor.getId()
+											+ ", cause=" + e);
+			}
+		}
+
+		Set<String> existing = m_store.addDescriptors(descMap);
+		return FStream.from(descMap.keySet())
+						.map(id -> existing.contains(id) ? BulkItemResult.conflict(id)
+														: BulkItemResult.created(id))
+						.toList();
+	}
+
 	@Override
 	public SubmodelDescriptor updateSubmodelDescriptorById(SubmodelDescriptor descriptor)
 		throws ResourceNotFoundException, RegistryException {
@@ -90,6 +207,23 @@ public class CachingFileMDTSubmodelRegistry implements SubmodelRegistryProvider
 		}
 	}
 
+	@Override
+	public void updateSubmodelDescriptors(List<SubmodelDescriptor> descriptors)
+		throws ResourceNotFoundException, RegistryException {
+		Map<String,LazyDescriptor<SubmodelDescriptor>> descMap = Maps.newLinkedHashMap();
+		for ( SubmodelDescriptor descriptor: descriptors ) {
+			try {
+				String json = m_jsonSer.write(descriptor);
+				descMap.put(descriptor.getId(), new LazyDescriptor<>(descriptor, json));
+			}
+			catch ( SerializationException e ) {
+				throw new RegistryException("Failed to update SubmodelDescriptor: id=" + descriptor.getId()
+											+ ", cause=" + e);
+			}
+		}
+		m_store.updateDescriptors(descMap);
+	}
+
 	@Override
 	public void removeSubmodelDescriptorById(String submodelId) throws ResourceNotFoundException, RegistryException {
 		m_store.removeDescriptor(submodelId);
@@ -99,11 +233,22 @@ public class CachingFileMDTSubmodelRegistry implements SubmodelRegistryProvider
 		@Override
 		public SubmodelDescriptor apply(String json) {
 			try {
-				return m_jsonDeser.read(json, SubmodelDescriptor.class);
+				SubmodelDescriptor desc = m_jsonDeser.read(json, SubmodelDescriptor.class);
+				return DescriptorInterner.internStrings(desc);
 			}
 			catch ( DeserializationException e ) {
 				throw new InternalException("" + e);
 			}
 		}
     };
+
+	private TreeSet<String> findSubmodelIds(String semanticId, @Nullable String idShort) {
+		Preconditions.checkNotNull(semanticId, "SubmodelDescriptor semanticId");
+
+		TreeSet<String> ids = new TreeSet<>(m_semanticIdIndex.get(semanticId));
+		if ( idShort != null ) {
+			ids.retainAll(m_store.getAllDescriptorIdsByShortId(idShort));
+		}
+		return ids;
+	}
 }
@@ -0,0 +1,38 @@
+package mdt.registry;
+
+import javax.annotation.Nullable;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+
+/**
+ * Registry에 등록된 descriptor의 변경을 알리는 이벤트.
+ * <p>
+ * {@link CachingFileBasedRegistry}가 descriptor 추가/변경/삭제가 완료된 후
+ * {@link mdt.Globals#EVENT_BUS}를 통해 발송한다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+@Getter
+@ToString(exclude="json")
+@AllArgsConstructor
+public class DescriptorChangeEvent {
+	public static enum Type { ADDED, UPDATED, REMOVED };
+
+	private String resource;
+	private Type type;
+	private String id;
+	@Nullable private String json;
+
+	public static DescriptorChangeEvent ADDED(String resource, String id, String json) {
+		return new DescriptorChangeEvent(resource, Type.ADDED, id, json);
+	}
+	public static DescriptorChangeEvent UPDATED(String resource, String id, String json) {
+		return new DescriptorChangeEvent(resource, Type.UPDATED, id, json);
+	}
+	public static DescriptorChangeEvent REMOVED(String resource, String id) {
+		return new DescriptorChangeEvent(resource, Type.REMOVED, id, null);
+	}
+}
@@ -0,0 +1,172 @@
+package mdt.registry;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import mdt.SemanticIds;
+
+
+/**
+ * Descriptor JSON의 특정 속성 값에서 descriptor 식별자로의 in-memory 보조 색인.
+ * <p>
+ * 색인 키는 descriptor의 JSON 트리에서 추출되기 때문에 aas4j 객체로의 역직렬화 없이
+ * 유지될 수 있다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class DescriptorIndex {
+	private final String m_name;
+	private final Function<JsonNode,Collection<String>> m_keyExtractor;
+	private final ConcurrentMap<String,Set<String>> m_idsByKey = Maps.newConcurrentMap();
+	private final ConcurrentMap<String,Set<String>> m_keysById = Maps.newConcurrentMap();
+
+	public DescriptorIndex(String name, Function<JsonNode,Collection<String>> keyExtractor) {
+		m_name = name;
+		m_keyExtractor = keyExtractor;
+	}
+
+	/**
+	 * Descriptor JSON의 최상위 문자열 속성을 키로 하는 색인을 생성한다.
+	 *
+	 * @param field	색인 키로 사용할 속성 이름.
+	 * @return	생성된 색인 객체.
+	 */
+	public static DescriptorIndex onField(String field) {
+		return new DescriptorIndex(field, node -> {
+			JsonNode value = node.get(field);
+			return (value != null && value.isTextual()) ? List.of(value.asText()) : List.of();
+		});
+	}
+
+	/**
+	 * AAS descriptor의 {@code globalAssetId}와 {@code specificAssetIds}를 키로 하는
+	 * asset 식별자 색인을 생성한다. 색인 키는 {@link AssetLink#toKey()} 형태이다.
+	 *
+	 * @return	생성된 색인 객체.
+	 */
+	public static DescriptorIndex onAssetLinks() {
+		return new DescriptorIndex("assetLinks", node -> {
+			List<String> keys = Lists.newArrayList();
+
+			JsonNode globalAssetId = node.get(AssetLink.GLOBAL_ASSET_ID);
+			if ( globalAssetId != null && globalAssetId.isTextual() ) {
+				keys.add(new AssetLink(AssetLink.GLOBAL_ASSET_ID, globalAssetId.asText()).toKey());
+			}
+
+			JsonNode specificAssetIds = node.get("specificAssetIds");
+			if ( specificAssetIds != null && specificAssetIds.isArray() ) {
+				for ( JsonNode assetId: specificAssetIds ) {
+					JsonNode name = assetId.get("name");
+					JsonNode value = assetId.get("value");
+					if ( name != null && name.isTextual() && value != null && value.isTextual() ) {
+						keys.add(new AssetLink(name.asText(), value.asText()).toKey());
+					}
+				}
+			}
+			return keys;
+		});
+	}
+
+	/**
+	 * Descriptor JSON의 {@code semanticId} 참조를 키로 하는 색인을 생성한다.
+	 * 색인 키는 {@link SemanticIds#toKeys(JsonNode)}를 따른다.
+	 *
+	 * @return	생성된 색인 객체.
+	 */
+	public static DescriptorIndex onSemanticId() {
+		return new DescriptorIndex("semanticId", node -> SemanticIds.toKeys(node.get("semanticId")));
+	}
+
+	public String getName() {
+		return m_name;
+	}
+
+	public Set<String> get(String key) {
+		Set<String> ids = m_idsByKey.get(key);
+		return (ids != null) ? Set.copyOf(ids) : Collections.emptySet();
+	}
+
+	/**
+	 * 주어진 descriptor에 대해 색인된 키들을 반환한다.
+	 *
+	 * @param id	descriptor 식별자.
+	 * @return	색인 키 집합. 색인되지 않은 경우는 공집합.
+	 */
+	public Set<String> getKeys(String id) {
+		Set<String> keys = m_keysById.get(id);
+		return (keys != null) ? keys : Collections.emptySet();
+	}
+
+	public int size() {
+		return m_keysById.size();
+	}
+
+	public void put(String id, JsonNode descriptor) {
+		put(id, m_keyExtractor.apply(descriptor));
+	}
+
+	/**
+	 * 주어진 객체를 주어진 키들로 색인한다.
+	 * <p>
+	 * JSON 트리 없이 객체로부터 키를 직접 얻을 수 있는 경우에 사용한다.
+	 *
+	 * @param id	객체 식별자.
+	 * @param keys	색인 키 목록.
+	 */
+	public synchronized void put(String id, Collection<String> keys) {
+		if ( keys.isEmpty() ) {
+			remove(id);
+			return;
+		}
+
+		// 동시에 조회하는 쪽에서 변경 전후의 공통 키에 대한 항목이 잠시라도 사라진 상태를 보지 않도록
+		// 새 키들을 먼저 추가한 뒤 더 이상 사용되지 않는 키들만 제거한다.
+		Set<String> keySet = Set.copyOf(keys);
+		for ( String key: keySet ) {
+			m_idsByKey.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+		}
+		Set<String> oldKeys = m_keysById.put(id, keySet);
+		if ( oldKeys != null ) {
+			for ( String key: oldKeys ) {
+				if ( !keySet.contains(key) ) {
+					removeEntry(key, id);
+				}
+			}
+		}
+	}
+
+	public synchronized void remove(String id) {
+		Set<String> keys = m_keysById.remove(id);
+		if ( keys != null ) {
+			for ( String key: keys ) {
+				removeEntry(key, id);
+			}
+		}
+	}
+
+	public synchronized void clear() {
+		m_idsByKey.clear();
+		m_keysById.clear();
+	}
+
+	private void removeEntry(String key, String id) {
+		m_idsByKey.computeIfPresent(key, (k, ids) -> {
+			ids.remove(id);
+			return ids.isEmpty() ? null : ids;
+		});
+	}
+
+	@Override
+	public String toString() {
+		return String.format("index[%s]: keys=%d, descriptors=%d", m_name, m_idsByKey.size(), m_keysById.size());
+	}
+}
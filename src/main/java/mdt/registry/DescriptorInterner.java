@@ -0,0 +1,139 @@
+package mdt.registry;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.digitaltwin.aas4j.v3.model.AssetAdministrationShellDescriptor;
+import org.eclipse.digitaltwin.aas4j.v3.model.Endpoint;
+import org.eclipse.digitaltwin.aas4j.v3.model.Key;
+import org.eclipse.digitaltwin.aas4j.v3.model.ProtocolInformation;
+import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
+import org.eclipse.digitaltwin.aas4j.v3.model.SpecificAssetId;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelDescriptor;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+
+/**
+ * Cache되는 descriptor 객체들 사이에서 반복되는 문자열을 하나의 {@link String} 객체로 공유시키는 interner.
+ * <p>
+ * Endpoint의 interface 이름 ("AAS-3.0", "SUBMODEL-3.0"), 프로토콜 정보, semanticId의 key 값 등은
+ * 수많은 descriptor에서 동일한 값으로 반복되기 때문에, descriptor가 역직렬화될 때 이 문자열들을
+ * 정규화(canonicalize)하여 cache된 descriptor들이 차지하는 heap을 줄인다. Endpoint 주소는 submodel마다
+ * 다르지만, AAS descriptor에 포함된 SubmodelDescriptor와 Submodel registry의 descriptor 사이에서는
+ * 같은 값이 반복되기 때문에 함께 공유한다.
+ * <p>
+ * 변경 가능한 모델 객체 (Endpoint, Reference 등)는 공유하지 않으며, 대상 descriptor는 방금 역직렬화되어
+ * 호출자만 참조하는 객체이어야 한다. 내부 테이블은 weak reference로 유지되어 더 이상 사용되지 않는 값은
+ * GC에 의해 제거되며, {@value #MAX_INTERNED_LENGTH}자보다 긴 문자열은 공유 대상에서 제외된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public final class DescriptorInterner {
+	public static final int MAX_INTERNED_LENGTH = 512;
+
+	private static final Interner<String> s_strings = Interners.newWeakInterner();
+
+	private DescriptorInterner() {
+		throw new AssertionError("Should not be called: class=" + DescriptorInterner.class);
+	}
+
+	/**
+	 * 주어진 AAS descriptor와 그에 포함된 SubmodelDescriptor들의 반복되는 문자열들을 공유 문자열로 교체한다.
+	 *
+	 * @param desc	방금 역직렬화된 descriptor.
+	 * @return	인자로 주어진 descriptor.
+	 */
+	static AssetAdministrationShellDescriptor internStrings(AssetAdministrationShellDescriptor desc) {
+		desc.setIdShort(intern(desc.getIdShort()));
+		desc.setAssetType(intern(desc.getAssetType()));
+		internEndpoints(desc.getEndpoints());
+
+		List<SpecificAssetId> assetIds = desc.getSpecificAssetIds();
+		if ( assetIds != null ) {
+			for ( SpecificAssetId assetId: assetIds ) {
+				assetId.setName(intern(assetId.getName()));
+				internReference(assetId.getSemanticId());
+			}
+		}
+
+		List<SubmodelDescriptor> smDescList = desc.getSubmodelDescriptors();
+		if ( smDescList != null ) {
+			for ( SubmodelDescriptor smDesc: smDescList ) {
+				internStrings(smDesc);
+			}
+		}
+		return desc;
+	}
+
+	/**
+	 * 주어진 SubmodelDescriptor의 반복되는 문자열들을 공유 문자열로 교체한다.
+	 *
+	 * @param desc	방금 역직렬화된 descriptor.
+	 * @return	인자로 주어진 descriptor.
+	 */
+	static SubmodelDescriptor internStrings(SubmodelDescriptor desc) {
+		desc.setIdShort(intern(desc.getIdShort()));
+		internReference(desc.getSemanticId());
+		internEndpoints(desc.getEndpoints());
+
+		List<Reference> supplementals = desc.getSupplementalSemanticId();
+		if ( supplementals != null ) {
+			for ( Reference ref: supplementals ) {
+				internReference(ref);
+			}
+		}
+		return desc;
+	}
+
+	/**
+	 * 주어진 문자열과 동일한 공유 문자열을 반환한다.
+	 * 문자열이 {@code null}이거나 {@value #MAX_INTERNED_LENGTH}자보다 긴 경우는 그대로 반환한다.
+	 *
+	 * @param str	대상 문자열.
+	 * @return	공유 문자열.
+	 */
+	public static String intern(@Nullable String str) {
+		if ( str == null || str.length() > MAX_INTERNED_LENGTH ) {
+			return str;
+		}
+		return s_strings.intern(str);
+	}
+
+	private static void internReference(@Nullable Reference ref) {
+		if ( ref == null ) {
+			return;
+		}
+
+		List<Key> keys = ref.getKeys();
+		if ( keys != null ) {
+			for ( Key key: keys ) {
+				key.setValue(intern(key.getValue()));
+			}
+		}
+		internReference(ref.getReferredSemanticId());
+	}
+
+	private static void internEndpoints(@Nullable List<Endpoint> endpoints) {
+		if ( endpoints == null ) {
+			return;
+		}
+
+		for ( Endpoint ep: endpoints ) {
+			ep.set_interface(intern(ep.get_interface()));
+
+			ProtocolInformation info = ep.getProtocolInformation();
+			if ( info != null ) {
+				info.setHref(intern(info.getHref()));
+				info.setEndpointProtocol(intern(info.getEndpointProtocol()));
+				info.setSubprotocol(intern(info.getSubprotocol()));
+				List<String> versions = info.getEndpointProtocolVersion();
+				if ( versions != null ) {
+					versions.replaceAll(DescriptorInterner::intern);
+				}
+			}
+		}
+	}
+}
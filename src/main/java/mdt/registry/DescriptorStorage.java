@@ -0,0 +1,133 @@
+package mdt.registry;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+
+
+/**
+ * Registry에 등록된 descriptor들의 직렬화된 값을 저장하는 저장 엔진 인터페이스.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public interface DescriptorStorage extends Closeable {
+	public File getRootDir();
+
+	public Set<String> getIdAll() throws IOException;
+	public Optional<byte[]> get(String id) throws IOException;
+
+	/**
+	 * 주어진 식별자의 descriptor가 저장되어 있는지 여부를 반환한다.
+	 * <p>
+	 * 기본 구현은 {@link #get(String)}을 통해 값을 읽으며, 저장 엔진은 가능한 경우
+	 * 값을 읽지 않고 확인하도록 재정의한다.
+	 *
+	 * @param id	descriptor 식별자.
+	 * @return	저장 여부.
+	 * @throws IOException	확인 중 오류가 발생된 경우.
+	 */
+	public default boolean exists(String id) throws IOException {
+		return get(id).isPresent();
+	}
+
+	/**
+	 * 주어진 식별자의 descriptor를 새로 저장한다.
+	 *
+	 * @param id	descriptor 식별자.
+	 * @param value	저장할 descriptor 값.
+	 * @return	동일 식별자의 descriptor가 이미 존재하는 경우는 {@code false}.
+	 * @throws IOException	저장 중 오류가 발생된 경우.
+	 */
+	public boolean insert(String id, byte[] value) throws IOException;
+
+	/**
+	 * 주어진 descriptor 값들을 한번에 새로 저장한다.
+	 * <p>
+	 * 동일 식별자의 descriptor가 이미 존재하는 항목은 저장하지 않고 건너뛴다.
+	 * 기본 구현은 {@link #insert(String, byte[])}를 반복 호출하며, 저장 엔진은 가능한 경우
+	 * 하나의 쓰기 연산으로 처리하도록 재정의한다.
+	 *
+	 * @param values	descriptor 식별자와 저장할 값의 맵.
+	 * @return	이미 존재하여 저장되지 않은 descriptor 식별자 집합.
+	 * @throws IOException	저장 중 오류가 발생된 경우.
+	 */
+	public default Set<String> insertAll(Map<String,byte[]> values) throws IOException {
+		Set<String> existing = Sets.newHashSet();
+		for ( Map.Entry<String,byte[]> ent: values.entrySet() ) {
+			if ( !insert(ent.getKey(), ent.getValue()) ) {
+				existing.add(ent.getKey());
+			}
+		}
+		return existing;
+	}
+
+	/**
+	 * 주어진 식별자의 descriptor 값을 변경한다.
+	 *
+	 * @param id	descriptor 식별자.
+	 * @param value	변경될 descriptor 값.
+	 * @return	해당 식별자의 descriptor가 존재하지 않는 경우는 {@code false}.
+	 * @throws IOException	저장 중 오류가 발생된 경우.
+	 */
+	public boolean update(String id, byte[] value) throws IOException;
+
+	/**
+	 * 주어진 descriptor 값들을 한번에 변경한다.
+	 * <p>
+	 * 변경 대상 중 하나라도 존재하지 않는 경우는 어떠한 descriptor도 변경하지 않는다.
+	 * 기본 구현은 {@link #update(String, byte[])}를 반복 호출하기 때문에 도중에 {@link IOException}이
+	 * 발생되면 앞선 descriptor들만 변경된 상태로 남는다. 저장 엔진은 가능한 경우 하나의 쓰기 연산으로
+	 * 처리하도록 재정의한다.
+	 *
+	 * @param values	descriptor 식별자와 변경될 값의 맵.
+	 * @return	변경 대상 중 존재하지 않는 descriptor가 있는 경우는 {@code false}.
+	 * @throws IOException	저장 중 오류가 발생된 경우.
+	 */
+	public default boolean updateAll(Map<String,byte[]> values) throws IOException {
+		for ( String id: values.keySet() ) {
+			if ( !exists(id) ) {
+				return false;
+			}
+		}
+		for ( Map.Entry<String,byte[]> ent: values.entrySet() ) {
+			update(ent.getKey(), ent.getValue());
+		}
+		return true;
+	}
+
+	public boolean remove(String id) throws IOException;
+
+	/**
+	 * 다른 프로세스에 의한 저장소 변경을 감시한다.
+	 * <p>
+	 * 동일 저장소를 여러 프로세스가 공유하는 경우, 각 프로세스가 다른 프로세스의 변경을 반영하기 위해
+	 * 사용한다. 자신이 수행한 변경 역시 통보될 수 있다.
+	 *
+	 * @param listener	변경 통보를 받을 listener.
+	 * @return	감시를 중단할 때 사용할 객체.
+	 * @throws IOException	감시 시작 중 오류가 발생된 경우.
+	 * @throws UnsupportedOperationException	저장 엔진이 변경 감시를 지원하지 않는 경우.
+	 */
+	public default Closeable watchChanges(ChangeListener listener) throws IOException {
+		throw new UnsupportedOperationException("change watch is not supported: storage=" + this);
+	}
+
+	public static interface ChangeListener {
+		/**
+		 * 주어진 식별자의 descriptor가 추가/변경/삭제된 경우 호출된다.
+		 *
+		 * @param id	변경된 descriptor 식별자.
+		 */
+		public void onChanged(String id);
+
+		/**
+		 * 변경 통보 일부가 유실되어 어떤 descriptor들이 변경되었는지 알 수 없는 경우 호출된다.
+		 */
+		public void onOverflow();
+	}
+}
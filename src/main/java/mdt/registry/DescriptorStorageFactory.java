@@ -0,0 +1,63 @@
+package mdt.registry;
+
+import java.io.File;
+import java.io.IOException;
+
+import mdt.model.registry.RegistryException;
+
+
+/**
+ * 저장 엔진 종류와 인코딩 이름으로부터 {@link DescriptorStorage}를 생성한다.
+ * <p>
+ * 서버 설정과 명령행 도구들이 동일한 저장 디렉토리를 같은 방식으로 열 수 있도록
+ * 저장 엔진 생성을 이 클래스로 모은다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public final class DescriptorStorageFactory {
+	public static final String STORAGE_FILE = "file";
+	public static final String STORAGE_SEGMENT_LOG = "segment-log";
+	public static final String ENCODING_JSON = "json";
+	public static final String ENCODING_SMILE = "smile";
+
+	private DescriptorStorageFactory() {
+		throw new AssertionError("Should not be called: class=" + DescriptorStorageFactory.class);
+	}
+
+	/**
+	 * 주어진 디렉토리를 사용하는 저장 엔진을 생성한다.
+	 *
+	 * @param dir			저장 디렉토리.
+	 * @param storage		저장 엔진 종류. ({@value #STORAGE_FILE} 또는 {@value #STORAGE_SEGMENT_LOG})
+	 * @param encoding		descriptor 인코딩. ({@value #ENCODING_JSON} 또는 {@value #ENCODING_SMILE})
+	 * @param segmentSize	{@value #STORAGE_SEGMENT_LOG} 저장 엔진의 segment 크기 (byte 단위).
+	 * @return	생성된 저장 엔진.
+	 * @throws IOException	저장 디렉토리를 여는 중 오류가 발생된 경우.
+	 * @throws RegistryException	알 수 없는 저장 엔진 종류 또는 인코딩인 경우.
+	 */
+	public static DescriptorStorage create(File dir, String storage, String encoding, long segmentSize)
+		throws IOException {
+		DescriptorStorage store;
+		switch ( storage ) {
+			case STORAGE_FILE:
+				store = new FileDescriptorStorage(dir);
+				break;
+			case STORAGE_SEGMENT_LOG:
+				double threshold = SegmentLogDescriptorStorage.DEFAULT_COMPACTION_THRESHOLD;
+				store = new SegmentLogDescriptorStorage(dir, segmentSize, threshold);
+				break;
+			default:
+				throw new RegistryException("Unknown registry storage type: " + storage);
+		}
+
+		switch ( encoding ) {
+			case ENCODING_JSON:
+				return store;
+			case ENCODING_SMILE:
+				return new SmileDescriptorStorage(store);
+			default:
+				store.close();
+				throw new RegistryException("Unknown registry storage encoding: " + encoding);
+		}
+	}
+}
@@ -0,0 +1,251 @@
+package mdt.registry;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Sets;
+
+import utils.Throwables;
+import utils.fostore.DefaultFileObjectStore;
+import utils.fostore.FileObjectHandler;
+
+
+/**
+ * Descriptor 하나를 식별자의 Base64 인코딩을 이름으로 하는 파일 하나에 저장하는 저장 엔진.
+ * <p>
+ * 파일은 항상 임시 파일에 먼저 기록된 뒤 원래 파일 이름으로 rename되기 때문에,
+ * descriptor를 변경하는 도중에도 읽는 쪽은 변경 전 또는 변경 후의 완전한 파일만을 보게 된다.
+ * 임시 파일의 이름은 기록할 때마다 새로 생성되므로 저장 디렉토리를 여러 프로세스가 공유하더라도
+ * 서로의 임시 파일을 덮어쓰지 않는다.
+ * 동일 descriptor에 대한 변경들 간의 순서는 상위 registry가 보장한다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class FileDescriptorStorage implements DescriptorStorage {
+	private static final Logger s_logger = LoggerFactory.getLogger(FileDescriptorStorage.class);
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+	// 이 시간 이상 변경되지 않은 임시 파일은 기록 도중 비정상 종료된 프로세스가 남긴 것으로 간주한다.
+	private static final Duration STALE_TEMP_FILE_AGE = Duration.ofMinutes(10);
+
+	private final File m_rootDir;
+	private final DescriptorFileHandler m_handler;
+	private final DefaultFileObjectStore<String,byte[]> m_store;
+
+	public FileDescriptorStorage(File rootDir) throws IOException {
+		m_rootDir = rootDir;
+		if ( !rootDir.exists() ) {
+			Files.createDirectories(rootDir.toPath());
+		}
+		removeStaleTempFiles(rootDir);
+
+		m_handler = new DescriptorFileHandler(rootDir);
+		m_store = new DefaultFileObjectStore<>(rootDir, m_handler);
+	}
+
+	@Override
+	public File getRootDir() {
+		return m_rootDir;
+	}
+
+	@Override
+	public Set<String> getIdAll() throws IOException {
+		return Sets.newHashSet(m_store.getFileObjectKeyAll());
+	}
+
+	@Override
+	public Optional<byte[]> get(String id) throws IOException {
+		try {
+			return m_store.get(id);
+		}
+		catch ( ExecutionException e ) {
+			throw new IOException(Throwables.unwrapThrowable(e));
+		}
+	}
+
+	@Override
+	public boolean exists(String id) throws IOException {
+		return m_handler.toFile(id).exists();
+	}
+
+	@Override
+	public boolean insert(String id, byte[] value) throws IOException {
+		try {
+			return m_store.insert(id, value).isPresent();
+		}
+		catch ( ExecutionException e ) {
+			throw new IOException(Throwables.unwrapThrowable(e));
+		}
+	}
+
+	/**
+	 * 주어진 식별자의 descriptor 파일을 새 값으로 원자적으로 교체한다.
+	 * <p>
+	 * 기존 파일을 삭제하지 않고 임시 파일을 기존 파일 위로 rename하기 때문에,
+	 * 교체 도중 descriptor가 존재하지 않는 것처럼 보이는 구간이 없다.
+	 */
+	@Override
+	public boolean update(String id, byte[] value) throws IOException {
+		File file = m_handler.toFile(id);
+		if ( !file.exists() ) {
+			return false;
+		}
+		writeAtomically(value, file);
+		return true;
+	}
+
+	@Override
+	public boolean remove(String id) throws IOException {
+		return m_store.remove(id);
+	}
+
+	/**
+	 * 저장 디렉토리의 descriptor 파일 생성/변경/삭제를 {@link WatchService}를 통해 감시한다.
+	 * <p>
+	 * 감시는 별도의 daemon 쓰레드에서 수행되며, 기록 중인 임시 파일에 대한 변경은 무시한다.
+	 */
+	@Override
+	public Closeable watchChanges(ChangeListener listener) throws IOException {
+		Path dir = m_rootDir.toPath();
+		WatchService watchService = dir.getFileSystem().newWatchService();
+		dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+					StandardWatchEventKinds.ENTRY_DELETE);
+
+		Thread watcher = new Thread(() -> dispatchChanges(watchService, listener), "descriptor-watcher");
+		watcher.setDaemon(true);
+		watcher.start();
+
+		if ( s_logger.isInfoEnabled() ) {
+			s_logger.info("start watching descriptor changes: dir={}", m_rootDir);
+		}
+		return watchService;
+	}
+
+	@Override
+	public void close() throws IOException { }
+
+	@Override
+	public String toString() {
+		return String.format("%s[%s]", getClass().getSimpleName(), m_rootDir);
+	}
+
+	private void dispatchChanges(WatchService watchService, ChangeListener listener) {
+		while ( true ) {
+			WatchKey key;
+			try {
+				key = watchService.take();
+			}
+			catch ( InterruptedException | ClosedWatchServiceException e ) {
+				return;
+			}
+
+			for ( WatchEvent<?> event: key.pollEvents() ) {
+				try {
+					if ( event.kind() == StandardWatchEventKinds.OVERFLOW ) {
+						listener.onOverflow();
+						continue;
+					}
+
+					File file = new File(m_rootDir, ((Path)event.context()).toString());
+					if ( m_handler.isVallidFile(file) ) {
+						listener.onChanged(m_handler.toFileObjectKey(file));
+					}
+				}
+				catch ( IllegalArgumentException e ) {
+					// descriptor 파일 이름 규칙을 따르지 않는 파일은 무시한다.
+				}
+				catch ( Exception e ) {
+					s_logger.warn("failed to handle a descriptor change: event={}, cause={}", event.context(), e);
+				}
+			}
+			if ( !key.reset() ) {
+				s_logger.warn("stop watching descriptor changes: dir={}", m_rootDir);
+				return;
+			}
+		}
+	}
+
+	private static void writeAtomically(byte[] value, File file) throws IOException {
+		Path tempFile = Files.createTempFile(file.getParentFile().toPath(), file.getName() + ".",
+											TEMP_FILE_SUFFIX);
+		try {
+			Files.write(tempFile, value);
+			Files.move(tempFile, file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+						StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch ( AtomicMoveNotSupportedException e ) {
+			Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch ( IOException e ) {
+			Files.deleteIfExists(tempFile);
+			throw e;
+		}
+	}
+
+	private static void removeStaleTempFiles(File rootDir) throws IOException {
+		// 기록 도중 비정상 종료된 경우 남아있을 수 있는 임시 파일들을 제거한다.
+		// 저장 디렉토리를 공유하는 다른 프로세스가 기록 중인 임시 파일은 제거하지 않도록
+		// 충분히 오래된 파일만을 대상으로 한다.
+		long due = System.currentTimeMillis() - STALE_TEMP_FILE_AGE.toMillis();
+		File[] tempFiles = rootDir.listFiles((dir, name) -> name.endsWith(TEMP_FILE_SUFFIX));
+		if ( tempFiles != null ) {
+			for ( File tempFile: tempFiles ) {
+				if ( tempFile.lastModified() < due ) {
+					s_logger.warn("removing a stale temporary descriptor file: {}", tempFile);
+					Files.deleteIfExists(tempFile.toPath());
+				}
+			}
+		}
+	}
+
+	private static final class DescriptorFileHandler implements FileObjectHandler<String, byte[]> {
+		private final File m_rootDir;
+
+		DescriptorFileHandler(File rootDir) {
+			m_rootDir = rootDir;
+		}
+
+		@Override
+		public byte[] readFileObject(File file) throws IOException, ExecutionException {
+			return Files.readAllBytes(file.toPath());
+		}
+
+		@Override
+		public void writeFileObject(byte[] value, File file) throws IOException, ExecutionException {
+			writeAtomically(value, file);
+		}
+
+		@Override
+		public File toFile(String key) {
+			String encodedName = Base64.getEncoder().encodeToString(key.getBytes());
+			return new File(m_rootDir, encodedName);
+		}
+
+		@Override
+		public String toFileObjectKey(File file) {
+			return new String(Base64.getDecoder().decode(file.getName()));
+		}
+
+		@Override
+		public boolean isVallidFile(File file) {
+			return file.getParentFile().equals(m_rootDir) && !file.getName().endsWith(TEMP_FILE_SUFFIX);
+		}
+	}
+}
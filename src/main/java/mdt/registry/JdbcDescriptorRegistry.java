@@ -0,0 +1,580 @@
+package mdt.registry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.SerializationException;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonSerializer;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Striped;
+
+import utils.jdbc.JdbcProcessor;
+
+import mdt.Globals;
+import mdt.Page;
+import mdt.model.registry.RegistryException;
+import mdt.model.registry.ResourceAlreadyExistsException;
+import mdt.model.registry.ResourceNotFoundException;
+
+
+/**
+ * Descriptor들을 JDBC 테이블에 저장하는 registry의 공통 구현.
+ * <p>
+ * Descriptor는 {@code id}를 주키로 하는 테이블에 JSON (CLOB) 형태로 저장되며, {@code id_short}와
+ * 하위 클래스가 지정한 색인 컬럼 값은 별도의 색인된 컬럼에 함께 저장된다. 따라서 idShort 등의
+ * 조건 검색은 descriptor JSON을 읽지 않고 SQL 질의로 처리된다.
+ * 연결을 인자로 받는 메소드들은 호출자가 제공한 transaction 내에서 수행되기 때문에 다른 테이블
+ * (예: MDTInstance descriptor)의 변경과 하나의 transaction으로 묶을 수 있다.
+ * <p>
+ * 변경 이벤트는 transaction이 commit된 뒤에 발송된다. 동일 식별자에 대한 commit과 이벤트 발송은
+ * 식별자별 lock으로 함께 직렬화되기 때문에, 같은 descriptor에 대한 이벤트들은 commit된 순서대로 발송된다.
+ * 연결을 인자로 받는 메소드들은 이 lock을 사용하지 않으므로 호출자가 순서를 보장해야 한다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+abstract class JdbcDescriptorRegistry<D> {
+	private static final String SQL_STATE_DUPLICATE_KEY = "23505";
+	private static final int LOCK_STRIPES = 64;
+
+	protected final JdbcProcessor m_jdbc;
+	protected final String m_table;
+	protected final String m_resourceName;
+	private final String m_indexColumn;
+	private final Function<String,D> m_deser;
+	private final JsonSerializer m_jsonSer = new JsonSerializer();
+	private final Striped<Lock> m_locks = Striped.lock(LOCK_STRIPES);
+
+	protected JdbcDescriptorRegistry(JdbcProcessor jdbc, String table, String indexColumn, Class<D> descCls,
+										Function<String,D> deser) {
+		m_jdbc = jdbc;
+		m_table = table;
+		m_indexColumn = indexColumn;
+		m_resourceName = descCls.getSimpleName();
+		m_deser = deser;
+	}
+
+	/**
+	 * 주어진 descriptor의 식별자를 반환한다.
+	 */
+	protected abstract String getId(D descriptor);
+
+	/**
+	 * 주어진 descriptor의 idShort를 반환한다.
+	 */
+	@Nullable protected abstract String getIdShort(D descriptor);
+
+	/**
+	 * 주어진 descriptor의 색인 컬럼 값을 반환한다.
+	 */
+	@Nullable protected abstract String getIndexValue(D descriptor);
+
+	/**
+	 * Descriptor가 추가되거나 변경된 뒤, 같은 transaction 내에서 호출된다.
+	 * 하위 클래스는 부가 테이블을 갱신하기 위해 재정의할 수 있다.
+	 */
+	protected void onWritten(Connection conn, String id, D descriptor) throws SQLException { }
+
+	/**
+	 * Descriptor 저장 테이블이 없는 경우 생성한다.
+	 *
+	 * @throws RegistryException	테이블 생성 중 오류가 발생된 경우.
+	 */
+	protected void formatIfMissing() throws RegistryException {
+		if ( !m_jdbc.existsTable(m_table) ) {
+			try ( Connection conn = m_jdbc.connect() ) {
+				createTables(conn);
+			}
+			catch ( SQLException e ) {
+				throw new RegistryException("Failed to create " + m_resourceName + " table, cause=" + e);
+			}
+		}
+	}
+
+	protected void createTables(Connection conn) throws SQLException {
+		try ( Statement stmt = conn.createStatement() ) {
+			stmt.executeUpdate("create table " + m_table + " ("
+								+ "id varchar not null, "
+								+ "id_short varchar, "
+								+ m_indexColumn + " varchar, "
+								+ "descriptor clob not null, "
+								+ "primary key (id))");
+			stmt.executeUpdate("create index " + m_table + "_id_short_idx on " + m_table + "(id_short)");
+			stmt.executeUpdate("create index " + m_table + "_" + m_indexColumn + "_idx on " + m_table
+								+ "(" + m_indexColumn + ")");
+		}
+	}
+
+	public String getJsonDescriptorById(String id) throws ResourceNotFoundException, RegistryException {
+		try ( Connection conn = m_jdbc.connect() ) {
+			return getJsonDescriptorById(conn, id);
+		}
+		catch ( SQLException e ) {
+			throw new RegistryException("Failed to get " + m_resourceName + ": id=" + id + ", cause=" + e);
+		}
+	}
+
+	public String getJsonDescriptorById(Connection conn, String id)
+		throws ResourceNotFoundException, SQLException {
+		String sqlStr = "select descriptor from " + m_table + " where id = ?";
+		try ( PreparedStatement pstmt = conn.prepareStatement(sqlStr) ) {
+			pstmt.setString(1, id);
+
+			ResultSet rs = pstmt.executeQuery();
+			if ( rs.next() ) {
+				return rs.getString(1);
+			}
+			else {
+				throw new ResourceNotFoundException(m_resourceName, id);
+			}
+		}
+	}
+
+	public LazyDescriptor<D> getLazyDescriptorById(String id) throws ResourceNotFoundException,
+																	RegistryException {
+		return new LazyDescriptor<>(getJsonDescriptorById(id), m_deser);
+	}
+
+	public boolean existsDescriptor(String id) throws RegistryException {
+		try ( Connection conn = m_jdbc.connect() ) {
+			return existsDescriptor(conn, id);
+		}
+		catch ( SQLException e ) {
+			throw new RegistryException("Failed to check " + m_resourceName + ": id=" + id + ", cause=" + e);
+		}
+	}
+
+	public boolean existsDescriptor(Connection conn, String id) throws SQLException {
+		try ( PreparedStatement pstmt = conn.prepareStatement("select 1 from " + m_table + " where id = ?") ) {
+			pstmt.setString(1, id);
+			return pstmt.executeQuery().next();
+		}
+	}
+
+	/**
+	 * 주어진 조건을 만족하는 descriptor들을 식별자 순으로 반환한다.
+	 *
+	 * @param idShort		idShort 조건. 조건이 없는 경우는 {@code null}.
+	 * @param indexValue	색인 컬럼 조건. 조건이 없는 경우는 {@code null}.
+	 * @return	descriptor 목록.
+	 */
+	public List<D> getAllDescriptors(@Nullable String idShort, @Nullable String indexValue)
+		throws RegistryException {
+		List<D> descList = Lists.newArrayList();
+		try ( Connection conn = m_jdbc.connect();
+				PreparedStatement pstmt = prepareSelect(conn, "id, descriptor", idShort, indexValue,
+														null, -1) ) {
+			ResultSet rs = pstmt.executeQuery();
+			while ( rs.next() ) {
+				descList.add(m_deser.apply(rs.getString(2)));
+			}
+			return descList;
+		}
+		catch ( SQLException e ) {
+			throw new RegistryException("Failed to get " + m_resourceName + "s, cause=" + e);
+		}
+	}
+
+	/**
+	 * 주어진 조건을 만족하는 descriptor들의 식별자를 반환한다.
+	 *
+	 * @param idShort		idShort 조건. 조건이 없는 경우는 {@code null}.
+	 * @param indexValue	색인 컬럼 조건. 조건이 없는 경우는 {@code null}.
+	 * @return	정렬된 식별자 집합.
+	 */
+	public TreeSet<String> getAllDescriptorIds(@Nullable String idShort, @Nullable String indexValue)
+		throws RegistryException {
+		TreeSet<String> ids = new TreeSet<>();
+		try ( Connection conn = m_jdbc.connect();
+				PreparedStatement pstmt = prepareSelect(conn, "id", idShort, indexValue, null, -1) ) {
+			ResultSet rs = pstmt.executeQuery();
+			while ( rs.next() ) {
+				ids.add(rs.getString(1));
+			}
+			return ids;
+		}
+		catch ( SQLException e ) {
+			throw new RegistryException("Failed to get " + m_resourceName + " ids, cause=" + e);
+		}
+	}
+
+	/**
+	 * 주어진 조건을 만족하는 descriptor들을 JSON 배열 형태로 출력한다.
+	 * 저장된 JSON을 그대로 출력하기 때문에 역직렬화가 발생하지 않는다.
+	 *
+	 * @param idShort		idShort 조건. 조건이 없는 경우는 {@code null}.
+	 * @param indexValue	색인 컬럼 조건. 조건이 없는 경우는 {@code null}.
+	 * @param out	출력 스트림.
+	 */
+	public void writeJsonArray(@Nullable String idShort, @Nullable String indexValue, OutputStream out)
+		throws IOException, RegistryException {
+		try ( Connection conn = m_jdbc.connect();
+				PreparedStatement pstmt = prepareSelect(conn, "id, descriptor", idShort, indexValue,
+														null, -1) ) {
+			ResultSet rs = pstmt.executeQuery();
+			out.write('[');
+			boolean first = true;
+			while ( rs.next() ) {
+				if ( !first ) {
+					out.write(',');
+				}
+				out.write(rs.getString(2).getBytes(StandardCharsets.UTF_8));
+				first = false;
+			}
+			out.write(']');
+		}
+		catch ( SQLException e ) {
+			throw new RegistryException("Failed to read " + m_resourceName + "s, cause=" + e);
+		}
+	}
+
+	/**
+	 * 주어진 조건을 만족하는 descriptor들 중 cursor 다음부터 최대 {@code limit}개를
+	 * AAS v3 API의 paging 결과 형태로 출력한다.
+	 */
+	public void writeJsonPage(@Nullable String idShort, @Nullable String indexValue, @Nullable String cursor,
+								int limit, OutputStream out) throws IOException, RegistryException {
+		String lastId = (cursor != null) ? Page.decodeCursor(cursor) : null;
+
+		// 다음 page 존재 여부를 알기 위해 하나를 더 읽는다.
+		List<String> ids = Lists.newArrayList();
+		List<String> jsons = Lists.newArrayList();
+		try ( Connection conn = m_jdbc.connect();
+				PreparedStatement pstmt = prepareSelect(conn, "id, descriptor", idShort, indexValue,
+														lastId, limit + 1) ) {
+			ResultSet rs = pstmt.executeQuery();
+			while ( rs.next() ) {
+				ids.add(rs.getString(1));
+				jsons.add(rs.getString(2));
+			}
+		}
+		catch ( SQLException e ) {
+			throw new RegistryException("Failed to read " + m_resourceName + " page: cursor=" + cursor
+										+ ", cause=" + e);
+		}
+
+		String next = null;
+		if ( ids.size() > limit ) {
+			jsons = jsons.subList(0, limit);
+			next = Page.encodeCursor(ids.get(limit-1));
+		}
+		writePage(jsons, next, out);
+	}
+
+	/**
+	 * 주어진 식별자 page에 해당하는 descriptor들을 AAS v3 API의 paging 결과 형태로 출력한다.
+	 */
+	public void writeJsonPage(Page<String> page, OutputStream out) throws IOException, RegistryException {
+		List<String> jsons = Lists.newArrayList();
+		try ( Connection conn = m_jdbc.connect() ) {
+			for ( String id: page.getResult() ) {
+				try {
+					jsons.add(getJsonDescriptorById(conn, id));
+				}
+				catch ( ResourceNotFoundException e ) {
+					// page 생성 이후 삭제된 경우
+				}
+			}
+		}
+		catch ( SQLException e ) {
+			throw new RegistryException("Failed to read " + m_resourceName + " page, cause=" + e);
+		}
+		writePage(jsons, page.getCursor(), out);
+	}
+
+	public D addDescriptor(D descriptor) throws ResourceAlreadyExistsException, RegistryException {
+		Preconditions.checkNotNull(descriptor);
+
+		String id = getId(descriptor);
+		String json = serialize(descriptor);
+		Lock lock = m_locks.get(id);
+		lock.lock();
+		try ( Connection conn = m_jdbc.connect() ) {
+			conn.setAutoCommit(false);
+			try {
+				addDescriptor(conn, id, json, descriptor);
+				conn.commit();
+			}
+			catch ( SQLException | RuntimeException e ) {
+				conn.rollback();
+				throw e;
+			}
+
+			Globals.EVENT_BUS.post(DescriptorChangeEvent.ADDED(m_resourceName, id, json));
+			return descriptor;
+		}
+		catch ( SQLException e ) {
+			if ( SQL_STATE_DUPLICATE_KEY.equals(e.getSQLState()) ) {
+				throw new ResourceAlreadyExistsException(m_resourceName, id);
+			}
+			throw new RegistryException("Failed to add " + m_resourceName + ": id=" + id + ", cause=" + e);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 주어진 descriptor들을 하나의 transaction으로 추가한다.
+	 * 이미 등록된 식별자의 descriptor는 추가하지 않는다.
+	 *
+	 * @param descriptors	추가할 descriptor 목록.
+	 * @return	주어진 descriptor 순서에 따른 처리 결과 목록.
+	 */
+	public List<BulkItemResult> addDescriptors(List<D> descriptors) throws RegistryException {
+		List<BulkItemResult> results = Lists.newArrayListWithCapacity(descriptors.size());
+		Map<String,String> addeds = Maps.newLinkedHashMap();
+		List<Lock> locks = lockAll(Lists.transform(descriptors, this::getId));
+		try ( Connection conn = m_jdbc.connect() ) {
+			conn.setAutoCommit(false);
+			try {
+				for ( D desc: descriptors ) {
+					String id = getId(desc);
+					if ( existsDescriptor(conn, id) ) {
+						results.add(BulkItemResult.conflict(id));
+					}
+					else {
+						String json = serialize(desc);
+						addDescriptor(conn, id, json, desc);
+						addeds.put(id, json);
+						results.add(BulkItemResult.created(id));
+					}
+				}
+				conn.commit();
+			}
+			catch ( SQLException | RuntimeException e ) {
+				conn.rollback();
+				throw e;
+			}
+
+			for ( Map.Entry<String,String> ent: addeds.entrySet() ) {
+				Globals.EVENT_BUS.post(DescriptorChangeEvent.ADDED(m_resourceName, ent.getKey(),
+																	ent.getValue()));
+			}
+			return results;
+		}
+		catch ( SQLException e ) {
+			throw new RegistryException("Failed to add " + m_resourceName + "s: count=" + descriptors.size()
+										+ ", cause=" + e);
+		}
+		finally {
+			unlockAll(locks);
+		}
+	}
+
+	/**
+	 * 주어진 연결의 transaction 내에서 descriptor를 추가한다.
+	 * 변경 이벤트는 transaction의 결과를 알 수 없기 때문에 호출자가 발송하여야 한다.
+	 */
+	public void addDescriptor(Connection conn, String id, String json, D descriptor) throws SQLException {
+		String sqlStr = "insert into " + m_table + "(id, id_short, " + m_indexColumn + ", descriptor) "
+						+ "values (?, ?, ?, ?)";
+		try ( PreparedStatement pstmt = conn.prepareStatement(sqlStr) ) {
+			pstmt.setString(1, id);
+			pstmt.setString(2, getIdShort(descriptor));
+			pstmt.setString(3, getIndexValue(descriptor));
+			pstmt.setString(4, json);
+			pstmt.executeUpdate();
+		}
+		onWritten(conn, id, descriptor);
+	}
+
+	public D updateDescriptor(D descriptor) throws ResourceNotFoundException, RegistryException {
+		Preconditions.checkNotNull(descriptor);
+
+		String id = getId(descriptor);
+		String json = serialize(descriptor);
+		updateDescriptors(Map.of(id, json), Map.of(id, descriptor));
+
+		return descriptor;
+	}
+
+	/**
+	 * 주어진 descriptor들을 하나의 transaction으로 변경한다.
+	 * 등록되지 않은 descriptor가 포함된 경우는 어떠한 descriptor도 변경되지 않는다.
+	 */
+	public void updateDescriptors(List<D> descriptors) throws ResourceNotFoundException, RegistryException {
+		Map<String,String> jsons = Maps.newLinkedHashMap();
+		Map<String,D> descs = Maps.newLinkedHashMap();
+		for ( D desc: descriptors ) {
+			jsons.put(getId(desc), serialize(desc));
+			descs.put(getId(desc), desc);
+		}
+
+		updateDescriptors(jsons, descs);
+	}
+
+	/**
+	 * 주어진 연결의 transaction 내에서 descriptor를 변경한다.
+	 * 변경 이벤트는 transaction의 결과를 알 수 없기 때문에 호출자가 발송하여야 한다.
+	 *
+	 * @return	변경된 경우는 {@code true}, 등록되지 않은 descriptor인 경우는 {@code false}.
+	 */
+	public boolean updateDescriptor(Connection conn, String id, String json, D descriptor) throws SQLException {
+		String sqlStr = "update " + m_table + " set id_short = ?, " + m_indexColumn + " = ?, descriptor = ? "
+						+ "where id = ?";
+		try ( PreparedStatement pstmt = conn.prepareStatement(sqlStr) ) {
+			pstmt.setString(1, getIdShort(descriptor));
+			pstmt.setString(2, getIndexValue(descriptor));
+			pstmt.setString(3, json);
+			pstmt.setString(4, id);
+			if ( pstmt.executeUpdate() == 0 ) {
+				return false;
+			}
+		}
+		onWritten(conn, id, descriptor);
+		return true;
+	}
+
+	public void removeDescriptor(String id) throws ResourceNotFoundException, RegistryException {
+		Lock lock = m_locks.get(id);
+		lock.lock();
+		try ( Connection conn = m_jdbc.connect() ) {
+			if ( !removeDescriptor(conn, id) ) {
+				throw new ResourceNotFoundException(m_resourceName, id);
+			}
+			Globals.EVENT_BUS.post(DescriptorChangeEvent.REMOVED(m_resourceName, id));
+		}
+		catch ( SQLException e ) {
+			throw new RegistryException("Failed to remove " + m_resourceName + ": id=" + id + ", cause=" + e);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 주어진 연결의 transaction 내에서 descriptor를 삭제한다.
+	 * 부가 테이블의 레코드들은 외래키 제약에 의해 함께 삭제된다.
+	 *
+	 * @return	삭제된 경우는 {@code true}, 등록되지 않은 descriptor인 경우는 {@code false}.
+	 */
+	public boolean removeDescriptor(Connection conn, String id) throws SQLException {
+		try ( PreparedStatement pstmt = conn.prepareStatement("delete from " + m_table + " where id = ?") ) {
+			pstmt.setString(1, id);
+			return pstmt.executeUpdate() > 0;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[table=%s]", getClass().getSimpleName(), m_table);
+	}
+
+	/**
+	 * 주어진 descriptor들을 하나의 transaction으로 변경하고, commit된 경우 변경 이벤트를 발송한다.
+	 */
+	private void updateDescriptors(Map<String,String> jsons, Map<String,D> descs)
+		throws ResourceNotFoundException, RegistryException {
+		List<Lock> locks = lockAll(jsons.keySet());
+		try ( Connection conn = m_jdbc.connect() ) {
+			conn.setAutoCommit(false);
+			try {
+				for ( Map.Entry<String,String> ent: jsons.entrySet() ) {
+					String id = ent.getKey();
+					if ( !updateDescriptor(conn, id, ent.getValue(), descs.get(id)) ) {
+						throw new ResourceNotFoundException(m_resourceName, id);
+					}
+				}
+				conn.commit();
+			}
+			catch ( SQLException | RuntimeException e ) {
+				conn.rollback();
+				throw e;
+			}
+
+			for ( Map.Entry<String,String> ent: jsons.entrySet() ) {
+				Globals.EVENT_BUS.post(DescriptorChangeEvent.UPDATED(m_resourceName, ent.getKey(),
+																	ent.getValue()));
+			}
+		}
+		catch ( SQLException e ) {
+			throw new RegistryException("Failed to update " + m_resourceName + "s: ids=" + jsons.keySet()
+										+ ", cause=" + e);
+		}
+		finally {
+			unlockAll(locks);
+		}
+	}
+
+	private List<Lock> lockAll(Iterable<String> ids) {
+		// 교착 상태를 피하기 위해 Striped#bulkGet이 반환하는 일정한 순서로 lock들을 획득한다.
+		List<Lock> locks = Lists.newArrayList(m_locks.bulkGet(ids));
+		locks.forEach(Lock::lock);
+		return locks;
+	}
+
+	private static void unlockAll(List<Lock> locks) {
+		Lists.reverse(locks).forEach(Lock::unlock);
+	}
+
+	private PreparedStatement prepareSelect(Connection conn, String columns, @Nullable String idShort,
+											@Nullable String indexValue, @Nullable String lastId, int limit)
+		throws SQLException {
+		List<String> conds = Lists.newArrayList();
+		List<String> params = Lists.newArrayList();
+		if ( idShort != null ) {
+			conds.add("id_short = ?");
+			params.add(idShort);
+		}
+		if ( indexValue != null ) {
+			conds.add(m_indexColumn + " = ?");
+			params.add(indexValue);
+		}
+		if ( lastId != null ) {
+			conds.add("id > ?");
+			params.add(lastId);
+		}
+
+		String sqlStr = "select " + columns + " from " + m_table
+						+ (conds.isEmpty() ? "" : " where " + String.join(" and ", conds))
+						+ " order by id"
+						+ ((limit > 0) ? " limit " + limit : "");
+		PreparedStatement pstmt = conn.prepareStatement(sqlStr);
+		for ( int i = 0; i < params.size(); ++i ) {
+			pstmt.setString(i+1, params.get(i));
+		}
+		return pstmt;
+	}
+
+	private void writePage(List<String> jsons, @Nullable String cursor, OutputStream out) throws IOException {
+		out.write("{\"paging_metadata\":{".getBytes(StandardCharsets.UTF_8));
+		if ( cursor != null ) {
+			// cursor는 base64url 문자열이므로 JSON escape가 필요없다.
+			out.write(("\"cursor\":\"" + cursor + "\"").getBytes(StandardCharsets.UTF_8));
+		}
+		out.write("},\"result\":[".getBytes(StandardCharsets.UTF_8));
+		for ( int i = 0; i < jsons.size(); ++i ) {
+			if ( i > 0 ) {
+				out.write(',');
+			}
+			out.write(jsons.get(i).getBytes(StandardCharsets.UTF_8));
+		}
+		out.write("]}".getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String serialize(D descriptor) {
+		try {
+			return m_jsonSer.write(descriptor);
+		}
+		catch ( SerializationException e ) {
+			throw new RegistryException("Failed to serialize " + m_resourceName + ": id=" + getId(descriptor)
+										+ ", cause=" + e);
+		}
+	}
+}
@@ -0,0 +1,279 @@
+package mdt.registry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.DeserializationException;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonDeserializer;
+import org.eclipse.digitaltwin.aas4j.v3.model.AssetAdministrationShellDescriptor;
+import org.eclipse.digitaltwin.aas4j.v3.model.SpecificAssetId;
+
+import com.google.common.collect.Lists;
+
+import utils.jdbc.JdbcProcessor;
+
+import mdt.Page;
+import mdt.SortedKeyIndex;
+import mdt.model.registry.RegistryException;
+import mdt.model.registry.ResourceAlreadyExistsException;
+import mdt.model.registry.ResourceNotFoundException;
+
+
+/**
+ * AssetAdministrationShellDescriptor들을 JDBC (H2) 테이블에 저장하는 registry.
+ * <p>
+ * {@code globalAssetId}는 descriptor 테이블의 색인 컬럼에, {@code specificAssetIds}를 포함한
+ * 전체 AssetLink들은 별도의 {@value #TABLE_ASSET_LINKS} 테이블에 저장되어 discovery 검색에 사용된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class JdbcMDTAASRegistry extends JdbcDescriptorRegistry<AssetAdministrationShellDescriptor>
+								implements AssetAdministrationShellRegistryProvider {
+	public static final String TABLE = "aas_descriptors";
+	public static final String TABLE_ASSET_LINKS = "aas_asset_links";
+	private static final JsonDeserializer s_jsonDeser = new JsonDeserializer();
+
+	public JdbcMDTAASRegistry(JdbcProcessor jdbc) throws RegistryException {
+		super(jdbc, TABLE, "global_asset_id", AssetAdministrationShellDescriptor.class,
+				JdbcMDTAASRegistry::deserialize);
+
+		formatIfMissing();
+	}
+
+	@Override
+	public List<AssetAdministrationShellDescriptor> getAllAssetAdministrationShellDescriptors()
+		throws RegistryException {
+		return getAllDescriptors(null, null);
+	}
+
+	@Override
+	public AssetAdministrationShellDescriptor getAssetAdministrationShellDescriptorById(String aasId)
+														throws ResourceNotFoundException, RegistryException {
+		return deserialize(getJsonDescriptorById(aasId));
+	}
+
+	@Override
+	public String getJsonAssetAdministrationShellDescriptorById(String aasId) throws ResourceNotFoundException,
+																					RegistryException {
+		return getJsonDescriptorById(aasId);
+	}
+
+	@Override
+	public LazyDescriptor<AssetAdministrationShellDescriptor>
+	getLazyAssetAdministrationShellDescriptorById(String aasId) throws ResourceNotFoundException,
+																		RegistryException {
+		return getLazyDescriptorById(aasId);
+	}
+
+	@Override
+	public List<AssetAdministrationShellDescriptor>
+	getAllAssetAdministrationShellDescriptorsByIdShort(String idShort) throws RegistryException {
+		return getAllDescriptors(idShort, null);
+	}
+
+	@Override
+	public void writeAllJsonAssetAdministrationShellDescriptors(OutputStream out)
+		throws IOException, RegistryException {
+		writeJsonArray(null, null, out);
+	}
+
+	@Override
+	public void writeAllJsonAssetAdministrationShellDescriptorsByIdShort(String idShort, OutputStream out)
+		throws IOException, RegistryException {
+		writeJsonArray(idShort, null, out);
+	}
+
+	@Override
+	public void writeJsonAssetAdministrationShellDescriptorPage(String idShort, String cursor, int limit,
+																OutputStream out)
+		throws IOException, RegistryException {
+		writeJsonPage(idShort, null, cursor, limit, out);
+	}
+
+	@Override
+	public List<String> getAssetAdministrationShellIdsByAssetLinks(List<AssetLink> assetLinks)
+		throws RegistryException {
+		return Lists.newArrayList(findAssetAdministrationShellIds(assetLinks));
+	}
+
+	@Override
+	public Page<String> getAssetAdministrationShellIdPageByAssetLinks(List<AssetLink> assetLinks,
+																		String cursor, int limit)
+		throws RegistryException {
+		return SortedKeyIndex.getPage(findAssetAdministrationShellIds(assetLinks), cursor, limit);
+	}
+
+	private static final String SQL_GET_ASSET_LINKS = String.format(
+			"select link_name, link_value from %s where aas_id = ? order by link_name, link_value",
+			TABLE_ASSET_LINKS);
+	@Override
+	public List<AssetLink> getAssetLinksById(String aasId) throws ResourceNotFoundException, RegistryException {
+		if ( !existsDescriptor(aasId) ) {
+			throw new ResourceNotFoundException(m_resourceName, aasId);
+		}
+
+		try ( Connection conn = m_jdbc.connect();
+				PreparedStatement pstmt = conn.prepareStatement(SQL_GET_ASSET_LINKS) ) {
+			pstmt.setString(1, aasId);
+
+			List<AssetLink> links = Lists.newArrayList();
+			ResultSet rs = pstmt.executeQuery();
+			while ( rs.next() ) {
+				links.add(new AssetLink(rs.getString(1), rs.getString(2)));
+			}
+			return links;
+		}
+		catch ( SQLException e ) {
+			throw new RegistryException("Failed to get AssetLinks: aas_id=" + aasId + ", cause=" + e);
+		}
+	}
+
+	@Override
+	public AssetAdministrationShellDescriptor
+	addAssetAdministrationShellDescriptor(AssetAdministrationShellDescriptor descriptor)
+		throws ResourceAlreadyExistsException, RegistryException {
+		return addDescriptor(descriptor);
+	}
+
+	@Override
+	public List<BulkItemResult>
+	addAssetAdministrationShellDescriptors(List<AssetAdministrationShellDescriptor> descriptors)
+		throws RegistryException {
+		return addDescriptors(descriptors);
+	}
+
+	@Override
+	public AssetAdministrationShellDescriptor
+	updateAssetAdministrationShellDescriptorById(AssetAdministrationShellDescriptor descriptor)
+		throws ResourceNotFoundException, RegistryException {
+		return updateDescriptor(descriptor);
+	}
+
+	@Override
+	public void updateAssetAdministrationShellDescriptors(List<AssetAdministrationShellDescriptor> descriptors)
+		throws ResourceNotFoundException, RegistryException {
+		updateDescriptors(descriptors);
+	}
+
+	@Override
+	public void removeAssetAdministrationShellDescriptorById(String aasId)
+		throws ResourceNotFoundException, RegistryException {
+		removeDescriptor(aasId);
+	}
+
+	@Override
+	protected String getId(AssetAdministrationShellDescriptor descriptor) {
+		return descriptor.getId();
+	}
+
+	@Override
+	protected String getIdShort(AssetAdministrationShellDescriptor descriptor) {
+		return descriptor.getIdShort();
+	}
+
+	@Override
+	protected String getIndexValue(AssetAdministrationShellDescriptor descriptor) {
+		return descriptor.getGlobalAssetId();
+	}
+
+	@Override
+	protected void createTables(Connection conn) throws SQLException {
+		super.createTables(conn);
+
+		try ( Statement stmt = conn.createStatement() ) {
+			stmt.executeUpdate("create table " + TABLE_ASSET_LINKS + " ("
+								+ "aas_id varchar not null, "
+								+ "link_name varchar not null, "
+								+ "link_value varchar not null, "
+								+ "primary key (aas_id, link_name, link_value), "
+								+ "foreign key (aas_id) references " + TABLE + "(id) on delete cascade)");
+			stmt.executeUpdate("create index " + TABLE_ASSET_LINKS + "_idx on " + TABLE_ASSET_LINKS
+								+ "(link_name, link_value)");
+		}
+	}
+
+	private static final String SQL_DELETE_ASSET_LINKS = String.format("delete from %s where aas_id = ?",
+																		TABLE_ASSET_LINKS);
+	private static final String SQL_INSERT_ASSET_LINK = String.format(
+			"merge into %s(aas_id, link_name, link_value) values (?, ?, ?)", TABLE_ASSET_LINKS);
+	@Override
+	protected void onWritten(Connection conn, String id, AssetAdministrationShellDescriptor descriptor)
+		throws SQLException {
+		try ( PreparedStatement pstmt = conn.prepareStatement(SQL_DELETE_ASSET_LINKS) ) {
+			pstmt.setString(1, id);
+			pstmt.executeUpdate();
+		}
+		try ( PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT_ASSET_LINK) ) {
+			for ( AssetLink link: toAssetLinks(descriptor) ) {
+				pstmt.setString(1, id);
+				pstmt.setString(2, link.name());
+				pstmt.setString(3, link.value());
+				pstmt.addBatch();
+			}
+			pstmt.executeBatch();
+		}
+	}
+
+	/**
+	 * 주어진 AssetLink들을 모두 포함하는 AAS 식별자들을 찾는다.
+	 * AssetLink가 주어지지 않은 경우는 모든 AAS 식별자를 반환한다.
+	 */
+	private TreeSet<String> findAssetAdministrationShellIds(List<AssetLink> assetLinks) {
+		if ( assetLinks.isEmpty() ) {
+			return getAllDescriptorIds(null, null);
+		}
+
+		String select = "select aas_id from " + TABLE_ASSET_LINKS + " where link_name = ? and link_value = ?";
+		String sqlStr = String.join(" intersect ", Collections.nCopies(assetLinks.size(), select));
+		try ( Connection conn = m_jdbc.connect();
+				PreparedStatement pstmt = conn.prepareStatement(sqlStr) ) {
+			int idx = 1;
+			for ( AssetLink link: assetLinks ) {
+				pstmt.setString(idx++, link.name());
+				pstmt.setString(idx++, link.value());
+			}
+
+			TreeSet<String> ids = new TreeSet<>();
+			ResultSet rs = pstmt.executeQuery();
+			while ( rs.next() ) {
+				ids.add(rs.getString(1));
+			}
+			return ids;
+		}
+		catch ( SQLException e ) {
+			throw new RegistryException("Failed to find AAS ids: asset_links=" + assetLinks + ", cause=" + e);
+		}
+	}
+
+	private static List<AssetLink> toAssetLinks(AssetAdministrationShellDescriptor descriptor) {
+		List<AssetLink> links = Lists.newArrayList();
+		if ( descriptor.getGlobalAssetId() != null ) {
+			links.add(new AssetLink(AssetLink.GLOBAL_ASSET_ID, descriptor.getGlobalAssetId()));
+		}
+		if ( descriptor.getSpecificAssetIds() != null ) {
+			for ( SpecificAssetId assetId: descriptor.getSpecificAssetIds() ) {
+				if ( assetId.getName() != null && assetId.getValue() != null ) {
+					links.add(new AssetLink(assetId.getName(), assetId.getValue()));
+				}
+			}
+		}
+		return links;
+	}
+
+	private static AssetAdministrationShellDescriptor deserialize(String json) {
+		try {
+			return s_jsonDeser.read(json, AssetAdministrationShellDescriptor.class);
+		}
+		catch ( DeserializationException e ) {
+			throw new RegistryException("" + e);
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package mdt.registry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.DeserializationException;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonDeserializer;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelDescriptor;
+
+import com.google.common.base.Preconditions;
+
+import utils.jdbc.JdbcProcessor;
+
+import mdt.SemanticIds;
+import mdt.model.InternalException;
+import mdt.model.registry.RegistryException;
+import mdt.model.registry.ResourceAlreadyExistsException;
+import mdt.model.registry.ResourceNotFoundException;
+
+
+/**
+ * SubmodelDescriptor들을 JDBC (H2) 테이블에 저장하는 registry.
+ * <p>
+ * {@code semanticId}는 {@link SemanticIds}에 따라 색인 키로 변환되어 색인 컬럼에 저장된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class JdbcMDTSubmodelRegistry extends JdbcDescriptorRegistry<SubmodelDescriptor>
+									implements SubmodelRegistryProvider {
+	public static final String TABLE = "submodel_descriptors";
+	private static final JsonDeserializer s_jsonDeser = new JsonDeserializer();
+
+	public JdbcMDTSubmodelRegistry(JdbcProcessor jdbc) throws RegistryException {
+		super(jdbc, TABLE, "semantic_id", SubmodelDescriptor.class, JdbcMDTSubmodelRegistry::deserialize);
+
+		formatIfMissing();
+	}
+
+	@Override
+	public SubmodelDescriptor getSubmodelDescriptorById(String submodelId) throws ResourceNotFoundException,
+																					RegistryException {
+		return deserialize(getJsonDescriptorById(submodelId));
+	}
+
+	@Override
+	public String getJsonSubmodelDescriptorById(String submodelId) throws ResourceNotFoundException,
+																			RegistryException {
+		return getJsonDescriptorById(submodelId);
+	}
+
+	@Override
+	public LazyDescriptor<SubmodelDescriptor> getLazySubmodelDescriptorById(String submodelId)
+		throws ResourceNotFoundException, RegistryException {
+		return getLazyDescriptorById(submodelId);
+	}
+
+	@Override
+	public List<SubmodelDescriptor> getAllSubmodelDescriptors() throws RegistryException {
+		return getAllDescriptors(null, null);
+	}
+
+	@Override
+	public List<SubmodelDescriptor> getAllSubmodelDescriptorsByIdShort(String idShort) throws RegistryException {
+		return getAllDescriptors(idShort, null);
+	}
+
+	@Override
+	public void writeAllJsonSubmodelDescriptors(OutputStream out) throws IOException, RegistryException {
+		writeJsonArray(null, null, out);
+	}
+
+	@Override
+	public void writeAllJsonSubmodelDescriptorsByIdShort(String idShort, OutputStream out)
+		throws IOException, RegistryException {
+		writeJsonArray(idShort, null, out);
+	}
+
+	@Override
+	public void writeJsonSubmodelDescriptorPage(String idShort, String cursor, int limit, OutputStream out)
+		throws IOException, RegistryException {
+		writeJsonPage(idShort, null, cursor, limit, out);
+	}
+
+	@Override
+	public List<SubmodelDescriptor> getAllSubmodelDescriptorsBySemanticId(String semanticId)
+		throws RegistryException {
+		Preconditions.checkNotNull(semanticId, "SubmodelDescriptor semanticId");
+		return getAllDescriptors(null, semanticId);
+	}
+
+	@Override
+	public void writeAllJsonSubmodelDescriptorsBySemanticId(String semanticId, String idShort, OutputStream out)
+		throws IOException, RegistryException {
+		Preconditions.checkNotNull(semanticId, "SubmodelDescriptor semanticId");
+		writeJsonArray(idShort, semanticId, out);
+	}
+
+	@Override
+	public void writeJsonSubmodelDescriptorPageBySemanticId(String semanticId, String idShort, String cursor,
+															int limit, OutputStream out)
+		throws IOException, RegistryException {
+		Preconditions.checkNotNull(semanticId, "SubmodelDescriptor semanticId");
+		writeJsonPage(idShort, semanticId, cursor, limit, out);
+	}
+
+	@Override
+	public SubmodelDescriptor addSubmodelDescriptor(SubmodelDescriptor descriptor)
+		throws ResourceAlreadyExistsException, RegistryException {
+		return addDescriptor(descriptor);
+	}
+
+	@Override
+	public List<BulkItemResult> addSubmodelDescriptors(List<SubmodelDescriptor> descriptors)
+		throws RegistryException {
+		return addDescriptors(descriptors);
+	}
+
+	@Override
+	public SubmodelDescriptor updateSubmodelDescriptorById(SubmodelDescriptor descriptor)
+		throws ResourceNotFoundException, RegistryException {
+		return updateDescriptor(descriptor);
+	}
+
+	@Override
+	public void updateSubmodelDescriptors(List<SubmodelDescriptor> descriptors)
+		throws ResourceNotFoundException, RegistryException {
+		updateDescriptors(descriptors);
+	}
+
+	@Override
+	public void removeSubmodelDescriptorById(String submodelId) throws ResourceNotFoundException, RegistryException {
+		removeDescriptor(submodelId);
+	}
+
+	@Override
+	protected String getId(SubmodelDescriptor descriptor) {
+		return descriptor.getId();
+	}
+
+	@Override
+	protected String getIdShort(SubmodelDescriptor descriptor) {
+		return descriptor.getIdShort();
+	}
+
+	@Override
+	protected String getIndexValue(SubmodelDescriptor descriptor) {
+		List<String> keys = SemanticIds.toKeys(descriptor.getSemanticId());
+		return keys.isEmpty() ? null : keys.get(0);
+	}
+
+	private static SubmodelDescriptor deserialize(String json) {
+		try {
+			return s_jsonDeser.read(json, SubmodelDescriptor.class);
+		}
+		catch ( DeserializationException e ) {
+			throw new InternalException("" + e);
+		}
+	}
+}
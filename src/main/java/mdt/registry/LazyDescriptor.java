@@ -1,39 +1,126 @@
 package mdt.registry;
 
+import java.nio.charset.StandardCharsets;
 import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.google.common.hash.Hashing;
 
 import utils.func.Lazy;
 
+import mdt.model.registry.RegistryException;
+
 /**
  *
  * @author Kang-Woo Lee (ETRI)
  */
 public class LazyDescriptor<D> {
-	private final Lazy<D> m_descriptor;
+	/**
+	 * 역직렬화된 descriptor 객체가 차지하는 메모리 크기를 JSON 길이에 대한 배수로 추정한 값.
+	 * aas4j descriptor 객체는 문자열 필드와 다수의 작은 list/Reference 객체로 구성되기 때문에
+	 * 대략 JSON 길이의 수 배 정도의 heap을 사용한다.
+	 */
+	static final int DESERIALIZED_SIZE_FACTOR = 4;
+	private static final JsonMapper s_mapper = JsonMapper.builder().build();
+	
 	private final String m_jsonDescriptor;
-	private final Function<String,D> m_deser;
+	private final String m_etag;
+	private final Supplier<D> m_loader;
+	private final boolean m_retainsDescriptor;
 	
 	public LazyDescriptor(D desc, String jsonDesc) {
-		m_descriptor = Lazy.of(desc);
 		m_jsonDescriptor = jsonDesc;
-		m_deser = null;
+		m_etag = computeETag(jsonDesc);
+		m_loader = () -> desc;
+		m_retainsDescriptor = true;
 	}
 	
 	public LazyDescriptor(String jsonDesc, Function<String,D> deser) {
-		m_descriptor = Lazy.of(this::deserialize);
+		Lazy<D> lazy = Lazy.of(() -> deser.apply(jsonDesc));
+		
 		m_jsonDescriptor = jsonDesc;
-		m_deser = deser;
+		m_etag = computeETag(jsonDesc);
+		m_loader = lazy::get;
+		m_retainsDescriptor = true;
+	}
+	
+	/**
+	 * 역직렬화된 descriptor 객체를 보관하지 않는 descriptor를 생성한다.
+	 * <p>
+	 * {@link #get()}이 호출될 때마다 주어진 loader를 통해 descriptor 객체를 얻기 때문에,
+	 * 객체의 보관 여부는 loader가 결정한다.
+	 * 
+	 * @param jsonDesc	JSON descriptor.
+	 * @param etag		JSON descriptor의 entity tag.
+	 * @param loader	descriptor 객체 loader.
+	 */
+	LazyDescriptor(String jsonDesc, String etag, Supplier<D> loader) {
+		m_jsonDescriptor = jsonDesc;
+		m_etag = etag;
+		m_loader = loader;
+		m_retainsDescriptor = false;
 	}
 	
 	public String getJson() {
 		return m_jsonDescriptor;
 	}
 	
+	/**
+	 * Descriptor JSON의 내용 hash로 생성된 (strong) entity tag를 반환한다.
+	 * <p>
+	 * Entity tag는 descriptor 객체 생성시 한번만 계산되며, 따옴표를 포함한 HTTP {@code ETag} 헤더
+	 * 형식을 따른다. Hash는 JSON 서식 (공백, 들여쓰기 등)과 무관한 정규화된 JSON에 대해 계산되기 때문에
+	 * 저장 엔진의 인코딩에 따라 저장소에서 다시 읽은 JSON의 서식이 달라져도 같은 값을 갖는다.
+	 * 
+	 * @return	entity tag.
+	 */
+	public String getETag() {
+		return m_etag;
+	}
+	
+	/**
+	 * 이 descriptor가 heap에서 차지하는 대략적인 크기(byte)를 반환한다.
+	 * <p>
+	 * JSON 문자열 크기에 이 객체가 역직렬화된 descriptor 객체를 보관하는 경우는 그 추정 크기를
+	 * 합한 값이다. 아직 역직렬화되지 않은 경우라도 이후 역직렬화될 수 있는 것으로 보고
+	 * 객체 크기를 포함시킨다.
+	 * 
+	 * @return	추정 크기 (byte 단위).
+	 */
+	public long getEstimatedSize() {
+		long jsonSize = 2L * m_jsonDescriptor.length();
+		return m_retainsDescriptor ? jsonSize + estimateObjectSize(m_jsonDescriptor) : jsonSize;
+	}
+	
 	public D get() {
-		return m_descriptor.get();
+		return m_loader.get();
+	}
+	
+	static long estimateObjectSize(String json) {
+		return (long)DESERIALIZED_SIZE_FACTOR * json.length();
+	}
+	
+	/**
+	 * 주어진 JSON descriptor의 정규화된 형태에 대한 entity tag를 계산한다.
+	 *
+	 * @param json	JSON descriptor.
+	 * @return	entity tag.
+	 * @throws RegistryException	올바른 JSON이 아닌 경우.
+	 */
+	static String computeETag(String json) {
+		try {
+			return computeETag(s_mapper.readTree(json));
+		}
+		catch ( JsonProcessingException e ) {
+			throw new RegistryException("invalid JSON descriptor: cause=" + e.getOriginalMessage());
+		}
 	}
 	
-	private D deserialize() {
-		return m_deser.apply(m_jsonDescriptor);
+	static String computeETag(JsonNode tree) {
+		String canonical = tree.toString();
+		return "\"" + Hashing.farmHashFingerprint64().hashString(canonical, StandardCharsets.UTF_8) + "\"";
 	}
 }
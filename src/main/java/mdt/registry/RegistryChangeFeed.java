@@ -0,0 +1,278 @@
+package mdt.registry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.eventbus.Subscribe;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import mdt.Globals;
+import mdt.model.registry.RegistryException;
+
+
+/**
+ * AAS/Submodel registry의 descriptor 변경 내역을 일련번호와 함께 유지하는 변경 피드.
+ * <p>
+ * 변경 내역은 고정 크기의 in-memory ring에 보관되며, ring에서 이미 밀려난 일련번호 이후의
+ * 변경을 요청하는 클라이언트에게는 전체 descriptor snapshot을 제공한다.
+ * 일련번호는 프로세스 재시작시 다시 시작되기 때문에 매 기동마다 새로운 epoch을 부여하고,
+ * epoch이 다른 요청 역시 snapshot으로 응답한다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class RegistryChangeFeed implements MeterBinder {
+	private static final Logger s_logger = LoggerFactory.getLogger(RegistryChangeFeed.class);
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	private final AssetAdministrationShellRegistryProvider m_aasRegistry;
+	private final SubmodelRegistryProvider m_submodelRegistry;
+	private final String m_epoch = UUID.randomUUID().toString();
+
+	private final ReentrantLock m_lock = new ReentrantLock();
+	private final ChangeRecord[] m_ring;
+	private long m_lastSeq = 0;						// guarded by m_lock
+	private List<Runnable> m_waiters = Lists.newArrayList();	// guarded by m_lock
+
+	private final AtomicLong m_snapshotCount = new AtomicLong(0);
+	private volatile DistributionSummary m_lagSummary;
+
+	public RegistryChangeFeed(AssetAdministrationShellRegistryProvider aasRegistry,
+								SubmodelRegistryProvider submodelRegistry, int capacity) {
+		Preconditions.checkArgument(capacity > 0, "invalid change-feed capacity: " + capacity);
+
+		m_aasRegistry = aasRegistry;
+		m_submodelRegistry = submodelRegistry;
+		m_ring = new ChangeRecord[capacity];
+
+		Globals.EVENT_BUS.register(this);
+	}
+
+	public String getEpoch() {
+		return m_epoch;
+	}
+
+	public long getLastSequence() {
+		m_lock.lock();
+		try {
+			return m_lastSeq;
+		}
+		finally {
+			m_lock.unlock();
+		}
+	}
+
+	public int getCapacity() {
+		return m_ring.length;
+	}
+
+	@Subscribe
+	public void appendChange(DescriptorChangeEvent ev) {
+		List<Runnable> waiters;
+
+		m_lock.lock();
+		try {
+			long seq = ++m_lastSeq;
+			m_ring[(int)(seq % m_ring.length)] = new ChangeRecord(seq, ev.getResource(), ev.getType(),
+																	ev.getId(), ev.getJson());
+			waiters = m_waiters;
+			m_waiters = Lists.newArrayList();
+		}
+		finally {
+			m_lock.unlock();
+		}
+
+		for ( Runnable waiter: waiters ) {
+			try {
+				waiter.run();
+			}
+			catch ( Exception e ) {
+				s_logger.warn("failed to notify change-feed waiter, cause=" + e);
+			}
+		}
+	}
+
+	/**
+	 * 주어진 일련번호 이후의 변경 내역을 반환한다.
+	 * <p>
+	 * 요청한 일련번호 이후의 변경 내역 일부가 이미 ring에서 밀려났거나 epoch이 다른 경우는
+	 * 변경 내역 대신 전체 descriptor들의 snapshot을 반환한다.
+	 *
+	 * @param epoch	클라이언트가 알고 있는 epoch. 알지 못하는 경우는 {@code null}.
+	 * @param since	클라이언트가 마지막으로 반영한 일련번호.
+	 * @param limit	반환할 최대 변경 내역 갯수.
+	 * @return	변경 내역 또는 snapshot.
+	 */
+	public ChangeBatch getChanges(@Nullable String epoch, long since, int limit) {
+		Preconditions.checkArgument(limit > 0, "invalid limit: " + limit);
+
+		long lastSeq;
+		List<ChangeRecord> changes = Lists.newArrayList();
+		m_lock.lock();
+		try {
+			lastSeq = m_lastSeq;
+			long oldestSeq = Math.max(1, lastSeq - m_ring.length + 1);
+			boolean sameEpoch = epoch == null || m_epoch.equals(epoch);
+			if ( sameEpoch && since >= oldestSeq - 1 && since <= lastSeq ) {
+				for ( long seq = since + 1; seq <= lastSeq && changes.size() < limit; ++seq ) {
+					changes.add(m_ring[(int)(seq % m_ring.length)]);
+				}
+				recordLag(lastSeq - since);
+
+				return new ChangeBatch(m_epoch, lastSeq, false, changes, null);
+			}
+		}
+		finally {
+			m_lock.unlock();
+		}
+
+		// 일련번호를 먼저 확보한 뒤 snapshot을 생성하기 때문에, snapshot 생성 중 발생한 변경은
+		// snapshot에 포함될 수도 있고 다음 요청에서 다시 전달될 수도 있다.
+		// 변경 내역의 반영은 멱등적이므로 클라이언트 mirror의 일관성은 유지된다.
+		m_snapshotCount.incrementAndGet();
+		if ( s_logger.isInfoEnabled() ) {
+			s_logger.info("client fell behind the change-feed: since={}, last={}, sending snapshot", since, lastSeq);
+		}
+		return new ChangeBatch(m_epoch, lastSeq, true, List.of(), takeSnapshot());
+	}
+
+	/**
+	 * 주어진 일련번호 이후의 변경이 발생하면 호출될 listener를 등록한다.
+	 *
+	 * @param since		클라이언트가 마지막으로 반영한 일련번호.
+	 * @param listener	변경 발생시 호출될 listener.
+	 * @return	등록된 경우는 {@code true}. 이미 새로운 변경이 존재하는 경우는 등록하지 않고
+	 * 			{@code false}를 반환한다.
+	 */
+	public boolean addWaiter(long since, Runnable listener) {
+		m_lock.lock();
+		try {
+			if ( m_lastSeq != since ) {
+				return false;
+			}
+			m_waiters.add(listener);
+			return true;
+		}
+		finally {
+			m_lock.unlock();
+		}
+	}
+
+	public void removeWaiter(Runnable listener) {
+		m_lock.lock();
+		try {
+			m_waiters.remove(listener);
+		}
+		finally {
+			m_lock.unlock();
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("mdt.registry.changes.last_seq", this, RegistryChangeFeed::getLastSequence)
+				.description("the last sequence number of the registry change-feed")
+				.register(registry);
+		Gauge.builder("mdt.registry.changes.waiters", this, feed -> feed.getWaiterCount())
+				.description("the number of long-polling change-feed clients")
+				.register(registry);
+		FunctionCounter.builder("mdt.registry.changes.snapshots", m_snapshotCount, AtomicLong::get)
+				.description("the number of snapshots sent to clients that fell behind the change-feed")
+				.register(registry);
+		m_lagSummary = DistributionSummary.builder("mdt.registry.changes.lag")
+				.description("the number of changes a client is behind at the time of its request")
+				.baseUnit("changes")
+				.register(registry);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[epoch=%s, last=%d, capacity=%d]", getClass().getSimpleName(),
+								m_epoch, getLastSequence(), m_ring.length);
+	}
+
+	private int getWaiterCount() {
+		m_lock.lock();
+		try {
+			return m_waiters.size();
+		}
+		finally {
+			m_lock.unlock();
+		}
+	}
+
+	private void recordLag(long lag) {
+		DistributionSummary summary = m_lagSummary;
+		if ( summary != null ) {
+			summary.record(lag);
+		}
+	}
+
+	private Snapshot takeSnapshot() {
+		try {
+			ByteArrayOutputStream aasOut = new ByteArrayOutputStream();
+			m_aasRegistry.writeAllJsonAssetAdministrationShellDescriptors(aasOut);
+			ByteArrayOutputStream smOut = new ByteArrayOutputStream();
+			m_submodelRegistry.writeAllJsonSubmodelDescriptors(smOut);
+
+			return new Snapshot(aasOut.toString(StandardCharsets.UTF_8), smOut.toString(StandardCharsets.UTF_8));
+		}
+		catch ( IOException e ) {
+			throw new RegistryException("Failed to take a registry snapshot, cause=" + e);
+		}
+	}
+
+	@Getter
+	@AllArgsConstructor
+	@JsonPropertyOrder({"seq", "resource", "type", "id", "descriptor"})
+	@JsonInclude(Include.NON_NULL)
+	public static final class ChangeRecord {
+		@JsonProperty("seq") private long seq;
+		@JsonProperty("resource") private String resource;
+		@JsonProperty("type") private DescriptorChangeEvent.Type type;
+		@JsonProperty("id") private String id;
+		@JsonRawValue @JsonProperty("descriptor") private String descriptor;
+	}
+
+	@Getter
+	@AllArgsConstructor
+	@JsonPropertyOrder({"epoch", "last_seq", "reset", "changes", "snapshot"})
+	@JsonInclude(Include.NON_NULL)
+	public static final class ChangeBatch {
+		@JsonProperty("epoch") private String epoch;
+		@JsonProperty("last_seq") private long lastSeq;
+		@JsonProperty("reset") private boolean reset;
+		@JsonProperty("changes") private List<ChangeRecord> changes;
+		@Nullable @JsonProperty("snapshot") private Snapshot snapshot;
+	}
+
+	@Getter
+	@AllArgsConstructor
+	@JsonPropertyOrder({"shells", "submodels"})
+	public static final class Snapshot {
+		@JsonRawValue @JsonProperty("shells") private String shells;
+		@JsonRawValue @JsonProperty("submodels") private String submodels;
+	}
+}
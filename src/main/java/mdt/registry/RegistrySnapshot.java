@@ -0,0 +1,242 @@
+package mdt.registry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.digitaltwin.aas4j.v3.model.AssetAdministrationShellDescriptor;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import mdt.model.registry.RegistryException;
+import mdt.model.registry.ResourceNotFoundException;
+import mdt.registry.BulkItemResult.Status;
+
+
+/**
+ * AAS/Submodel registry 전체를 하나의 압축 archive (ZIP)로 내보내거나 가져오는 기능을 제공한다.
+ * <p>
+ * Archive는 다음 entry들로 구성된다.
+ * <ul>
+ * 	<li>{@value #ENTRY_MANIFEST}: 생성 시각과 부가 정보.
+ * 	<li>{@value #ENTRY_SHELLS}: 모든 AssetAdministrationShellDescriptor의 JSON 배열.
+ * 	<li>{@value #ENTRY_SUBMODELS}: 모든 SubmodelDescriptor의 JSON 배열.
+ * </ul>
+ * 내보내기는 저장된 JSON을 역직렬화 없이 archive로 바로 출력하며, 가져오기는 각 entry를
+ * 점진적으로 파싱하면서 {@link BulkDescriptorReader}를 통해 일괄 등록한다.
+ * 내보내기 도중 발생한 변경은 archive에 포함될 수도 있고 포함되지 않을 수도 있다. 정확한 시점의
+ * 상태가 필요한 경우는 manifest에 기록된 변경 피드 일련번호 이후의 변경을 추가로 반영한다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class RegistrySnapshot {
+	private static final Logger s_logger = LoggerFactory.getLogger(RegistrySnapshot.class);
+
+	public static final String ENTRY_MANIFEST = "manifest.json";
+	public static final String ENTRY_SHELLS = "shells.json";
+	public static final String ENTRY_SUBMODELS = "submodels.json";
+	public static final int FORMAT_VERSION = 1;
+	private static final JsonMapper s_mapper = JsonMapper.builder().build();
+	private static final int BATCH_SIZE = BulkDescriptorReader.DEFAULT_BATCH_SIZE;
+
+	private final AssetAdministrationShellRegistryProvider m_aasRegistry;
+	private final SubmodelRegistryProvider m_submodelRegistry;
+
+	public RegistrySnapshot(AssetAdministrationShellRegistryProvider aasRegistry,
+							SubmodelRegistryProvider submodelRegistry) {
+		m_aasRegistry = aasRegistry;
+		m_submodelRegistry = submodelRegistry;
+	}
+
+	/**
+	 * Registry 전체를 archive 형태로 출력한다. 출력 스트림은 닫지 않는다.
+	 *
+	 * @param extra	manifest에 추가로 기록할 정보. 없는 경우는 {@code null}.
+	 * @param out	출력 스트림.
+	 * @throws IOException	출력 중 오류가 발생된 경우.
+	 */
+	public void export(@Nullable Map<String,Object> extra, OutputStream out) throws IOException {
+		Map<String,Object> manifest = Maps.newLinkedHashMap();
+		manifest.put("version", FORMAT_VERSION);
+		manifest.put("created", Instant.now().toString());
+		if ( extra != null ) {
+			manifest.putAll(extra);
+		}
+
+		ZipOutputStream zos = new ZipOutputStream(out, StandardCharsets.UTF_8);
+		zos.setLevel(Deflater.BEST_SPEED);
+
+		zos.putNextEntry(new ZipEntry(ENTRY_MANIFEST));
+		zos.write(s_mapper.writeValueAsBytes(manifest));
+		zos.closeEntry();
+
+		zos.putNextEntry(new ZipEntry(ENTRY_SHELLS));
+		m_aasRegistry.writeAllJsonAssetAdministrationShellDescriptors(zos);
+		zos.closeEntry();
+
+		zos.putNextEntry(new ZipEntry(ENTRY_SUBMODELS));
+		m_submodelRegistry.writeAllJsonSubmodelDescriptors(zos);
+		zos.closeEntry();
+
+		// 출력 스트림을 닫지 않고 ZIP 종료 레코드만 기록한다.
+		zos.finish();
+		zos.flush();
+	}
+
+	/**
+	 * Archive에 포함된 descriptor들을 registry에 등록한다.
+	 * <p>
+	 * 이미 등록된 식별자의 descriptor는 변경하지 않고 건너뛴다.
+	 *
+	 * @param in	archive 입력 스트림.
+	 * @return	가져오기 결과.
+	 * @throws IOException	입력 중 오류가 발생된 경우.
+	 * @throws RegistryException	등록 중 오류가 발생된 경우.
+	 */
+	public ImportSummary importFrom(InputStream in) throws IOException, RegistryException {
+		return importFrom(in, false);
+	}
+
+	/**
+	 * Archive에 포함된 descriptor들을 registry에 등록한다.
+	 *
+	 * @param in		archive 입력 스트림.
+	 * @param replace	이미 등록된 식별자의 descriptor를 archive의 descriptor로 교체할지 여부.
+	 * 					{@code false}인 경우는 변경하지 않고 건너뛴다.
+	 * @return	가져오기 결과.
+	 * @throws IOException	입력 중 오류가 발생된 경우.
+	 * @throws RegistryException	등록 중 오류가 발생된 경우.
+	 */
+	public ImportSummary importFrom(InputStream in, boolean replace) throws IOException, RegistryException {
+		Function<List<AssetAdministrationShellDescriptor>,List<BulkItemResult>> shellAdder
+												= m_aasRegistry::addAssetAdministrationShellDescriptors;
+		Function<List<SubmodelDescriptor>,List<BulkItemResult>> submodelAdder
+												= m_submodelRegistry::addSubmodelDescriptors;
+		if ( replace ) {
+			shellAdder = replacing(shellAdder, descs -> {
+				try {
+					m_aasRegistry.updateAssetAdministrationShellDescriptors(descs);
+				}
+				catch ( ResourceNotFoundException e ) {
+					throw new RegistryException("Failed to replace AssetAdministrationShellDescriptors, "
+												+ "cause=" + e);
+				}
+			});
+			submodelAdder = replacing(submodelAdder, descs -> {
+				try {
+					m_submodelRegistry.updateSubmodelDescriptors(descs);
+				}
+				catch ( ResourceNotFoundException e ) {
+					throw new RegistryException("Failed to replace SubmodelDescriptors, cause=" + e);
+				}
+			});
+		}
+
+		Counts shells = Counts.EMPTY;
+		Counts submodels = Counts.EMPTY;
+
+		ZipInputStream zis = new ZipInputStream(in, StandardCharsets.UTF_8);
+		ZipEntry entry;
+		while ( (entry = zis.getNextEntry()) != null ) {
+			switch ( entry.getName() ) {
+				case ENTRY_SHELLS:
+					shells = Counts.of(new BulkDescriptorReader<>(AssetAdministrationShellDescriptor.class,
+												shellAdder, BATCH_SIZE).read(zis));
+					break;
+				case ENTRY_SUBMODELS:
+					submodels = Counts.of(new BulkDescriptorReader<>(SubmodelDescriptor.class,
+												submodelAdder, BATCH_SIZE).read(zis));
+					break;
+				case ENTRY_MANIFEST:
+					break;
+				default:
+					s_logger.warn("ignore unknown registry snapshot entry: {}", entry.getName());
+					break;
+			}
+			zis.closeEntry();
+		}
+
+		ImportSummary summary = new ImportSummary(shells, submodels);
+		if ( s_logger.isInfoEnabled() ) {
+			s_logger.info("imported registry snapshot: {}", summary);
+		}
+		return summary;
+	}
+
+	/**
+	 * 주어진 일괄 등록 함수가 이미 등록되어 있다고 보고한 descriptor들을 교체하도록 확장한다.
+	 */
+	private static <T> Function<List<T>,List<BulkItemResult>>
+	replacing(Function<List<T>,List<BulkItemResult>> adder, Consumer<List<T>> updater) {
+		return batch -> {
+			List<BulkItemResult> results = Lists.newArrayList(adder.apply(batch));
+
+			// 일괄 등록 함수는 batch 순서대로 결과를 반환한다.
+			List<T> existings = Lists.newArrayList();
+			List<Integer> slots = Lists.newArrayList();
+			for ( int i = 0; i < results.size(); ++i ) {
+				if ( results.get(i).status() == Status.CONFLICT ) {
+					existings.add(batch.get(i));
+					slots.add(i);
+				}
+			}
+			if ( !existings.isEmpty() ) {
+				updater.accept(existings);
+				for ( int slot: slots ) {
+					results.set(slot, BulkItemResult.replaced(results.get(slot).id()));
+				}
+			}
+			return results;
+		};
+	}
+
+	/**
+	 * 가져오기 결과.
+	 *
+	 * @param shells	AssetAdministrationShellDescriptor 처리 결과.
+	 * @param submodels	SubmodelDescriptor 처리 결과.
+	 */
+	public static record ImportSummary(@JsonProperty("shells") Counts shells,
+										@JsonProperty("submodels") Counts submodels) { }
+
+	/**
+	 * 처리 결과별 descriptor 갯수.
+	 */
+	public static record Counts(@JsonProperty("created") int created,
+								@JsonProperty("replaced") int replaced,
+								@JsonProperty("conflicts") int conflicts,
+								@JsonProperty("invalid") int invalid) {
+		static final Counts EMPTY = new Counts(0, 0, 0, 0);
+
+		static Counts of(List<BulkItemResult> results) {
+			int created = 0, replaced = 0, conflicts = 0, invalid = 0;
+			for ( BulkItemResult result: results ) {
+				switch ( result.status() ) {
+					case CREATED: ++created; break;
+					case REPLACED: ++replaced; break;
+					case CONFLICT: ++conflicts; break;
+					case INVALID: ++invalid; break;
+				}
+			}
+			return new Counts(created, replaced, conflicts, invalid);
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package mdt.registry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+
+/**
+ * 서버가 동작하지 않는 상태에서 파일 기반 registry 저장 디렉토리를 대상으로 snapshot archive를
+ * 내보내거나 가져오는 명령행 도구.
+ * <pre>
+ * RegistrySnapshotTool [options] export &lt;shells-dir&gt; &lt;submodels-dir&gt; &lt;archive&gt;
+ * RegistrySnapshotTool [options] import &lt;archive&gt; &lt;shells-dir&gt; &lt;submodels-dir&gt;
+ *
+ * options:
+ *   --storage=&lt;file|segment-log&gt;	저장 엔진 종류 (기본값: file)
+ *   --encoding=&lt;json|smile&gt;		descriptor 인코딩 (기본값: json)
+ *   --replace					가져오기시 이미 등록된 descriptor를 archive의 것으로 교체
+ * </pre>
+ * 저장 엔진 종류와 인코딩은 서버의 {@code registry.aas.*}, {@code registry.submodel.*} 설정과 동일하게
+ * 지정해야 한다. {@code --replace}를 지정하지 않은 가져오기는 이미 등록된 식별자의 descriptor를
+ * 변경하지 않고 건너뛴다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class RegistrySnapshotTool {
+	private static final long CACHE_CAPACITY = 16L * 1024 * 1024;
+	private static final long PARSED_CACHE_CAPACITY = 4L * 1024 * 1024;
+
+	public static void main(String... args) throws Exception {
+		String storage = DescriptorStorageFactory.STORAGE_FILE;
+		String encoding = DescriptorStorageFactory.ENCODING_JSON;
+		boolean replace = false;
+
+		int idx = 0;
+		for ( ; idx < args.length && args[idx].startsWith("--"); ++idx ) {
+			String opt = args[idx];
+			if ( opt.startsWith("--storage=") ) {
+				storage = opt.substring("--storage=".length());
+			}
+			else if ( opt.startsWith("--encoding=") ) {
+				encoding = opt.substring("--encoding=".length());
+			}
+			else if ( opt.equals("--replace") ) {
+				replace = true;
+			}
+			else {
+				System.err.println("unknown option: " + opt);
+				usage();
+				System.exit(1);
+			}
+		}
+		args = Arrays.copyOfRange(args, idx, args.length);
+		if ( args.length != 4 ) {
+			usage();
+			System.exit(1);
+		}
+
+		boolean export;
+		File archive, shellsDir, submodelsDir;
+		switch ( args[0] ) {
+			case "export":
+				export = true;
+				shellsDir = new File(args[1]);
+				submodelsDir = new File(args[2]);
+				archive = new File(args[3]);
+				break;
+			case "import":
+				export = false;
+				archive = new File(args[1]);
+				shellsDir = new File(args[2]);
+				submodelsDir = new File(args[3]);
+				break;
+			default:
+				usage();
+				System.exit(1);
+				return;
+		}
+
+		CachingFileMDTAASRegistry aasRegistry
+							= new CachingFileMDTAASRegistry(openStorage(shellsDir, storage, encoding),
+															CACHE_CAPACITY, PARSED_CACHE_CAPACITY);
+		CachingFileMDTSubmodelRegistry smRegistry
+							= new CachingFileMDTSubmodelRegistry(openStorage(submodelsDir, storage, encoding),
+																CACHE_CAPACITY, PARSED_CACHE_CAPACITY);
+		try {
+			RegistrySnapshot snapshot = new RegistrySnapshot(aasRegistry, smRegistry);
+			if ( export ) {
+				try ( OutputStream out = new BufferedOutputStream(new FileOutputStream(archive)) ) {
+					snapshot.export(null, out);
+				}
+			}
+			else {
+				try ( InputStream in = new BufferedInputStream(new FileInputStream(archive)) ) {
+					System.out.println(snapshot.importFrom(in, replace));
+				}
+			}
+		}
+		finally {
+			aasRegistry.close();
+			smRegistry.close();
+		}
+	}
+
+	private static DescriptorStorage openStorage(File dir, String storage, String encoding)
+		throws IOException {
+		dir.mkdirs();
+		return DescriptorStorageFactory.create(dir, storage, encoding,
+												SegmentLogDescriptorStorage.DEFAULT_SEGMENT_SIZE);
+	}
+
+	private static void usage() {
+		String name = RegistrySnapshotTool.class.getSimpleName();
+		System.err.printf("usage: %s [options] export <shells-dir> <submodels-dir> <archive>%n", name);
+		System.err.printf("       %s [options] import <archive> <shells-dir> <submodels-dir>%n", name);
+		System.err.printf("options:%n");
+		System.err.printf("  --storage=<file|segment-log>  registry storage type (default: file)%n");
+		System.err.printf("  --encoding=<json|smile>       descriptor encoding (default: json)%n");
+		System.err.printf("  --replace                     replace existing descriptors on import%n");
+	}
+}
@@ -0,0 +1,745 @@
+package mdt.registry;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import utils.stream.FStream;
+
+
+/**
+ * Descriptor 변경을 segment 파일에 순차적으로 추가(append)하는 로그 구조 저장 엔진.
+ * <p>
+ * 각 descriptor의 최신 레코드 위치는 메모리 내 색인으로 관리되며, 시작 시 segment 파일의
+ * 레코드들을 순서대로 읽어 checksum을 확인하고 색인을 재구성한다. 더 이상 참조되지 않는 레코드의 비율이
+ * 일정 수준을 넘는 segment는 백그라운드에서 compaction된다. Compaction된 segment는 같은 순번의 파일로
+ * 교체되므로 segment 간의 레코드 순서는 유지된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class SegmentLogDescriptorStorage implements DescriptorStorage {
+	private static final Logger s_logger = LoggerFactory.getLogger(SegmentLogDescriptorStorage.class);
+
+	public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+	public static final double DEFAULT_COMPACTION_THRESHOLD = 0.5;
+	private static final Duration COMPACTION_INTERVAL = Duration.ofMinutes(1);
+
+	private static final String SEGMENT_SUFFIX = ".seg";
+	private static final String COMPACTING_SUFFIX = ".compacting";
+	private static final int MAGIC = 0x4D445452;	// "MDTR"
+	private static final byte OP_PUT = 1;
+	private static final byte OP_DELETE = 2;
+	// magic(4) + op(1) + key_length(4) + value_length(4) + crc32(4)
+	private static final int HEADER_SIZE = 17;
+
+	private final File m_rootDir;
+	private final long m_maxSegmentSize;
+	private final double m_compactionThreshold;
+	private final ReadWriteLock m_rwLock = new ReentrantReadWriteLock();
+	private final Map<String,Location> m_index = Maps.newHashMap();
+	private final TreeMap<Integer,Segment> m_segments = new TreeMap<>();
+	private Segment m_active;
+	private final ScheduledExecutorService m_compactor;
+
+	public SegmentLogDescriptorStorage(File rootDir) throws IOException {
+		this(rootDir, DEFAULT_SEGMENT_SIZE, DEFAULT_COMPACTION_THRESHOLD);
+	}
+
+	public SegmentLogDescriptorStorage(File rootDir, long maxSegmentSize, double compactionThreshold)
+		throws IOException {
+		Preconditions.checkArgument(maxSegmentSize > HEADER_SIZE, "invalid segment size: " + maxSegmentSize);
+		Preconditions.checkArgument(compactionThreshold > 0 && compactionThreshold <= 1,
+									"invalid compaction threshold: " + compactionThreshold);
+
+		m_rootDir = rootDir;
+		m_maxSegmentSize = maxSegmentSize;
+		m_compactionThreshold = compactionThreshold;
+
+		Files.createDirectories(rootDir.toPath());
+		recover();
+
+		m_compactor = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "segment-compactor[" + rootDir.getName() + "]");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long interval = COMPACTION_INTERVAL.toMillis();
+		m_compactor.scheduleWithFixedDelay(this::compactQuietly, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public File getRootDir() {
+		return m_rootDir;
+	}
+
+	@Override
+	public Set<String> getIdAll() throws IOException {
+		m_rwLock.readLock().lock();
+		try {
+			return Set.copyOf(m_index.keySet());
+		}
+		finally {
+			m_rwLock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Optional<byte[]> get(String id) throws IOException {
+		m_rwLock.readLock().lock();
+		try {
+			Location loc = m_index.get(id);
+			if ( loc == null ) {
+				return Optional.empty();
+			}
+			return Optional.of(readValue(loc));
+		}
+		finally {
+			m_rwLock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean exists(String id) throws IOException {
+		m_rwLock.readLock().lock();
+		try {
+			return m_index.containsKey(id);
+		}
+		finally {
+			m_rwLock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean insert(String id, byte[] value) throws IOException {
+		m_rwLock.writeLock().lock();
+		try {
+			if ( m_index.containsKey(id) ) {
+				return false;
+			}
+			applyPut(id, append(OP_PUT, id, value));
+			return true;
+		}
+		finally {
+			m_rwLock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public Set<String> insertAll(Map<String,byte[]> values) throws IOException {
+		m_rwLock.writeLock().lock();
+		try {
+			Set<String> existing = Sets.newHashSet();
+			Map<String,byte[]> inserteds = Maps.newLinkedHashMap();
+			for ( Map.Entry<String,byte[]> ent: values.entrySet() ) {
+				if ( m_index.containsKey(ent.getKey()) ) {
+					existing.add(ent.getKey());
+				}
+				else {
+					inserteds.put(ent.getKey(), ent.getValue());
+				}
+			}
+
+			if ( !inserteds.isEmpty() ) {
+				for ( Location loc: appendAll(inserteds) ) {
+					applyPut(loc.m_id, loc);
+				}
+			}
+			return existing;
+		}
+		finally {
+			m_rwLock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean update(String id, byte[] value) throws IOException {
+		m_rwLock.writeLock().lock();
+		try {
+			if ( !m_index.containsKey(id) ) {
+				return false;
+			}
+			applyPut(id, append(OP_PUT, id, value));
+			return true;
+		}
+		finally {
+			m_rwLock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean updateAll(Map<String,byte[]> values) throws IOException {
+		m_rwLock.writeLock().lock();
+		try {
+			if ( !m_index.keySet().containsAll(values.keySet()) ) {
+				return false;
+			}
+			for ( Location loc: appendAll(values) ) {
+				applyPut(loc.m_id, loc);
+			}
+			return true;
+		}
+		finally {
+			m_rwLock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean remove(String id) throws IOException {
+		m_rwLock.writeLock().lock();
+		try {
+			if ( !m_index.containsKey(id) ) {
+				return false;
+			}
+			applyDelete(id, append(OP_DELETE, id, null));
+			return true;
+		}
+		finally {
+			m_rwLock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		m_compactor.shutdown();
+
+		m_rwLock.writeLock().lock();
+		try {
+			for ( Segment seg: m_segments.values() ) {
+				seg.m_channel.force(true);
+				seg.m_channel.close();
+			}
+		}
+		finally {
+			m_rwLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 불필요한 레코드 비율이 기준 값 이상인 segment들을 compaction한다.
+	 * <p>
+	 * 현재 쓰기 중인 segment는 compaction 대상에서 제외된다. 여러 호출자의 compaction은 서로 직렬화된다.
+	 *
+	 * @throws IOException	compaction 중 오류가 발생된 경우.
+	 */
+	public synchronized void compact() throws IOException {
+		List<Segment> candidates;
+		m_rwLock.readLock().lock();
+		try {
+			candidates = FStream.from(m_segments.values())
+								.filter(seg -> seg != m_active)
+								.filter(seg -> seg.getGarbageRatio() >= m_compactionThreshold)
+								.toList();
+		}
+		finally {
+			m_rwLock.readLock().unlock();
+		}
+
+		for ( Segment seg: candidates ) {
+			compact(seg);
+		}
+	}
+
+	@Override
+	public String toString() {
+		m_rwLock.readLock().lock();
+		try {
+			return String.format("%s[%s]: segments=%d, descriptors=%d", getClass().getSimpleName(),
+									m_rootDir, m_segments.size(), m_index.size());
+		}
+		finally {
+			m_rwLock.readLock().unlock();
+		}
+	}
+
+	private void compactQuietly() {
+		try {
+			compact();
+		}
+		catch ( Exception e ) {
+			s_logger.warn("failed to compact segments: dir={}, cause={}", m_rootDir, e.toString());
+		}
+	}
+
+	/**
+	 * 주어진 segment에서 유효한 레코드들만 새 파일에 복사한 뒤, 같은 순번의 segment로 교체한다.
+	 * <p>
+	 * 레코드 복사는 lock 없이 수행되며, 복사 도중 변경된 레코드는 이후 색인을 교체할 때 제외된다.
+	 * 쓰기 lock은 색인 교체와 segment 파일 교체 동안만 획득한다.
+	 */
+	private void compact(Segment seg) throws IOException {
+		List<Location> records = Lists.newArrayList();
+		Set<String> deletedIds = Sets.newHashSet();
+		long pos = 0;
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while ( pos < seg.m_size ) {
+			Location loc = readLocation(seg, pos, header);
+			if ( loc == null ) {
+				// 손상된 레코드 이후의 내용을 옮길 수 없으므로 segment를 교체하지 않는다.
+				throw new IOException("corrupted segment: file=" + seg.m_file + ", offset=" + pos);
+			}
+			records.add(loc);
+			if ( loc.m_op == OP_DELETE ) {
+				deletedIds.add(loc.m_id);
+			}
+			pos += loc.getLength();
+		}
+
+		// 삭제 레코드(tombstone)는 더 오래된 segment의 PUT 레코드를 가리는 경우에만 유지한다.
+		Set<String> shadowingIds = findPutIds(getOlderSegments(seg), deletedIds);
+
+		File tmpFile = new File(m_rootDir, seg.m_file.getName() + COMPACTING_SUFFIX);
+		List<Location> copieds = Lists.newArrayList();
+		List<Long> offsets = Lists.newArrayList();
+		int nmoves = 0;
+		try {
+			try ( FileChannel out = FileChannel.open(tmpFile.toPath(), StandardOpenOption.CREATE,
+													StandardOpenOption.TRUNCATE_EXISTING,
+													StandardOpenOption.WRITE) ) {
+				long offset = 0;
+				for ( Location loc: records ) {
+					boolean live = (loc.m_op == OP_PUT) ? isCurrent(loc) : shadowingIds.contains(loc.m_id);
+					if ( live ) {
+						byte[] record = readBytes(seg.m_channel, loc.m_offset, loc.getLength());
+						ByteBuffer buf = ByteBuffer.wrap(record);
+						while ( buf.hasRemaining() ) {
+							out.write(buf, offset + buf.position());
+						}
+						copieds.add(loc);
+						offsets.add(offset);
+						offset += loc.getLength();
+					}
+				}
+				out.force(true);
+			}
+
+			m_rwLock.writeLock().lock();
+			try {
+				if ( copieds.isEmpty() ) {
+					m_segments.remove(seg.m_seqNo);
+					seg.m_channel.close();
+					Files.deleteIfExists(seg.m_file.toPath());
+				}
+				else {
+					Files.move(tmpFile.toPath(), seg.m_file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+								StandardCopyOption.ATOMIC_MOVE);
+					Segment compacted = new Segment(seg.m_seqNo, seg.m_file);
+					for ( int i = 0; i < copieds.size(); ++i ) {
+						Location from = copieds.get(i);
+						Location to = new Location(compacted, offsets.get(i), from.m_op, from.m_id,
+													from.m_keyLength, from.m_valueLength, from.m_crc);
+						if ( from.m_op == OP_PUT && isIndexed(from) ) {
+							m_index.put(from.m_id, to);
+							++nmoves;
+						}
+						else {
+							// 복사 이후 변경/삭제된 레코드와 유지된 tombstone
+							compacted.m_garbage += to.getLength();
+						}
+					}
+					m_segments.put(seg.m_seqNo, compacted);
+					seg.m_channel.close();
+				}
+			}
+			finally {
+				m_rwLock.writeLock().unlock();
+			}
+		}
+		finally {
+			Files.deleteIfExists(tmpFile.toPath());
+		}
+		syncDirectory();
+
+		if ( s_logger.isInfoEnabled() ) {
+			s_logger.info("compacted segment: file={}, moved={}, kept_garbage={}", seg.m_file, nmoves,
+							copieds.size() - nmoves);
+		}
+	}
+
+	private boolean isCurrent(Location loc) {
+		m_rwLock.readLock().lock();
+		try {
+			return isIndexed(loc);
+		}
+		finally {
+			m_rwLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 주어진 레코드가 해당 식별자의 최신 레코드로 색인되어 있는지 확인한다. 호출자는 lock을 획득하여야 한다.
+	 */
+	private boolean isIndexed(Location loc) {
+		Location current = m_index.get(loc.m_id);
+		return current != null && current.m_segment == loc.m_segment && current.m_offset == loc.m_offset;
+	}
+
+	private List<Segment> getOlderSegments(Segment seg) {
+		m_rwLock.readLock().lock();
+		try {
+			return List.copyOf(m_segments.headMap(seg.m_seqNo).values());
+		}
+		finally {
+			m_rwLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 주어진 segment들에 PUT 레코드가 존재하는 식별자들을 반환한다.
+	 * <p>
+	 * 레코드의 값은 읽지 않고 헤더와 식별자만 읽는다. 레코드의 경계를 알 수 없는 segment가 있는 경우는
+	 * 주어진 모든 식별자의 PUT 레코드가 존재하는 것으로 간주한다.
+	 */
+	private static Set<String> findPutIds(List<Segment> segments, Set<String> ids) throws IOException {
+		Set<String> found = Sets.newHashSet();
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		for ( Segment seg: segments ) {
+			long pos = 0;
+			while ( found.size() < ids.size() && pos + HEADER_SIZE <= seg.m_size ) {
+				header.clear();
+				readFully(seg.m_channel, header, pos);
+				header.flip();
+
+				int magic = header.getInt();
+				byte op = header.get();
+				int keyLength = header.getInt();
+				int valueLength = header.getInt();
+				if ( magic != MAGIC || keyLength < 0 || valueLength < 0 ) {
+					return ids;
+				}
+				if ( op == OP_PUT ) {
+					byte[] key = readBytes(seg.m_channel, pos + HEADER_SIZE, keyLength);
+					String id = new String(key, StandardCharsets.UTF_8);
+					if ( ids.contains(id) ) {
+						found.add(id);
+					}
+				}
+				pos += HEADER_SIZE + keyLength + valueLength;
+			}
+		}
+		return found;
+	}
+
+	private void recover() throws IOException {
+		// 교체되기 전에 중단된 compaction의 파일은 원래 segment가 남아 있으므로 삭제한다.
+		File[] leftovers = m_rootDir.listFiles(f -> f.isFile() && f.getName().endsWith(COMPACTING_SUFFIX));
+		for ( File file: (leftovers != null) ? leftovers : new File[0] ) {
+			Files.deleteIfExists(file.toPath());
+		}
+
+		File[] files = m_rootDir.listFiles(f -> f.isFile() && f.getName().endsWith(SEGMENT_SUFFIX));
+		TreeMap<Integer,File> segFiles = new TreeMap<>();
+		for ( File file: (files != null) ? files : new File[0] ) {
+			String name = file.getName();
+			try {
+				int seqNo = Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+				segFiles.put(seqNo, file);
+			}
+			catch ( NumberFormatException e ) {
+				s_logger.warn("ignore unknown segment file: {}", file);
+			}
+		}
+
+		for ( Map.Entry<Integer,File> ent: segFiles.entrySet() ) {
+			Segment seg = new Segment(ent.getKey(), ent.getValue());
+			m_segments.put(seg.m_seqNo, seg);
+			replay(seg, ent.getKey().equals(segFiles.lastKey()));
+		}
+
+		Segment last = m_segments.isEmpty() ? null : m_segments.lastEntry().getValue();
+		m_active = (last != null && last.m_size < m_maxSegmentSize) ? last : newSegment();
+
+		if ( s_logger.isInfoEnabled() ) {
+			s_logger.info("recovered {}", this);
+		}
+	}
+
+	private void replay(Segment seg, boolean isLast) throws IOException {
+		long pos = 0;
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while ( pos < seg.m_size ) {
+			Location loc = readLocation(seg, pos, header);
+			if ( loc == null ) {
+				if ( isLast ) {
+					// 마지막 segment의 끝 부분이 완전히 기록되지 못한 경우는 잘라낸다.
+					s_logger.warn("truncate incomplete segment tail: file={}, offset={}", seg.m_file, pos);
+					seg.m_channel.truncate(pos);
+					seg.m_size = pos;
+				}
+				else {
+					throw new IOException("corrupted segment: file=" + seg.m_file + ", offset=" + pos);
+				}
+				break;
+			}
+
+			if ( loc.m_op == OP_PUT ) {
+				applyPut(loc.m_id, loc);
+			}
+			else {
+				applyDelete(loc.m_id, loc);
+			}
+			pos += loc.getLength();
+		}
+	}
+
+	private Location readLocation(Segment seg, long pos, ByteBuffer header) throws IOException {
+		if ( pos + HEADER_SIZE > seg.m_size ) {
+			return null;
+		}
+
+		header.clear();
+		readFully(seg.m_channel, header, pos);
+		header.flip();
+
+		int magic = header.getInt();
+		byte op = header.get();
+		int keyLength = header.getInt();
+		int valueLength = header.getInt();
+		int crc = header.getInt();
+		if ( magic != MAGIC || (op != OP_PUT && op != OP_DELETE) || keyLength < 0 || valueLength < 0
+			|| pos + HEADER_SIZE + keyLength + valueLength > seg.m_size ) {
+			return null;
+		}
+
+		// 헤더가 정상적이더라도 기록이 중단된 레코드일 수 있으므로 checksum을 확인한다.
+		byte[] payload = readBytes(seg.m_channel, pos + HEADER_SIZE, keyLength + valueLength);
+		if ( checksum(payload) != crc ) {
+			return null;
+		}
+
+		String id = new String(payload, 0, keyLength, StandardCharsets.UTF_8);
+		return new Location(seg, pos, op, id, keyLength, valueLength, crc);
+	}
+
+	/**
+	 * 주어진 레코드의 값을 읽는다. 레코드의 checksum이 일치하지 않는 경우는 예외를 발생시킨다.
+	 */
+	private static byte[] readValue(Location loc) throws IOException {
+		FileChannel channel = loc.m_segment.m_channel;
+		byte[] payload = readBytes(channel, loc.m_offset + HEADER_SIZE, loc.m_keyLength + loc.m_valueLength);
+		if ( checksum(payload) != loc.m_crc ) {
+			throw new IOException("checksum mismatch: file=" + loc.m_segment.m_file
+									+ ", offset=" + loc.m_offset + ", id=" + loc.m_id);
+		}
+		return Arrays.copyOfRange(payload, loc.m_keyLength, payload.length);
+	}
+
+	private void applyPut(String id, Location loc) {
+		Location prev = m_index.put(id, loc);
+		if ( prev != null ) {
+			prev.m_segment.m_garbage += prev.getLength();
+		}
+	}
+
+	private void applyDelete(String id, Location tombstone) {
+		Location prev = m_index.remove(id);
+		if ( prev != null ) {
+			prev.m_segment.m_garbage += prev.getLength();
+		}
+		tombstone.m_segment.m_garbage += tombstone.getLength();
+	}
+
+	private Location append(byte op, String id, byte[] value) throws IOException {
+		byte[] key = id.getBytes(StandardCharsets.UTF_8);
+		byte[] body = (value != null) ? value : new byte[0];
+
+		ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + key.length + body.length);
+		int crc = encode(buf, op, key, body);
+		buf.flip();
+
+		rollIfFull(buf.capacity());
+		long offset = write(buf);
+
+		return new Location(m_active, offset, op, id, key.length, body.length, crc);
+	}
+
+	/**
+	 * 주어진 PUT 레코드들을 하나의 쓰기 연산으로 추가한다.
+	 * <p>
+	 * 레코드 전체가 하나의 segment에 들어가지 않는 경우는 레코드 단위로 추가한다.
+	 */
+	private List<Location> appendAll(Map<String,byte[]> values) throws IOException {
+		List<byte[]> keys = Lists.newArrayListWithCapacity(values.size());
+		int total = 0;
+		for ( Map.Entry<String,byte[]> ent: values.entrySet() ) {
+			byte[] key = ent.getKey().getBytes(StandardCharsets.UTF_8);
+			keys.add(key);
+			total += HEADER_SIZE + key.length + ent.getValue().length;
+		}
+
+		List<Location> locs = Lists.newArrayListWithCapacity(values.size());
+		if ( total > m_maxSegmentSize ) {
+			for ( Map.Entry<String,byte[]> ent: values.entrySet() ) {
+				locs.add(append(OP_PUT, ent.getKey(), ent.getValue()));
+			}
+			return locs;
+		}
+
+		ByteBuffer buf = ByteBuffer.allocate(total);
+		int[] crcs = new int[values.size()];
+		int idx = 0;
+		for ( byte[] value: values.values() ) {
+			crcs[idx] = encode(buf, OP_PUT, keys.get(idx), value);
+			++idx;
+		}
+		buf.flip();
+
+		rollIfFull(total);
+		long offset = write(buf);
+
+		idx = 0;
+		for ( Map.Entry<String,byte[]> ent: values.entrySet() ) {
+			Location loc = new Location(m_active, offset, OP_PUT, ent.getKey(), keys.get(idx).length,
+										ent.getValue().length, crcs[idx]);
+			++idx;
+			locs.add(loc);
+			offset += loc.getLength();
+		}
+		return locs;
+	}
+
+	private static int encode(ByteBuffer buf, byte op, byte[] key, byte[] body) {
+		CRC32 crc = new CRC32();
+		crc.update(key);
+		crc.update(body);
+		int checksum = (int)crc.getValue();
+
+		buf.putInt(MAGIC).put(op).putInt(key.length).putInt(body.length).putInt(checksum);
+		buf.put(key).put(body);
+
+		return checksum;
+	}
+
+	private static int checksum(byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		return (int)crc.getValue();
+	}
+
+	/**
+	 * Segment 파일의 생성/삭제가 디스크에 반영되도록 디렉토리를 동기화한다.
+	 * 디렉토리 동기화를 지원하지 않는 플랫폼에서는 무시한다.
+	 */
+	private void syncDirectory() {
+		try ( FileChannel dir = FileChannel.open(m_rootDir.toPath(), StandardOpenOption.READ) ) {
+			dir.force(true);
+		}
+		catch ( IOException e ) {
+			s_logger.debug("directory sync is not supported: dir={}, cause={}", m_rootDir, e.toString());
+		}
+	}
+
+	private void rollIfFull(long length) throws IOException {
+		if ( m_active.m_size > 0 && m_active.m_size + length > m_maxSegmentSize ) {
+			m_active.m_channel.force(false);
+			m_active = newSegment();
+		}
+	}
+
+	private long write(ByteBuffer buf) throws IOException {
+		long offset = m_active.m_size;
+		while ( buf.hasRemaining() ) {
+			m_active.m_channel.write(buf, offset + buf.position());
+		}
+		m_active.m_size += buf.limit();
+
+		return offset;
+	}
+
+	private Segment newSegment() throws IOException {
+		int seqNo = m_segments.isEmpty() ? 0 : m_segments.lastKey() + 1;
+		File file = new File(m_rootDir, String.format("%08d%s", seqNo, SEGMENT_SUFFIX));
+		Segment seg = new Segment(seqNo, file);
+		m_segments.put(seqNo, seg);
+
+		return seg;
+	}
+
+	private static byte[] readBytes(FileChannel channel, long pos, int length) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(length);
+		readFully(channel, buf, pos);
+		return buf.array();
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buf, long pos) throws IOException {
+		while ( buf.hasRemaining() ) {
+			if ( channel.read(buf, pos + buf.position()) < 0 ) {
+				throw new EOFException("unexpected end of segment: offset=" + (pos + buf.position()));
+			}
+		}
+	}
+
+	private static final class Segment {
+		private final int m_seqNo;
+		private final File m_file;
+		private final FileChannel m_channel;
+		private long m_size;
+		private long m_garbage = 0;
+
+		Segment(int seqNo, File file) throws IOException {
+			m_seqNo = seqNo;
+			m_file = file;
+			m_channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+											StandardOpenOption.WRITE);
+			m_size = m_channel.size();
+		}
+
+		double getGarbageRatio() {
+			return (m_size > 0) ? (double)m_garbage / m_size : 0;
+		}
+	}
+
+	private static final class Location {
+		private final Segment m_segment;
+		private final long m_offset;
+		private final byte m_op;
+		private final String m_id;
+		private final int m_keyLength;
+		private final int m_valueLength;
+		private final int m_crc;
+
+		Location(Segment segment, long offset, byte op, String id, int keyLength, int valueLength, int crc) {
+			m_segment = segment;
+			m_offset = offset;
+			m_op = op;
+			m_id = id;
+			m_keyLength = keyLength;
+			m_valueLength = valueLength;
+			m_crc = crc;
+		}
+
+		long getValueOffset() {
+			return m_offset + HEADER_SIZE + m_keyLength;
+		}
+
+		int getLength() {
+			return HEADER_SIZE + m_keyLength + m_valueLength;
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package mdt.registry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.smile.SmileConstants;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.common.collect.Maps;
+
+
+/**
+ * Descriptor JSON을 Jackson Smile 이진 형식으로 변환하여 저장하는 저장 엔진.
+ * <p>
+ * 실제 저장은 주어진 저장 엔진에 위임하며, 저장시에는 JSON을 Smile로, 읽을 때는 다시 JSON으로
+ * 변환한다. 변환은 중간 객체 생성없이 token 단위로 수행된다.
+ * Smile header로 시작하지 않는 값은 JSON으로 저장된 것으로 간주하여 그대로 반환하기 때문에,
+ * 기존 JSON 저장소를 그대로 사용할 수 있으며 descriptor들은 변경될 때 Smile로 다시 저장된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class SmileDescriptorStorage implements DescriptorStorage {
+	private static final JsonFactory s_jsonFactory = new JsonFactory();
+	private static final SmileFactory s_smileFactory = new SmileFactory();
+
+	private final DescriptorStorage m_storage;
+
+	public SmileDescriptorStorage(DescriptorStorage storage) {
+		m_storage = storage;
+	}
+
+	@Override
+	public File getRootDir() {
+		return m_storage.getRootDir();
+	}
+
+	@Override
+	public Set<String> getIdAll() throws IOException {
+		return m_storage.getIdAll();
+	}
+
+	@Override
+	public Optional<byte[]> get(String id) throws IOException {
+		Optional<byte[]> encoded = m_storage.get(id);
+		return encoded.isPresent() ? Optional.of(decode(encoded.get())) : encoded;
+	}
+
+	@Override
+	public boolean exists(String id) throws IOException {
+		return m_storage.exists(id);
+	}
+
+	@Override
+	public boolean insert(String id, byte[] value) throws IOException {
+		return m_storage.insert(id, encode(value));
+	}
+
+	@Override
+	public Set<String> insertAll(Map<String,byte[]> values) throws IOException {
+		Map<String,byte[]> encodeds = Maps.newLinkedHashMap();
+		for ( Map.Entry<String,byte[]> ent: values.entrySet() ) {
+			encodeds.put(ent.getKey(), encode(ent.getValue()));
+		}
+		return m_storage.insertAll(encodeds);
+	}
+
+	@Override
+	public boolean update(String id, byte[] value) throws IOException {
+		return m_storage.update(id, encode(value));
+	}
+
+	@Override
+	public boolean updateAll(Map<String,byte[]> values) throws IOException {
+		Map<String,byte[]> encodeds = Maps.newLinkedHashMap();
+		for ( Map.Entry<String,byte[]> ent: values.entrySet() ) {
+			encodeds.put(ent.getKey(), encode(ent.getValue()));
+		}
+		return m_storage.updateAll(encodeds);
+	}
+
+	@Override
+	public boolean remove(String id) throws IOException {
+		return m_storage.remove(id);
+	}
+
+	@Override
+	public Closeable watchChanges(ChangeListener listener) throws IOException {
+		return m_storage.watchChanges(listener);
+	}
+
+	@Override
+	public void close() throws IOException {
+		m_storage.close();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[%s]", getClass().getSimpleName(), m_storage);
+	}
+
+	/**
+	 * 주어진 값이 Smile 형식으로 인코딩되었는지 여부를 반환한다.
+	 *
+	 * @param value	검사할 값.
+	 * @return	Smile header로 시작하는 경우는 {@code true}.
+	 */
+	public static boolean isSmile(byte[] value) {
+		return value.length >= 3
+			&& value[0] == SmileConstants.HEADER_BYTE_1
+			&& value[1] == SmileConstants.HEADER_BYTE_2
+			&& value[2] == SmileConstants.HEADER_BYTE_3;
+	}
+
+	static byte[] encode(byte[] json) throws IOException {
+		return transcode(s_jsonFactory, json, s_smileFactory, json.length / 2);
+	}
+
+	static byte[] decode(byte[] value) throws IOException {
+		if ( !isSmile(value) ) {
+			return value;
+		}
+		return transcode(s_smileFactory, value, s_jsonFactory, value.length * 2);
+	}
+
+	private static byte[] transcode(JsonFactory from, byte[] value, JsonFactory to, int sizeHint)
+		throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream(Math.max(sizeHint, 64));
+		try ( JsonParser parser = from.createParser(value);
+				JsonGenerator gen = to.createGenerator(baos) ) {
+			parser.nextToken();
+			gen.copyCurrentStructure(parser);
+		}
+		return baos.toByteArray();
+	}
+}
@@ -1,5 +1,11 @@
 package mdt.registry;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelDescriptor;
+
 import mdt.model.registry.RegistryException;
 import mdt.model.registry.ResourceNotFoundException;
 import mdt.model.registry.SubmodelRegistry;
@@ -12,4 +18,53 @@ import mdt.model.registry.SubmodelRegistry;
 public interface SubmodelRegistryProvider extends SubmodelRegistry {
 	public String getJsonSubmodelDescriptorById(String submodelId) throws ResourceNotFoundException,
 																			RegistryException;
+	public LazyDescriptor<SubmodelDescriptor> getLazySubmodelDescriptorById(String submodelId)
+		throws ResourceNotFoundException, RegistryException;
+	
+	public void writeAllJsonSubmodelDescriptors(OutputStream out) throws IOException, RegistryException;
+	public void writeAllJsonSubmodelDescriptorsByIdShort(String idShort, OutputStream out)
+		throws IOException, RegistryException;
+	/**
+	 * 주어진 SubmodelDescriptor들을 하나의 저장 연산으로 변경한다.
+	 * 
+	 * @param descriptors	변경될 SubmodelDescriptor 목록.
+	 * @throws ResourceNotFoundException	등록되지 않은 descriptor가 포함된 경우. 이때 어떠한
+	 * 									descriptor도 변경되지 않는다.
+	 * @throws RegistryException	저장 중 오류가 발생된 경우.
+	 */
+	public void updateSubmodelDescriptors(List<SubmodelDescriptor> descriptors)
+		throws ResourceNotFoundException, RegistryException;
+	
+	/**
+	 * 주어진 SubmodelDescriptor들을 하나의 저장 연산으로 등록한다.
+	 * <p>
+	 * 이미 등록된 식별자의 descriptor는 등록하지 않고 {@link BulkItemResult.Status#CONFLICT}로 보고한다.
+	 * 
+	 * @param descriptors	등록할 SubmodelDescriptor 목록. 식별자는 서로 달라야 한다.
+	 * @return	주어진 descriptor 순서에 따른 처리 결과 목록.
+	 * @throws RegistryException	저장 중 오류가 발생된 경우.
+	 */
+	public List<BulkItemResult> addSubmodelDescriptors(List<SubmodelDescriptor> descriptors)
+		throws RegistryException;
+	
+	public void writeJsonSubmodelDescriptorPage(String idShort, String cursor, int limit, OutputStream out)
+		throws IOException, RegistryException;
+	
+	/**
+	 * 주어진 semanticId를 갖는 SubmodelDescriptor들을 반환한다.
+	 * <p>
+	 * semanticId 색인을 사용하기 때문에 조건에 맞는 descriptor들만 읽는다.
+	 * semanticId는 참조의 마지막 key 값과 비교된다 ({@link mdt.SemanticIds}).
+	 * 
+	 * @param semanticId	semantic 식별자.
+	 * @return	SubmodelDescriptor 목록.
+	 * @throws RegistryException	검색 중 오류가 발생된 경우.
+	 */
+	public List<SubmodelDescriptor> getAllSubmodelDescriptorsBySemanticId(String semanticId)
+		throws RegistryException;
+	public void writeAllJsonSubmodelDescriptorsBySemanticId(String semanticId, String idShort, OutputStream out)
+		throws IOException, RegistryException;
+	public void writeJsonSubmodelDescriptorPageBySemanticId(String semanticId, String idShort, String cursor,
+															int limit, OutputStream out)
+		throws IOException, RegistryException;
 }
@@ -0,0 +1,21 @@
+package mdt.registry;
+
+import com.google.common.base.Preconditions;
+
+
+/**
+ * Registry 기동시 저장된 descriptor들을 적재하는 방법을 정의한다.
+ *
+ * @param threads		descriptor들을 병렬로 읽을 쓰레드 수.
+ * @param preloadCount	기동시 cache에 미리 적재할 최대 descriptor 수.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public record WarmUpOptions(int threads, int preloadCount) {
+	public static final WarmUpOptions DEFAULT = new WarmUpOptions(1, 0);
+
+	public WarmUpOptions {
+		Preconditions.checkArgument(threads > 0, "invalid warm-up thread count: " + threads);
+		Preconditions.checkArgument(preloadCount >= 0, "invalid warm-up preload count: " + preloadCount);
+	}
+}
@@ -4,12 +4,15 @@ import java.util.List;
 
 import org.eclipse.digitaltwin.aas4j.v3.model.AssetAdministrationShell;
 
+import mdt.Page;
+
 /**
  *
  * @author Kang-Woo Lee (ETRI)
  */
 public interface AssetAdministrationShellRepositoryProvider extends AutoCloseable {
 	public List<ServiceIdentifier> getAllAssetAdministrationShells();
+	public Page<ServiceIdentifier> getAssetAdministrationShellPage(String cursor, int limit);
 	public ServiceIdentifier getAssetAdministrationShellById(String aasId);
 	public List<ServiceIdentifier> getAllAssetAdministrationShellsByAssetId(String key);
 	public List<ServiceIdentifier> getAssetAdministrationShellByIdShort(String idShort);
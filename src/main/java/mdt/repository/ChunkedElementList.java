@@ -0,0 +1,141 @@
+package mdt.repository;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+
+
+/**
+ * 고정 크기 chunk들로 나누어 SubmodelElement들을 저장하는 목록.
+ * <p>
+ * {@link #copyOf(List)}로 생성된 복사본은 원본과 chunk들을 공유하며, 이후 어느 한쪽에서
+ * 원소를 변경하면 해당 chunk만 복사된다. 따라서 목록의 복사와 한 원소의 교체/추가는 목록 크기가 아닌
+ * chunk 갯수와 chunk 크기에 비례하는 비용으로 수행된다. 중간 원소의 삽입/삭제는 뒤의 원소들을 이동하기
+ * 때문에 목록 크기에 비례한다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+final class ChunkedElementList extends AbstractList<SubmodelElement> implements RandomAccess {
+	private static final int CHUNK_SHIFT = 6;
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	private static final SubmodelElement[][] NO_CHUNKS = new SubmodelElement[0][];
+
+	private SubmodelElement[][] m_chunks;
+	// 이 목록이 단독으로 소유하여 복사 없이 변경할 수 있는 chunk 여부.
+	private boolean[] m_owned;
+	private int m_size;
+
+	ChunkedElementList() {
+		m_chunks = NO_CHUNKS;
+		m_owned = new boolean[0];
+		m_size = 0;
+	}
+
+	private ChunkedElementList(SubmodelElement[][] chunks, int size) {
+		m_chunks = chunks;
+		m_owned = new boolean[chunks.length];
+		m_size = size;
+	}
+
+	/**
+	 * 주어진 목록의 복사본을 생성한다.
+	 * <p>
+	 * 주어진 목록이 {@link ChunkedElementList}인 경우는 chunk들을 공유하고, 그렇지 않은 경우는
+	 * 원소들을 새 chunk들에 복사한다.
+	 *
+	 * @param elements	복사할 목록.
+	 * @return	복사된 목록.
+	 */
+	static ChunkedElementList copyOf(List<SubmodelElement> elements) {
+		if ( elements instanceof ChunkedElementList chunked ) {
+			// 공유된 chunk들은 원본에서도 변경 전에 복사되어야 한다.
+			Arrays.fill(chunked.m_owned, false);
+			return new ChunkedElementList(chunked.m_chunks.clone(), chunked.m_size);
+		}
+
+		ChunkedElementList copy = new ChunkedElementList();
+		copy.addAll(elements);
+		return copy;
+	}
+
+	@Override
+	public int size() {
+		return m_size;
+	}
+
+	@Override
+	public SubmodelElement get(int index) {
+		checkIndex(index, m_size);
+		return m_chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+	}
+
+	@Override
+	public SubmodelElement set(int index, SubmodelElement element) {
+		checkIndex(index, m_size);
+		SubmodelElement[] chunk = getWritableChunk(index >>> CHUNK_SHIFT);
+		SubmodelElement prev = chunk[index & CHUNK_MASK];
+		chunk[index & CHUNK_MASK] = element;
+		return prev;
+	}
+
+	@Override
+	public void add(int index, SubmodelElement element) {
+		checkIndex(index, m_size + 1);
+
+		int chunkIdx = m_size >>> CHUNK_SHIFT;
+		if ( chunkIdx == m_chunks.length ) {
+			int capacity = Math.max(4, m_chunks.length * 2);
+			m_chunks = Arrays.copyOf(m_chunks, capacity);
+			m_owned = Arrays.copyOf(m_owned, capacity);
+		}
+		if ( m_chunks[chunkIdx] == null ) {
+			m_chunks[chunkIdx] = new SubmodelElement[CHUNK_SIZE];
+			m_owned[chunkIdx] = true;
+		}
+		++m_size;
+		++modCount;
+
+		for ( int i = m_size - 1; i > index; --i ) {
+			set(i, get(i - 1));
+		}
+		set(index, element);
+	}
+
+	@Override
+	public SubmodelElement remove(int index) {
+		SubmodelElement removed = get(index);
+		for ( int i = index; i < m_size - 1; ++i ) {
+			set(i, get(i + 1));
+		}
+		set(m_size - 1, null);
+		--m_size;
+		++modCount;
+		return removed;
+	}
+
+	@Override
+	public void clear() {
+		m_chunks = NO_CHUNKS;
+		m_owned = new boolean[0];
+		m_size = 0;
+		++modCount;
+	}
+
+	private SubmodelElement[] getWritableChunk(int chunkIdx) {
+		if ( !m_owned[chunkIdx] ) {
+			m_chunks[chunkIdx] = m_chunks[chunkIdx].clone();
+			m_owned[chunkIdx] = true;
+		}
+		return m_chunks[chunkIdx];
+	}
+
+	private static void checkIndex(int index, int size) {
+		if ( index < 0 || index >= size ) {
+			throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+		}
+	}
+}
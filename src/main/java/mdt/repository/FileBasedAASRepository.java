@@ -6,94 +6,103 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Base64;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ExecutionException;
 
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonDeserializer;
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonSerializer;
 import org.eclipse.digitaltwin.aas4j.v3.model.AssetAdministrationShell;
+import org.eclipse.digitaltwin.aas4j.v3.model.AssetInformation;
+
+import com.fasterxml.jackson.databind.JsonNode;
 
 import utils.Throwables;
 import utils.fostore.DefaultFileObjectStore;
 import utils.fostore.FileObjectHandler;
 import utils.stream.FStream;
 
+import mdt.Page;
+import mdt.SortedKeyIndex;
 import mdt.model.InternalException;
 import mdt.model.registry.ResourceNotFoundException;
+import mdt.registry.DescriptorIndex;
 
 
 /**
+ * AssetAdministrationShell들을 파일로 저장하는 repository.
+ * <p>
+ * 식별자, idShort, globalAssetId 색인은 메모리에 유지되며 등록/변경/삭제시 함께 갱신되기 때문에
+ * 존재 여부 확인과 목록 조회는 저장된 AAS 파일을 읽지 않는다.
  *
  * @author Kang-Woo Lee (ETRI)
  */
 public class FileBasedAASRepository implements AssetAdministrationShellRepositoryProvider {
+	private static final Set<String> INDEXED_FIELDS = Set.of("idShort", "assetInformation");
+	
+	private final AASHandler m_handler;
 	private final DefaultFileObjectStore<String, AssetAdministrationShell> m_store;
+	private final SortedKeyIndex m_keyIndex = new SortedKeyIndex();
+	private final DescriptorIndex m_idShortIndex = DescriptorIndex.onField("idShort");
+	private final DescriptorIndex m_assetIdIndex = new DescriptorIndex("globalAssetId", node -> {
+		JsonNode assetId = node.path("assetInformation").get("globalAssetId");
+		return (assetId != null && assetId.isTextual()) ? List.of(assetId.asText()) : List.of();
+	});
 	
 	public FileBasedAASRepository(File topDir) throws IOException {
-		m_store = new DefaultFileObjectStore<>(topDir, new AASHandler(topDir));
+		m_handler = new AASHandler(topDir);
+		m_store = new DefaultFileObjectStore<>(topDir, m_handler);
+		for ( String id: m_store.getFileObjectKeyAll() ) {
+			m_keyIndex.add(id);
+			
+			// 색인 생성시에는 AAS 전체를 역직렬화하지 않고 색인에 필요한 속성들만 읽는다.
+			JsonNode fields = JsonFieldReader.read(m_handler.toFile(id), INDEXED_FIELDS);
+			m_idShortIndex.put(id, fields);
+			m_assetIdIndex.put(id, fields);
+		}
 	}
 
 	@Override
 	public List<ServiceIdentifier> getAllAssetAdministrationShells() {
-		try {
-			return FStream.from(m_store.getFileObjectAll())
-							.map(this::toIdentifier)
-							.toList();
-		}
-		catch ( Exception e ) {
-			Throwable cause = Throwables.unwrapThrowable(e);
-			throw new InternalException("" + cause);
-		}
+		// 식별자만 필요하기 때문에 저장된 AAS 파일들을 읽지 않는다.
+		return FStream.from(m_keyIndex.getKeyAll())
+						.map(ServiceIdentifier::new)
+						.toList();
+	}
+
+	@Override
+	public Page<ServiceIdentifier> getAssetAdministrationShellPage(String cursor, int limit) {
+		return m_keyIndex.getPage(cursor, limit).map(ServiceIdentifier::new);
 	}
 
 	@Override
 	public ServiceIdentifier getAssetAdministrationShellById(String aasId) {
-		try {
-			AssetAdministrationShell aas
-					= m_store.get(aasId)
-							.orElseThrow(() -> new ResourceNotFoundException("AssetAdministrationShell", aasId));
-			return toIdentifier(aas);
-		}
-		catch ( ResourceNotFoundException e ) {
-			throw e;
-		}
-		catch ( Exception e ) {
-			Throwable cause = Throwables.unwrapThrowable(e);
-			throw new InternalException("" + cause);
+		if ( !m_keyIndex.contains(aasId) ) {
+			throw new ResourceNotFoundException("AssetAdministrationShell", aasId);
 		}
+		return new ServiceIdentifier(aasId);
 	}
 
 	@Override
 	public List<ServiceIdentifier> getAllAssetAdministrationShellsByAssetId(String key) {
-		try {
-			return FStream.from(m_store.getFileObjectAll())
-							.filter(aas -> key.equals(aas.getAssetInformation().getGlobalAssetId()))
-							.map(this::toIdentifier)
-							.toList();
-		}
-		catch ( Exception e ) {
-			Throwable cause = Throwables.unwrapThrowable(e);
-			throw new InternalException("" + cause);
-		}
+		return FStream.from(new TreeSet<>(m_assetIdIndex.get(key)))
+						.map(ServiceIdentifier::new)
+						.toList();
 	}
 
 	@Override
 	public List<ServiceIdentifier> getAssetAdministrationShellByIdShort(String idShort) {
-		try {
-			return FStream.from(m_store.getFileObjectAll())
-							.filter(aas -> idShort.equals(aas.getIdShort()))
-							.map(this::toIdentifier)
-							.toList();
-		}
-		catch ( Exception e ) {
-			Throwable cause = Throwables.unwrapThrowable(e);
-			throw new InternalException("" + cause);
-		}
+		return FStream.from(new TreeSet<>(m_idShortIndex.get(idShort)))
+						.map(ServiceIdentifier::new)
+						.toList();
 	}
 
 	@Override
 	public ServiceIdentifier addAssetAdministrationShell(AssetAdministrationShell aas) {
 		try {
 			m_store.insert(aas.getId(), aas);
+			m_keyIndex.add(aas.getId());
+			updateIndexes(aas);
 			return toIdentifier(aas);
 		}
 		catch ( Exception e ) {
@@ -107,6 +116,8 @@ public class FileBasedAASRepository implements AssetAdministrationShellRepositor
 		try {
 			m_store.remove(aas.getId());
 			m_store.insert(aas.getId(), aas);
+			m_keyIndex.add(aas.getId());
+			updateIndexes(aas);
 			return toIdentifier(aas);
 		}
 		catch ( Exception e ) {
@@ -119,6 +130,9 @@ public class FileBasedAASRepository implements AssetAdministrationShellRepositor
 	public void removeAssetAdministrationShellById(String id) {
 		try {
 			m_store.remove(id);
+			m_keyIndex.remove(id);
+			m_idShortIndex.remove(id);
+			m_assetIdIndex.remove(id);
 		}
 		catch ( IOException e ) {
 			Throwable cause = Throwables.unwrapThrowable(e);
@@ -129,6 +143,15 @@ public class FileBasedAASRepository implements AssetAdministrationShellRepositor
 	public ServiceIdentifier toIdentifier(AssetAdministrationShell aas) {
 		return new ServiceIdentifier(aas.getId());
 	}
+	
+	private void updateIndexes(AssetAdministrationShell aas) {
+		String idShort = aas.getIdShort();
+		m_idShortIndex.put(aas.getId(), (idShort != null) ? List.of(idShort) : List.of());
+		
+		AssetInformation info = aas.getAssetInformation();
+		String assetId = (info != null) ? info.getGlobalAssetId() : null;
+		m_assetIdIndex.put(aas.getId(), (assetId != null) ? List.of(assetId) : List.of());
+	}
 
 	private static final class AASHandler implements FileObjectHandler<String, AssetAdministrationShell> {
 		private final File m_rootDir;
@@ -4,133 +4,624 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+import javax.annotation.Nullable;
 
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonDeserializer;
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonSerializer;
 import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Striped;
 
 import utils.Throwables;
 import utils.fostore.DefaultFileObjectStore;
 import utils.fostore.FileObjectHandler;
 import utils.stream.FStream;
 
+import mdt.Page;
+import mdt.SemanticIds;
+import mdt.SortedKeyIndex;
 import mdt.model.InternalException;
 import mdt.model.registry.ResourceNotFoundException;
+import mdt.registry.DescriptorIndex;
 
 /**
+ * Submodel들을 파일로 저장하는 repository.
+ * <p>
+ * 식별자, idShort, semanticId 색인은 메모리에 유지되며 등록/변경/삭제시 함께 갱신되기 때문에
+ * 존재 여부 확인과 목록 조회는 저장된 submodel 파일을 읽지 않는다.
+ * <p>
+ * {@link CheckpointPolicy}가 주어진 경우는 SubmodelElement 단위의 변경 내역
+ * ({@link #appendSubmodelDeltas(String, List)})을 submodel별 journal에 추가하는 방식으로 저장한다.
+ * Journal은 설정된 변경 갯수 혹은 시간이 지나면 별도의 쓰레드에서 submodel 파일에 반영(checkpoint)되며,
+ * {@link #loadSubmodel(String)}은 submodel 파일에 journal을 재적용한 결과를 반환한다.
+ * Checkpoint는 새 submodel 파일을 journal 디렉토리에 먼저 기록하고 journal을 삭제한 뒤 원래 파일을
+ * 교체하기 때문에, 도중에 비정상 종료되더라도 재기동시 기록된 변경이 누락되거나 두 번 반영되지 않는다.
+ * 손상되었거나 더 이상 적용할 수 없는 변경을 포함한 journal은 격리(quarantine)되어 journal 디렉토리에
+ * 보존되며, 이후의 checkpoint 대상에서 제외된다.
+ * <p>
+ * {@link #openSubmodelService(String)}가 반환하는 SubmodelService는 최근 사용된 submodel 단위로
+ * 캐시되어 요청들 사이에 공유된다. 캐시된 서비스는 변경 요청마다 변경 내역을 바로 저장하며,
+ * submodel이 서비스를 거치지 않고 추가/교체/삭제되면 캐시에서 제거된다.
  *
  * @author Kang-Woo Lee (ETRI)
  */
-public class FileBasedSubmodelRepository implements SubmodelRepositoryProvider {
+public class FileBasedSubmodelRepository implements SubmodelRepositoryProvider, SubmodelDeltaStore {
+	private static final Logger s_logger = LoggerFactory.getLogger(FileBasedSubmodelRepository.class);
+	private static final Set<String> INDEXED_FIELDS = Set.of("idShort", "semanticId");
+	private static final int LOCK_STRIPES = 64;
+	public static final int DEFAULT_SERVICE_CACHE_SIZE = 256;
+	private static final long EXTERNAL_WRITER = 0;
+	
+	private final SubmodelHandler m_handler;
 	private final DefaultFileObjectStore<String, Submodel> m_store;
+	private final SortedKeyIndex m_keyIndex = new SortedKeyIndex();
+	private final DescriptorIndex m_idShortIndex = DescriptorIndex.onField("idShort");
+	private final DescriptorIndex m_semanticIdIndex = DescriptorIndex.onSemanticId();
+	private final Striped<Lock> m_locks = Striped.lock(LOCK_STRIPES);
+	@Nullable private final CheckpointPolicy m_policy;
+	@Nullable private final SubmodelJournal m_journal;
+	@Nullable private final ScheduledExecutorService m_checkpointer;
+	private final ConcurrentMap<String,PendingDeltas> m_pending = Maps.newConcurrentMap();
+	
+	// 캐시된 서비스들과 submodel별로 현재 유효한 서비스의 token.
+	// 캐시에서 밀려난 서비스도 token이 유효한 동안은 변경을 저장할 수 있다.
+	private final Cache<String,InMemorySubmodelService> m_services;
+	private final ConcurrentMap<String,Long> m_serviceTokens = Maps.newConcurrentMap();
+	private final AtomicLong m_tokenSeq = new AtomicLong(EXTERNAL_WRITER);
+	
+	/**
+	 * Journal checkpoint 정책.
+	 *
+	 * @param journalDir	journal 파일들을 저장할 디렉토리. Submodel 저장 디렉토리와 달라야 한다.
+	 * @param maxDeltas		checkpoint 전까지 journal에 누적될 수 있는 최대 변경 갯수.
+	 * @param interval		journal에 처음 변경이 기록된 뒤 checkpoint될 때까지의 최대 시간.
+	 */
+	public static record CheckpointPolicy(File journalDir, int maxDeltas, Duration interval) {
+		public CheckpointPolicy {
+			Preconditions.checkArgument(maxDeltas > 0, "invalid maxDeltas: " + maxDeltas);
+			Preconditions.checkArgument(!interval.isNegative() && !interval.isZero(),
+										"invalid checkpoint interval: " + interval);
+		}
+	}
+	
+	/**
+	 * 캐시된 SubmodelService가 생성된 이후 해당 submodel이 서비스를 거치지 않고 교체 혹은 삭제되어
+	 * 서비스를 통한 변경을 저장할 수 없는 경우 발생되는 예외. 이 경우 서비스를 다시 얻어 재시도할 수 있다.
+	 */
+	public static final class StaleSubmodelServiceException extends IllegalStateException {
+		private static final long serialVersionUID = 1L;
+		
+		StaleSubmodelServiceException(String submodelId) {
+			super("SubmodelService has been invalidated: id=" + submodelId);
+		}
+	}
+	
+	private static record PendingDeltas(int count, long since) {
+		PendingDeltas merge(PendingDeltas added) {
+			return new PendingDeltas(count + added.count, since);
+		}
+	}
 	
 	public FileBasedSubmodelRepository(File topDir) throws IOException {
-		m_store = new DefaultFileObjectStore<>(topDir, new SubmodelHandler(topDir));
+		this(topDir, null);
+	}
+	
+	/**
+	 * Repository 객체를 생성한다.
+	 *
+	 * @param topDir	submodel 저장 디렉토리.
+	 * @param policy	journal checkpoint 정책. Journal을 사용하지 않는 경우는 {@code null}.
+	 * @throws IOException	저장된 submodel 파일들의 색인 생성 혹은 journal 복구 중 오류가 발생된 경우.
+	 */
+	public FileBasedSubmodelRepository(File topDir, @Nullable CheckpointPolicy policy) throws IOException {
+		this(topDir, policy, DEFAULT_SERVICE_CACHE_SIZE);
+	}
+	
+	/**
+	 * Repository 객체를 생성한다.
+	 *
+	 * @param topDir	submodel 저장 디렉토리.
+	 * @param policy	journal checkpoint 정책. Journal을 사용하지 않는 경우는 {@code null}.
+	 * @param serviceCacheSize	캐시할 SubmodelService의 최대 갯수.
+	 * @throws IOException	저장된 submodel 파일들의 색인 생성 혹은 journal 복구 중 오류가 발생된 경우.
+	 */
+	public FileBasedSubmodelRepository(File topDir, @Nullable CheckpointPolicy policy, int serviceCacheSize)
+		throws IOException {
+		Preconditions.checkArgument(serviceCacheSize > 0, "invalid serviceCacheSize: " + serviceCacheSize);
+		
+		m_services = CacheBuilder.newBuilder().maximumSize(serviceCacheSize).build();
+		m_handler = new SubmodelHandler(topDir);
+		m_store = new DefaultFileObjectStore<>(topDir, m_handler);
+		m_policy = policy;
+		m_journal = (policy != null) ? new SubmodelJournal(policy.journalDir()) : null;
+		if ( m_journal != null ) {
+			// checkpoint 도중 중단된 경우는 journal이 반영된 새 submodel 파일이 이미 완성된 상태이다.
+			for ( String id: m_journal.getPendingSnapshotIds() ) {
+				m_journal.delete(id);
+				moveReplacing(m_journal.getSnapshotFile(id), m_handler.toFile(id));
+			}
+		}
+		
+		for ( String id: m_store.getFileObjectKeyAll() ) {
+			m_keyIndex.add(id);
+			
+			// 색인 생성시에는 submodel 전체를 역직렬화하지 않고 색인에 필요한 속성들만 읽는다.
+			JsonNode fields = JsonFieldReader.read(m_handler.toFile(id), INDEXED_FIELDS);
+			m_idShortIndex.put(id, fields);
+			m_semanticIdIndex.put(id, fields);
+		}
+		
+		if ( m_journal != null ) {
+			// 이전 실행에서 남겨진 journal들은 기동시 모두 submodel 파일에 반영한다.
+			for ( String id: m_journal.getJournaledIds() ) {
+				checkpoint(id);
+			}
+			
+			m_checkpointer = Executors.newSingleThreadScheduledExecutor(task -> {
+				Thread thread = new Thread(task, "submodel-checkpointer");
+				thread.setDaemon(true);
+				return thread;
+			});
+			long period = Math.max(policy.interval().toMillis() / 2, 1);
+			m_checkpointer.scheduleWithFixedDelay(this::checkpointExpired, period, period,
+													TimeUnit.MILLISECONDS);
+		}
+		else {
+			m_checkpointer = null;
+		}
 	}
 
 	@Override
 	public void close() throws Exception {
+		if ( m_checkpointer != null ) {
+			m_checkpointer.shutdown();
+			m_checkpointer.awaitTermination(10, TimeUnit.SECONDS);
+			for ( String id: Lists.newArrayList(m_pending.keySet()) ) {
+				checkpoint(id);
+			}
+		}
+		m_services.invalidateAll();
+		m_serviceTokens.clear();
 	}
 
 	@Override
 	public List<ServiceIdentifier> getAllSubmodels() {
-		try {
-			return FStream.from(m_store.getFileObjectAll())
-							.map(this::toIdentifier)
-							.toList();
-		}
-		catch ( Exception e ) {
-			Throwable cause = Throwables.unwrapThrowable(e);
-			throw new InternalException("" + cause);
-		}
+		// 식별자만 필요하기 때문에 저장된 submodel 파일들을 읽지 않는다.
+		return FStream.from(m_keyIndex.getKeyAll())
+						.map(ServiceIdentifier::new)
+						.toList();
+	}
+
+	@Override
+	public Page<ServiceIdentifier> getSubmodelPage(String cursor, int limit) {
+		return m_keyIndex.getPage(cursor, limit).map(ServiceIdentifier::new);
 	}
 
 	@Override
 	public ServiceIdentifier getSubmodelById(String id) {
-		try {
-			Submodel submodel = m_store.get(id)
-										.orElseThrow(() -> new ResourceNotFoundException("SubmodelService", id));
-			return toIdentifier(submodel);
-		}
-		catch ( ResourceNotFoundException e ) {
-			throw e;
-		}
-		catch ( Exception e ) {
-			Throwable cause = Throwables.unwrapThrowable(e);
-			throw new InternalException("" + cause);
+		if ( !m_keyIndex.contains(id) ) {
+			throw new ResourceNotFoundException("SubmodelService", id);
 		}
+		return new ServiceIdentifier(id);
 	}
 
 	@Override
 	public List<ServiceIdentifier> getAllSubmodelBySemanticId(String semanticId) {
+		return FStream.from(new TreeSet<>(m_semanticIdIndex.get(semanticId)))
+						.map(ServiceIdentifier::new)
+						.toList();
+	}
+
+	@Override
+	public List<ServiceIdentifier> getAllSubmodelsByIdShort(String idShort) {
+		return FStream.from(new TreeSet<>(m_idShortIndex.get(idShort)))
+						.map(ServiceIdentifier::new)
+						.toList();
+	}
+	
+	/**
+	 * 주어진 식별자의 submodel을 읽는다. Journal이 있는 경우는 journal의 변경 내역을 재적용한 결과를 반환한다.
+	 *
+	 * @param id	submodel 식별자.
+	 * @return	Submodel 객체.
+	 * @throws ResourceNotFoundException	해당 submodel이 존재하지 않는 경우.
+	 */
+	public Submodel loadSubmodel(String id) {
+		Lock lock = m_locks.get(id);
+		lock.lock();
 		try {
-			return FStream.from(m_store.getFileObjectAll())
-							.filter(sm -> semanticId.equals(sm.getSemanticId()))
-							.map(this::toIdentifier)
-							.toList();
+			if ( !m_keyIndex.contains(id) ) {
+				throw new ResourceNotFoundException("SubmodelService", id);
+			}
+			Submodel submodel = readSubmodel(id);
+			if ( m_journal != null ) {
+				replayJournal(id, submodel);
+			}
+			return submodel;
 		}
-		catch ( Exception e ) {
+		catch ( IOException | ExecutionException e ) {
 			Throwable cause = Throwables.unwrapThrowable(e);
 			throw new InternalException("" + cause);
 		}
+		finally {
+			lock.unlock();
+		}
 	}
 
+	/**
+	 * 주어진 submodel에 대한 SubmodelService를 반환한다.
+	 * <p>
+	 * 서비스는 캐시되어 여러 호출자가 공유하며, 캐시에 없는 경우에만 submodel 파일을 읽어 생성한다.
+	 * 서비스를 통한 변경은 요청마다 SubmodelElement 단위의 변경 내역으로 바로 저장되기 때문에
+	 * 서비스를 {@code close()}하지 않아도 된다. 서비스를 얻은 뒤 submodel이 교체/삭제된 경우는 변경 요청시
+	 * {@link StaleSubmodelServiceException}이 발생된다.
+	 */
 	@Override
-	public List<ServiceIdentifier> getAllSubmodelsByIdShort(String idShort) {
+	public SubmodelServiceProvider openSubmodelService(String id) {
+		InMemorySubmodelService svc = m_services.getIfPresent(id);
+		if ( svc != null ) {
+			return svc;
+		}
+		
+		Lock lock = m_locks.get(id);
+		lock.lock();
 		try {
-			return FStream.from(m_store.getFileObjectAll())
-							.filter(sm -> idShort.equals(sm.getIdShort()))
-							.map(this::toIdentifier)
-							.toList();
+			svc = m_services.getIfPresent(id);
+			if ( svc == null ) {
+				long token = m_tokenSeq.incrementAndGet();
+				svc = new InMemorySubmodelService(new ServiceDeltaStore(token), loadSubmodel(id), true);
+				m_serviceTokens.put(id, token);
+				m_services.put(id, svc);
+			}
+			return svc;
 		}
-		catch ( Exception e ) {
-			Throwable cause = Throwables.unwrapThrowable(e);
-			throw new InternalException("" + cause);
+		finally {
+			lock.unlock();
 		}
 	}
 
 	@Override
 	public ServiceIdentifier addSubmodel(Submodel submodel) {
+		Lock lock = m_locks.get(submodel.getId());
+		lock.lock();
 		try {
+			if ( m_journal != null ) {
+				m_journal.delete(submodel.getId());
+			}
+			invalidateService(submodel.getId());
 			m_store.insert(submodel.getId(), submodel);
+			m_keyIndex.add(submodel.getId());
+			updateIndexes(submodel);
 			return toIdentifier(submodel);
 		}
 		catch ( Exception e ) {
 			Throwable cause = Throwables.unwrapThrowable(e);
 			throw new InternalException("" + cause);
 		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	@Override
 	public ServiceIdentifier updateSubmodelById(Submodel submodel) {
+		return writeSubmodel(submodel, EXTERNAL_WRITER);
+	}
+	
+	/**
+	 * 주어진 submodel로 저장된 submodel을 교체한다.
+	 * <p>
+	 * 캐시된 서비스를 통한 교체가 아닌 경우는 캐시된 서비스를 제거한다.
+	 *
+	 * @param submodel	새 submodel.
+	 * @param writer	교체를 요청한 서비스의 token. 서비스를 통하지 않은 경우는 {@link #EXTERNAL_WRITER}.
+	 */
+	private ServiceIdentifier writeSubmodel(Submodel submodel, long writer) {
+		String id = submodel.getId();
+		Lock lock = m_locks.get(id);
+		lock.lock();
 		try {
-			m_store.remove(submodel.getId());
-			m_store.insert(submodel.getId(), submodel);
+			checkWriter(id, writer);
+			if ( writer == EXTERNAL_WRITER ) {
+				invalidateService(id);
+			}
+			
+			if ( m_journal != null ) {
+				// 새 submodel이 journal의 변경 내역을 대체하기 때문에 checkpoint와 같은 방법으로 교체한다.
+				replaceSnapshot(id, submodel);
+			}
+			else {
+				m_store.remove(id);
+				m_store.insert(id, submodel);
+			}
+			m_keyIndex.add(id);
+			updateIndexes(submodel);
 			return toIdentifier(submodel);
 		}
+		catch ( StaleSubmodelServiceException e ) {
+			throw e;
+		}
 		catch ( Exception e ) {
+			// 파일 교체 도중 실패한 경우는 저장된 내용과 서비스의 내용이 다를 수 있다.
+			invalidateService(id);
 			Throwable cause = Throwables.unwrapThrowable(e);
 			throw new InternalException("" + cause);
 		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 주어진 submodel에 대한 SubmodelElement 단위의 변경 내역을 저장한다.
+	 * <p>
+	 * Journal을 사용하는 경우는 변경 내역을 journal에 추가만 하고, 누적된 변경 갯수가 정책에 설정된 값에
+	 * 도달하면 checkpoint를 요청한다. Journal을 사용하지 않는 경우는 변경 내역을 반영한 submodel 전체를
+	 * 바로 기록한다. 캐시된 서비스는 저장된 변경 내역을 알지 못하기 때문에 캐시에서 제거된다.
+	 */
+	@Override
+	public void appendSubmodelDeltas(String submodelId, List<SubmodelDelta> deltas) {
+		appendSubmodelDeltas(submodelId, deltas, EXTERNAL_WRITER);
+	}
+	
+	private void appendSubmodelDeltas(String submodelId, List<SubmodelDelta> deltas, long writer) {
+		if ( deltas.isEmpty() ) {
+			return;
+		}
+		
+		Lock lock = m_locks.get(submodelId);
+		lock.lock();
+		try {
+			if ( !m_keyIndex.contains(submodelId) ) {
+				throw new ResourceNotFoundException("SubmodelService", submodelId);
+			}
+			checkWriter(submodelId, writer);
+			if ( writer == EXTERNAL_WRITER ) {
+				invalidateService(submodelId);
+			}
+			
+			if ( m_journal == null ) {
+				Submodel submodel = readSubmodel(submodelId);
+				replay(submodel, deltas);
+				m_store.remove(submodelId);
+				m_store.insert(submodelId, submodel);
+				return;
+			}
+			
+			m_journal.append(submodelId, deltas);
+			PendingDeltas added = new PendingDeltas(deltas.size(), System.currentTimeMillis());
+			PendingDeltas pending = m_pending.merge(submodelId, added, PendingDeltas::merge);
+			if ( pending.count() >= m_policy.maxDeltas() ) {
+				try {
+					m_checkpointer.execute(() -> checkpoint(submodelId));
+				}
+				catch ( RejectedExecutionException e ) {
+					// 종료 중인 경우로 남은 journal은 close()에서 반영된다.
+				}
+			}
+		}
+		catch ( IOException | ExecutionException e ) {
+			// 변경 내역이 일부만 기록되었을 수 있으므로 서비스는 저장된 내용으로 다시 생성되어야 한다.
+			invalidateService(submodelId);
+			Throwable cause = Throwables.unwrapThrowable(e);
+			throw new InternalException("" + cause);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void replaceSubmodel(Submodel submodel) {
+		updateSubmodelById(submodel);
 	}
 
 	@Override
 	public void removeSubmodelById(String id) {
+		Lock lock = m_locks.get(id);
+		lock.lock();
 		try {
+			invalidateService(id);
 			m_store.remove(id);
+			if ( m_journal != null ) {
+				m_journal.delete(id);
+				m_pending.remove(id);
+			}
+			m_keyIndex.remove(id);
+			m_idShortIndex.remove(id);
+			m_semanticIdIndex.remove(id);
 		}
 		catch ( IOException e ) {
 			Throwable cause = Throwables.unwrapThrowable(e);
 			throw new InternalException("" + cause);
 		}
+		finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * 주어진 submodel의 journal을 submodel 파일에 반영하고 journal을 삭제한다.
+	 */
+	private void checkpoint(String id) {
+		Lock lock = m_locks.get(id);
+		lock.lock();
+		try {
+			if ( m_keyIndex.contains(id) ) {
+				Submodel submodel = readSubmodel(id);
+				if ( replayJournal(id, submodel) > 0 ) {
+					replaceSnapshot(id, submodel);
+					return;
+				}
+			}
+			m_journal.delete(id);
+			m_pending.remove(id);
+		}
+		catch ( Exception e ) {
+			s_logger.warn("failed to checkpoint submodel journal: id={}, cause={}", id, e);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+	
+	private void checkpointExpired() {
+		long due = System.currentTimeMillis() - m_policy.interval().toMillis();
+		for ( Map.Entry<String,PendingDeltas> ent: m_pending.entrySet() ) {
+			if ( ent.getValue().since() <= due ) {
+				checkpoint(ent.getKey());
+			}
+		}
+	}
+	
+	/**
+	 * 주어진 submodel 파일을 새 submodel로 교체하고 journal을 삭제한다.
+	 * <p>
+	 * 새 submodel은 journal 디렉토리의 snapshot 파일에 먼저 기록되며, journal이 삭제된 뒤에
+	 * 원래 파일을 대체한다. 호출자는 해당 submodel의 lock을 획득한 상태이어야 한다.
+	 */
+	private void replaceSnapshot(String id, Submodel submodel) throws IOException, ExecutionException {
+		// snapshot 파일은 완전히 기록된 경우에만 존재하도록 임시 파일에 기록한 뒤 rename한다.
+		// Journal을 삭제하기 전에 snapshot 내용과 rename 결과가 디스크에 반영되어 있어야 한다.
+		File snapshot = m_journal.getSnapshotFile(id);
+		File tempFile = m_journal.getTempFile(snapshot);
+		m_handler.writeFileObject(submodel, tempFile, true);
+		moveReplacing(tempFile, snapshot);
+		m_journal.sync();
+		m_journal.delete(id);
+		m_pending.remove(id);
+		moveReplacing(snapshot, m_handler.toFile(id));
+	}
+	
+	/**
+	 * 주어진 submodel에 journal의 변경 내역을 재적용한다.
+	 * <p>
+	 * Journal이 손상되었거나 더 이상 적용할 수 없는 변경 (예: 존재하지 않는 idShortPath)을 포함한 경우는
+	 * 같은 오류가 checkpoint마다 반복되지 않도록 journal을 격리(quarantine)하고 오류를 보고한다.
+	 * 이 경우 submodel은 일부 변경만 반영된 상태일 수 있으므로 사용하지 않아야 한다.
+	 * 호출자는 해당 submodel의 lock을 획득한 상태이어야 한다.
+	 *
+	 * @return	재적용된 변경 갯수.
+	 * @throws InternalException	journal을 재적용할 수 없어 격리한 경우.
+	 */
+	private int replayJournal(String id, Submodel submodel) throws IOException {
+		try {
+			List<SubmodelDelta> deltas = m_journal.read(id);
+			replay(submodel, deltas);
+			return deltas.size();
+		}
+		catch ( SubmodelJournal.CorruptedJournalException | RuntimeException e ) {
+			File quarantined = m_journal.quarantine(id);
+			m_pending.remove(id);
+			invalidateService(id);
+			s_logger.error("quarantined a submodel journal that cannot be replayed: id={}, file={}, cause={}",
+							id, quarantined, e.toString());
+			throw new InternalException("failed to replay submodel journal: id=" + id + ", quarantined="
+										+ quarantined + ", cause=" + e);
+		}
+	}
+	
+	/**
+	 * 주어진 token의 서비스가 해당 submodel의 현재 서비스인지 확인한다.
+	 * 호출자는 해당 submodel의 lock을 획득한 상태이어야 한다.
+	 */
+	private void checkWriter(String id, long writer) {
+		if ( writer != EXTERNAL_WRITER ) {
+			Long current = m_serviceTokens.get(id);
+			if ( current == null || current != writer ) {
+				throw new StaleSubmodelServiceException(id);
+			}
+		}
+	}
+	
+	/**
+	 * 주어진 submodel의 캐시된 서비스를 제거하고, 이미 얻어진 서비스를 통한 이후의 변경을 거부한다.
+	 * 호출자는 해당 submodel의 lock을 획득한 상태이어야 한다.
+	 */
+	private void invalidateService(String id) {
+		m_services.invalidate(id);
+		m_serviceTokens.remove(id);
+	}
+	
+	private Submodel readSubmodel(String id) throws IOException, ExecutionException {
+		return m_handler.readFileObject(m_handler.toFile(id));
+	}
+	
+	private static void replay(Submodel submodel, List<SubmodelDelta> deltas) {
+		if ( !deltas.isEmpty() ) {
+			SubmodelElementPathIndex index = new SubmodelElementPathIndex(submodel);
+			for ( SubmodelDelta delta: deltas ) {
+				delta.apply(index);
+			}
+		}
+	}
+	
+	private static void moveReplacing(File src, File dest) throws IOException {
+		try {
+			Files.move(src.toPath(), dest.toPath(), StandardCopyOption.ATOMIC_MOVE,
+						StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch ( AtomicMoveNotSupportedException e ) {
+			Files.move(src.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
 	}
 	
 	private ServiceIdentifier toIdentifier(Submodel sm) {
 		return new ServiceIdentifier(sm.getId());
 	}
+	
+	private void updateIndexes(Submodel submodel) {
+		String idShort = submodel.getIdShort();
+		m_idShortIndex.put(submodel.getId(), (idShort != null) ? List.of(idShort) : List.of());
+		m_semanticIdIndex.put(submodel.getId(), SemanticIds.toKeys(submodel.getSemanticId()));
+	}
+
+	/**
+	 * 캐시된 서비스의 변경 내역을 저장한다. 서비스가 더 이상 현재 서비스가 아닌 경우는 저장하지 않는다.
+	 */
+	private final class ServiceDeltaStore implements SubmodelDeltaStore {
+		private final long m_token;
+		
+		ServiceDeltaStore(long token) {
+			m_token = token;
+		}
+		
+		@Override
+		public void appendSubmodelDeltas(String submodelId, List<SubmodelDelta> deltas) {
+			FileBasedSubmodelRepository.this.appendSubmodelDeltas(submodelId, deltas, m_token);
+		}
+		
+		@Override
+		public void replaceSubmodel(Submodel submodel) {
+			writeSubmodel(submodel, m_token);
+		}
+	}
 
 	private static final class SubmodelHandler implements FileObjectHandler<String, Submodel> {
 		private final File m_rootDir;
@@ -156,8 +647,15 @@ public class FileBasedSubmodelRepository implements SubmodelRepositoryProvider {
 
 		@Override
 		public void writeFileObject(Submodel aas, File file) throws IOException, ExecutionException {
+			writeFileObject(aas, file, false);
+		}
+		
+		void writeFileObject(Submodel aas, File file, boolean sync) throws IOException, ExecutionException {
 			try ( FileOutputStream fos = new FileOutputStream(file) ) {
 				m_ser.write(fos, aas);
+				if ( sync ) {
+					fos.getFD().sync();
+				}
 			}
 			catch ( IOException e ) {
 				throw e;
@@ -1,24 +1,32 @@
 package mdt.repository;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.digitaltwin.aas4j.v3.model.AssetAdministrationShell;
 import org.eclipse.digitaltwin.aas4j.v3.model.AssetInformation;
 import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
 
+import com.google.common.collect.Lists;
+
 import utils.stream.FStream;
 
 import mdt.model.repository.AssetAdministrationShellRepository;
 
 
 /**
+ * 메모리에 적재된 AssetAdministrationShell을 대상으로 하는 AssetAdministrationShellService.
+ * <p>
+ * Shell 객체는 copy-on-write 방식으로 관리된다. 변경 연산은 shell 객체를 복사하여 변경한 새 버전을
+ * 원자적으로 교체하며, 조회 연산은 잠금 없이 현재 버전을 사용한다. 조회 결과로 반환된 객체들은
+ * 호출자가 직접 변경하지 않아야 한다. 변경된 shell은 {@link #close()}시 repository에 반영된다.
  *
  * @author Kang-Woo Lee (ETRI)
  */
 public class InMemoryAASShellService implements AssetAdministrationShellServiceProvider {
 	private final AssetAdministrationShellRepository m_repository;
-	private AssetAdministrationShell m_shell;
-	private boolean m_dirty = false;
+	private volatile AssetAdministrationShell m_shell;
+	private boolean m_dirty = false;		// 'this'의 잠금을 획득한 상태에서만 접근된다.
 	
 	public InMemoryAASShellService(AssetAdministrationShellRepository repo, AssetAdministrationShell shell) {
 		m_repository = repo;
@@ -26,7 +34,7 @@ public class InMemoryAASShellService implements AssetAdministrationShellServiceP
 	}
 
 	@Override
-	public void close() throws Exception {
+	public synchronized void close() throws Exception {
 		if ( m_dirty ) {
 			m_repository.updateAssetAdministrationShellById(m_shell);
 			m_dirty = false;
@@ -39,7 +47,8 @@ public class InMemoryAASShellService implements AssetAdministrationShellServiceP
 	}
 
 	@Override
-	public AssetAdministrationShell updateAssetAdministrationShell(AssetAdministrationShell aas) {
+	public synchronized AssetAdministrationShell updateAssetAdministrationShell(
+																		AssetAdministrationShell aas) {
 		m_shell = aas;
 		m_dirty = true;
 		return aas;
@@ -47,23 +56,29 @@ public class InMemoryAASShellService implements AssetAdministrationShellServiceP
 
 	@Override
 	public List<Reference> getAllSubmodelReferences() {
-		return m_shell.getSubmodels();
+		List<Reference> refs = m_shell.getSubmodels();
+		return (refs != null) ? Collections.unmodifiableList(refs) : null;
 	}
 
 	@Override
-	public Reference addSubmodelReference(Reference ref) {
-		m_shell.getSubmodels().add(ref);
-		m_dirty = true;
+	public synchronized Reference addSubmodelReference(Reference ref) {
+		AssetAdministrationShell next = ModelObjects.shallowCopy(m_shell);
+		List<Reference> current = m_shell.getSubmodels();
+		List<Reference> refs = (current != null) ? Lists.newArrayList(current) : Lists.newArrayList();
+		refs.add(ref);
+		next.setSubmodels(refs);
+		publish(next);
 		return ref;
 	}
 
 	@Override
-	public void deleteSubmodelReference(String submodelId) {
+	public synchronized void deleteSubmodelReference(String submodelId) {
+		AssetAdministrationShell next = ModelObjects.shallowCopy(m_shell);
 		List<Reference> updatedRefs = FStream.from(m_shell.getSubmodels())
 											.filter(ref -> !matches(ref, submodelId))
 											.toList();
-		m_shell.setSubmodels(updatedRefs);
-		m_dirty = true;
+		next.setSubmodels(updatedRefs);
+		publish(next);
 	}
 
 	@Override
@@ -72,11 +87,17 @@ public class InMemoryAASShellService implements AssetAdministrationShellServiceP
 	}
 
 	@Override
-	public AssetInformation updateAssetInformation(AssetInformation assetInfo) {
-		m_shell.setAssetInformation(assetInfo);
-		m_dirty = true;
+	public synchronized AssetInformation updateAssetInformation(AssetInformation assetInfo) {
+		AssetAdministrationShell next = ModelObjects.shallowCopy(m_shell);
+		next.setAssetInformation(assetInfo);
+		publish(next);
 		return assetInfo;
 	}
+	
+	private void publish(AssetAdministrationShell next) {
+		m_shell = next;
+		m_dirty = true;
+	}
 
 	private static boolean matches(Reference ref, String id) {
 		return FStream.from(ref.getKeys())
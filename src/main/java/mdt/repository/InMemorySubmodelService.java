@@ -1,7 +1,10 @@
 package mdt.repository;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
+import javax.annotation.Nullable;
 import javax.xml.datatype.Duration;
 
 import org.eclipse.digitaltwin.aas4j.v3.model.OperationHandle;
@@ -9,150 +12,189 @@ import org.eclipse.digitaltwin.aas4j.v3.model.OperationResult;
 import org.eclipse.digitaltwin.aas4j.v3.model.OperationVariable;
 import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
 import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
-import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementCollection;
 
-import com.google.common.base.Preconditions;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.Lists;
 
-import utils.Indexed;
-import utils.func.Funcs;
-import utils.stream.FStream;
-
-import mdt.model.registry.InvalidIdShortPathException;
-import mdt.model.registry.ResourceNotFoundException;
 import mdt.model.repository.SubmodelRepository;
 
 
 /**
+ * 메모리에 적재된 submodel을 대상으로 하는 SubmodelService.
+ * <p>
+ * 변경된 submodel은 {@link #close()}시 repository에 반영된다. {@link SubmodelDeltaStore}를 통해 생성된
+ * 경우는 submodel 전체 대신 SubmodelElement 단위의 변경 내역만을 저장하며, submodel 자체가 교체된 경우에만
+ * submodel 전체를 저장한다.
+ * <p>
+ * Submodel은 copy-on-write 방식으로 관리된다. 변경 연산은 변경 경로 상의 객체들만 복사한 새 버전의
+ * submodel을 만든 뒤 이를 원자적으로 교체하며, 나머지 element들은 이전 버전과 공유한다.
+ * 조회 연산은 잠금 없이 현재 버전을 사용하며, 반환된 객체는 이후의 변경에 영향을 받지 않는다.
+ * 따라서 조회 결과로 반환된 객체들은 호출자가 직접 변경하지 않아야 한다.
+ * 변경 연산들은 서로 직렬화된다.
  *
  * @author Kang-Woo Lee (ETRI)
  */
 public class InMemorySubmodelService implements SubmodelServiceProvider {
-	private final SubmodelRepository m_repository;
-	private Submodel m_submodel;
+	private static final JsonMapper s_mapper = JsonMapper.builder().build();
+	private static final String ROOT = "";
+	
+	@Nullable private final SubmodelRepository m_repository;
+	@Nullable private final SubmodelDeltaStore m_deltaStore;
+	private final boolean m_writeThrough;
+	private volatile Snapshot m_snapshot;
+	
+	// 아래 필드들은 'this'의 잠금을 획득한 상태에서만 접근된다.
 	private boolean m_dirty = false;
+	private final List<SubmodelDelta> m_deltas = Lists.newArrayList();
+	private boolean m_replaced = false;
+	
+	/**
+	 * Submodel의 한 버전과 그에 대한 idShortPath 색인. 색인은 경로를 통한 접근이 처음 요청될 때 생성된다.
+	 */
+	private static record Snapshot(Submodel submodel, Supplier<SubmodelElementPathIndex> index) {
+		Snapshot(Submodel submodel) {
+			this(submodel, Suppliers.memoize(() -> new SubmodelElementPathIndex(submodel)));
+		}
+		
+		Snapshot(SubmodelElementPathIndex index) {
+			this(index.getSubmodel(), Suppliers.ofInstance(index));
+		}
+	}
 	
 	public InMemorySubmodelService(SubmodelRepository repo, Submodel submodel) {
 		m_repository = repo;
-		m_submodel = submodel;
+		m_deltaStore = null;
+		m_writeThrough = false;
+		m_snapshot = new Snapshot(submodel);
+	}
+	
+	/**
+	 * 변경 내역을 주어진 저장소에 SubmodelElement 단위로 저장하는 SubmodelService를 생성한다.
+	 *
+	 * @param deltaStore	변경 내역을 저장할 저장소.
+	 * @param submodel		대상 submodel.
+	 */
+	public InMemorySubmodelService(SubmodelDeltaStore deltaStore, Submodel submodel) {
+		this(deltaStore, submodel, false);
+	}
+	
+	/**
+	 * 변경 내역을 주어진 저장소에 SubmodelElement 단위로 저장하는 SubmodelService를 생성한다.
+	 * <p>
+	 * {@code writeThrough}가 {@code true}인 경우는 변경 내역을 {@link #close()}까지 모으지 않고
+	 * 변경 요청마다 저장소에 먼저 저장한 뒤 새 버전을 반영한다. 저장이 실패하면 submodel은
+	 * 변경되지 않는다. 이 경우 여러 요청이 하나의 객체를 계속 공유할 수 있다.
+	 *
+	 * @param deltaStore	변경 내역을 저장할 저장소.
+	 * @param submodel		대상 submodel.
+	 * @param writeThrough	변경 요청마다 저장소에 저장할지 여부.
+	 */
+	public InMemorySubmodelService(SubmodelDeltaStore deltaStore, Submodel submodel, boolean writeThrough) {
+		m_repository = null;
+		m_deltaStore = deltaStore;
+		m_writeThrough = writeThrough;
+		m_snapshot = new Snapshot(submodel);
 	}
 
 	@Override
-	public void close() throws Exception {
+	public synchronized void close() throws Exception {
 		if ( m_dirty ) {
-			m_repository.updateSubmodelById(m_submodel);
+			Submodel submodel = m_snapshot.submodel();
+			if ( m_deltaStore == null ) {
+				m_repository.updateSubmodelById(submodel);
+			}
+			else if ( m_replaced ) {
+				m_deltaStore.replaceSubmodel(submodel);
+			}
+			else {
+				m_deltaStore.appendSubmodelDeltas(submodel.getId(), m_deltas);
+			}
+			m_deltas.clear();
+			m_replaced = false;
 			m_dirty = false;
 		}
 	}
 
 	@Override
 	public Submodel getSubmodel() {
-		return m_submodel;
+		return m_snapshot.submodel();
 	}
 
 	@Override
-	public Submodel updateSubmodel(Submodel submodel) {
-		m_submodel = submodel;
+	public synchronized Submodel updateSubmodel(Submodel submodel) {
+		if ( m_writeThrough ) {
+			m_deltaStore.replaceSubmodel(submodel);
+			m_snapshot = new Snapshot(submodel);
+			return submodel;
+		}
+		
+		m_snapshot = new Snapshot(submodel);
+		m_replaced = true;
+		m_deltas.clear();
 		m_dirty = true;
 		return submodel;
 	}
 
 	@Override
 	public List<SubmodelElement> getAllSubmodelElements() {
-		return m_submodel.getSubmodelElements();
+		List<SubmodelElement> elements = m_snapshot.submodel().getSubmodelElements();
+		return (elements != null) ? Collections.unmodifiableList(elements) : null;
 	}
 
 	@Override
 	public SubmodelElement getSubmodelElementByPath(String idShortPath) {
-		return FStream.from(m_submodel.getSubmodelElements())
-						.findFirst(sme -> idShortPath.equals(sme.getIdShort()))
-						.getOrThrow(() -> new ResourceNotFoundException("SubmodelElement", idShortPath));
+		return m_snapshot.index().get().get(idShortPath);
 	}
 
 	@Override
 	public SubmodelElement addSubmodelElement(SubmodelElement element) {
-		m_submodel.getSubmodelElements().add(element);
-		m_dirty = true;
+		addElement(ROOT, element);
 		return element;
 	}
 
 	@Override
 	public SubmodelElement addSubmodelElementByPath(String idShortPath, SubmodelElement element) {
-		String parentIdShortPath = FStream.of(idShortPath.split("."))
-											.dropLast(1)
-											.join('.');
-		SubmodelElement sme = traverse(m_submodel, parentIdShortPath);
-		if ( sme instanceof SubmodelElementCollection smec ) {
-			List<SubmodelElement> values = smec.getValue();
-			values.add(element);
-			smec.setValue(values);
-			m_dirty = true;
-			
-			return element;
-		}
-		else {
-			throw new ResourceNotFoundException("SubmodelElement", idShortPath);
-		}
+		addElement(SubmodelElementPathIndex.getParentPath(idShortPath), element);
+		return element;
 	}
 
 	@Override
-	public SubmodelElement updateSubmodelElementByPath(String idShortPath, SubmodelElement element) {
-		String[] pathSegs = idShortPath.split(".");
-		String parentIdShortPath = FStream.of(pathSegs)
-											.dropLast(1)
-											.join('.');
-		
-		String lastPathSeg = pathSegs[pathSegs.length-1];
-		SubmodelElement parent = traverse(m_submodel, parentIdShortPath);
-		if ( parent instanceof SubmodelElementCollection smec ) {
-			List<SubmodelElement> values = smec.getValue();
-			int idx = Funcs.findFirstIndexed(values, sme -> sme.getIdShort().equals(lastPathSeg))
-							.map(Indexed::index)
-							.getOrNull();
-			if ( idx >= 0 ) {
-				values.set(idx, element);
-				m_dirty = true;
-				return element;
-			}
-			else {
-				throw new InvalidIdShortPathException(idShortPath, "Invalid IdShortPath");
-			}
-		}
-		else {
-			throw new InvalidIdShortPathException(idShortPath, "Terminal SubmodelElement is not a collection");
-		}
+	public synchronized SubmodelElement updateSubmodelElementByPath(String idShortPath,
+																	SubmodelElement element) {
+		String parentPath = SubmodelElementPathIndex.getParentPath(idShortPath);
+		SubmodelElementPathIndex next = m_snapshot.index().get().copyForStructureUpdate(parentPath);
+		next.replace(idShortPath, element);
+		publish(next, () -> SubmodelDelta.UPDATE(idShortPath, element));
+		return element;
 	}
 
+	/**
+	 * 주어진 idShortPath의 element 값을 value-only 형태 ({@code $value})의 값으로 변경한다.
+	 * <p>
+	 * 대상 element와 그 하위 element들만을 복사한 새 버전에 값 속성을 반영한다.
+	 * 값이 문자열인 경우는 value-only 형태의 JSON 문서로 간주하여 파싱하고, 그 밖의 객체는
+	 * JSON 트리로 변환하여 사용한다. 값의 반영이 실패한 경우는 submodel이 변경되지 않는다.
+	 *
+	 * @param idShortPath	대상 element의 idShortPath.
+	 * @param element		변경할 값.
+	 */
 	@Override
-	public void updateSubmodelElementValueByPath(String idShortPath, Object element) {
-		m_dirty = true;
+	public synchronized void updateSubmodelElementValueByPath(String idShortPath, Object element) {
+		JsonNode value = toValueTree(element);
+		SubmodelElementPathIndex next = m_snapshot.index().get().copyForValueUpdate(idShortPath);
+		SubmodelElementValues.update(next, idShortPath, value);
+		publish(next, () -> SubmodelDelta.VALUE(idShortPath, value));
 	}
 
 	@Override
-	public void deleteSubmodelElementByPath(String idShortPath) {
-		String[] pathSegs = idShortPath.split(".");
-		String parentIdShortPath = FStream.of(pathSegs)
-											.dropLast(1)
-											.join('.');
-		
-		String lastPathSeg = pathSegs[pathSegs.length-1];
-		SubmodelElement parent = traverse(m_submodel, parentIdShortPath);
-		if ( parent instanceof SubmodelElementCollection smec ) {
-			List<SubmodelElement> values = smec.getValue();
-			
-			int idx = Funcs.findFirstIndexed(values, sme -> sme.getIdShort().equals(lastPathSeg))
-							.map(Indexed::index)
-							.getOrNull();
-			if ( idx >= 0 ) {
-				values.remove(idx);
-				m_dirty = true;
-			}
-			else {
-				throw new InvalidIdShortPathException(idShortPath, "Invalid IdShortPath");
-			}
-		}
-		else {
-			throw new InvalidIdShortPathException(idShortPath, "Terminal SubmodelElement is not a collection");
-		}
+	public synchronized void deleteSubmodelElementByPath(String idShortPath) {
+		String parentPath = SubmodelElementPathIndex.getParentPath(idShortPath);
+		SubmodelElementPathIndex next = m_snapshot.index().get().copyForStructureUpdate(parentPath);
+		next.remove(idShortPath);
+		publish(next, () -> SubmodelDelta.DELETE(idShortPath));
 	}
 
 	@Override
@@ -172,34 +214,65 @@ public class InMemorySubmodelService implements SubmodelServiceProvider {
 		throw new UnsupportedOperationException();
 	}
 	
-	private static SubmodelElement traverse(Submodel submodel, String idShortPath) {
-		Preconditions.checkNotNull(submodel, "Submodel was null");
-		Preconditions.checkNotNull(idShortPath, "idShortPath was null");
-		
-		String[] pathSegs =idShortPath.split(".");
-		Preconditions.checkArgument(pathSegs.length > 0);
-		
-		SubmodelElement found = null;
-		List<SubmodelElement> smeList = submodel.getSubmodelElements();
-		for ( int cursor = 0; cursor < pathSegs.length; ++cursor ) {
-			String key = pathSegs[cursor];
-			found = FStream.from(smeList)
-							.findFirst(sme -> key.equals(sme.getIdShort()))
-							.getOrNull();
-			if ( smeList == null ) {
-				throw new ResourceNotFoundException("SubmodelElement", idShortPath);
+	private static JsonNode toValueTree(Object value) {
+		if ( value instanceof JsonNode node ) {
+			return node;
+		}
+		else if ( value instanceof String json ) {
+			try {
+				return s_mapper.readTree(json);
 			}
-
-			if ( (cursor+1) < pathSegs.length ) {
-				if ( smeList instanceof SubmodelElementCollection smec ) {
-					smeList = smec.getValue();
-				}
-				else {
-					throw new ResourceNotFoundException("SubmodelElement", idShortPath);
-				}
+			catch ( JsonProcessingException e ) {
+				throw new IllegalArgumentException("invalid value-only JSON: " + e.getOriginalMessage());
 			}
 		}
+		else {
+			return s_mapper.valueToTree(value);
+		}
+	}
+	
+	private synchronized void addElement(String parentPath, SubmodelElement element) {
+		SubmodelElementPathIndex next = m_snapshot.index().get().copyForStructureUpdate(parentPath);
+		next.add(parentPath, element);
+		publish(next, () -> SubmodelDelta.ADD(parentPath, element));
+	}
+	
+	/**
+	 * 주어진 색인의 submodel을 현재 버전으로 설정하고 해당 변경을 기록한다.
+	 * write-through 모드인 경우는 변경을 먼저 저장한 뒤 새 버전을 설정한다.
+	 */
+	private void publish(SubmodelElementPathIndex next, Supplier<SubmodelDelta> delta) {
+		if ( m_writeThrough ) {
+			m_deltaStore.appendSubmodelDeltas(next.getSubmodel().getId(), List.of(delta.get()));
+			m_snapshot = new Snapshot(next);
+			return;
+		}
 		
-		return found;
+		m_snapshot = new Snapshot(next);
+		recordDelta(delta);
+		m_dirty = true;
+	}
+	
+	/**
+	 * 변경 내역을 저장하는 경우 주어진 변경을 기록한다.
+	 * <p>
+	 * 동일 element에 대한 기본 값 (Property 값 등)의 변경이 연속된 경우는 마지막 값만을 유지한다.
+	 * 객체 형태의 값은 일부 속성만을 변경할 수 있기 때문에 합치지 않는다.
+	 */
+	private void recordDelta(Supplier<SubmodelDelta> delta) {
+		if ( m_deltaStore == null || m_replaced ) {
+			return;
+		}
+		
+		SubmodelDelta added = delta.get();
+		int last = m_deltas.size() - 1;
+		if ( added.op() == SubmodelDelta.Op.VALUE && added.value().isValueNode() && last >= 0 ) {
+			SubmodelDelta prev = m_deltas.get(last);
+			if ( prev.op() == SubmodelDelta.Op.VALUE && prev.path().equals(added.path()) ) {
+				m_deltas.set(last, added);
+				return;
+			}
+		}
+		m_deltas.add(added);
 	}
 }
@@ -0,0 +1,56 @@
+package mdt.repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+
+/**
+ * JSON 파일 전체를 역직렬화하지 않고 최상위 객체의 일부 속성만을 읽는 유틸리티.
+ * <p>
+ * 저장된 AAS/Submodel 파일들로부터 색인 생성에 필요한 속성만을 얻기 위해 사용된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+final class JsonFieldReader {
+	private static final JsonMapper s_mapper = JsonMapper.builder().build();
+
+	private JsonFieldReader() {
+		throw new AssertionError("Should not be called: class=" + JsonFieldReader.class);
+	}
+
+	/**
+	 * 주어진 JSON 파일의 최상위 객체에서 주어진 속성들만을 읽는다.
+	 * 나머지 속성들은 트리로 만들지 않고 건너뛴다.
+	 *
+	 * @param file		JSON 파일.
+	 * @param fields	읽을 속성 이름 집합.
+	 * @return	읽은 속성들로 구성된 JSON 객체. 최상위 값이 객체가 아닌 경우는 빈 객체.
+	 * @throws IOException	파일 읽기 중 오류가 발생된 경우.
+	 */
+	static ObjectNode read(File file, Set<String> fields) throws IOException {
+		ObjectNode found = s_mapper.createObjectNode();
+		try ( JsonParser parser = s_mapper.createParser(file) ) {
+			if ( parser.nextToken() != JsonToken.START_OBJECT ) {
+				return found;
+			}
+			while ( parser.nextToken() == JsonToken.FIELD_NAME && found.size() < fields.size() ) {
+				String field = parser.getCurrentName();
+				parser.nextToken();
+				if ( fields.contains(field) ) {
+					found.set(field, (JsonNode)parser.readValueAsTree());
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+			return found;
+		}
+	}
+}
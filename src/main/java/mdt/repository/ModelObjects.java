@@ -0,0 +1,118 @@
+package mdt.repository;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.digitaltwin.aas4j.v3.model.Entity;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementCollection;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementList;
+import org.springframework.beans.BeanUtils;
+
+import com.google.common.collect.Lists;
+
+
+/**
+ * Copy-on-write 방식으로 AAS 모델 객체의 새 버전을 만들기 위한 복사 유틸리티.
+ * <p>
+ * aas4j 모델 객체는 복사 기능을 제공하지 않기 때문에 동일 클래스의 객체를 생성한 뒤
+ * getter/setter 속성들을 복사한다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+final class ModelObjects {
+	private ModelObjects() {
+		throw new AssertionError("Should not be called: class=" + ModelObjects.class);
+	}
+
+	/**
+	 * 주어진 객체의 얕은 복사본을 생성한다. 속성 값으로 참조되는 객체들은 원본과 공유된다.
+	 *
+	 * @param obj	복사할 객체.
+	 * @return	복사된 객체.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> T shallowCopy(T obj) {
+		T copy = (T)BeanUtils.instantiateClass(obj.getClass());
+		BeanUtils.copyProperties(obj, copy);
+		return copy;
+	}
+
+	/**
+	 * 주어진 SubmodelElement의 얕은 복사본을 생성한다. 하위 element를 갖는 element의 경우는
+	 * 하위 element 목록도 새로 생성하여 복사본의 목록 변경이 원본에 영향을 주지 않도록 한다.
+	 * 새 목록은 원본 목록과 chunk들을 공유하는 {@link ChunkedElementList}이다.
+	 *
+	 * @param element	복사할 element.
+	 * @return	복사된 element.
+	 */
+	static SubmodelElement copyNode(SubmodelElement element) {
+		SubmodelElement copy = shallowCopy(element);
+		List<SubmodelElement> children = getChildren(element);
+		if ( children != null ) {
+			setChildren(copy, ChunkedElementList.copyOf(children));
+		}
+		return copy;
+	}
+
+	/**
+	 * 주어진 SubmodelElement와 모든 하위 element들의 복사본을 생성한다.
+	 *
+	 * @param element	복사할 element.
+	 * @return	복사된 element.
+	 */
+	static SubmodelElement copyTree(SubmodelElement element) {
+		SubmodelElement copy = shallowCopy(element);
+		List<SubmodelElement> children = getChildren(element);
+		if ( children != null ) {
+			List<SubmodelElement> copied = Lists.newArrayListWithCapacity(children.size());
+			for ( SubmodelElement child: children ) {
+				copied.add(copyTree(child));
+			}
+			setChildren(copy, copied);
+		}
+		return copy;
+	}
+
+	/**
+	 * 주어진 element의 하위 element 목록을 반환한다.
+	 *
+	 * @return	하위 element 목록. 하위 element를 가질 수 없거나 목록이 없는 경우는 {@code null}.
+	 */
+	static @Nullable List<SubmodelElement> getChildren(@Nullable SubmodelElement element) {
+		if ( element instanceof SubmodelElementCollection smec ) {
+			return smec.getValue();
+		}
+		else if ( element instanceof SubmodelElementList sml ) {
+			return sml.getValue();
+		}
+		else if ( element instanceof Entity entity ) {
+			return entity.getStatements();
+		}
+		else {
+			return null;
+		}
+	}
+
+	/**
+	 * 주어진 element의 하위 element 목록을 설정한다.
+	 *
+	 * @return	설정된 경우는 {@code true}, 하위 element를 가질 수 없는 element인 경우는 {@code false}.
+	 */
+	static boolean setChildren(SubmodelElement element, List<SubmodelElement> children) {
+		if ( element instanceof SubmodelElementCollection smec ) {
+			smec.setValue(children);
+		}
+		else if ( element instanceof SubmodelElementList sml ) {
+			sml.setValue(children);
+		}
+		else if ( element instanceof Entity entity ) {
+			entity.setStatements(children);
+		}
+		else {
+			return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,262 @@
+package mdt.repository;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+
+/**
+ * idShortPath를 키로 하는 copy-on-write 방식의 hash array mapped trie.
+ * <p>
+ * {@link #copy()}는 trie의 루트만을 공유한 새 map을 만들며, 이후 어느 한쪽의 추가/삭제는
+ * 해당 키가 위치한 trie 경로 상의 노드들만 복사한다. 따라서 복사와 한 키의 변경은 전체 키 갯수가 아닌
+ * trie의 깊이 (키 갯수의 log<sub>32</sub>)에 비례하는 비용으로 수행된다.
+ * 한 번 복사된 노드는 해당 map이 다시 복사되기 전까지 복사 없이 변경된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+final class PersistentPathMap<V> {
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+	private static final int MAX_SHIFT = 32;
+	private static final Object[] NO_SLOTS = new Object[0];
+
+	// 이 map이 복사 없이 변경할 수 있는 노드들의 소유자 표식. 복사될 때마다 새로 생성된다.
+	private Object m_owner = new Object();
+	private Trie m_root;
+	private int m_size;
+
+	private static record Leaf(String key, Object value) { }
+
+	/**
+	 * Trie 노드. {@code bitmap}에 설정된 해시 조각 순서대로 {@link Leaf} 혹은 하위 노드를 갖는다.
+	 * 해시 값을 모두 사용한 깊이의 노드는 해시가 충돌한 {@link Leaf}들을 순서대로 갖는다.
+	 */
+	private static final class Trie {
+		private final Object m_owner;
+		private int m_bitmap;
+		private Object[] m_slots;
+
+		Trie(Object owner, int bitmap, Object[] slots) {
+			m_owner = owner;
+			m_bitmap = bitmap;
+			m_slots = slots;
+		}
+	}
+
+	PersistentPathMap() {
+		m_root = new Trie(m_owner, 0, NO_SLOTS);
+		m_size = 0;
+	}
+
+	private PersistentPathMap(Trie root, int size) {
+		m_root = root;
+		m_size = size;
+	}
+
+	int size() {
+		return m_size;
+	}
+
+	/**
+	 * 이 map과 trie를 공유하는 복사본을 생성한다. 이후의 변경은 서로에게 영향을 주지 않는다.
+	 *
+	 * @return	복사된 map.
+	 */
+	PersistentPathMap<V> copy() {
+		// 공유된 노드들은 이 map에서도 변경 전에 복사되어야 한다.
+		m_owner = new Object();
+		return new PersistentPathMap<>(m_root, m_size);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Nullable V get(String key) {
+		int hash = hash(key);
+		Trie node = m_root;
+		for ( int shift = 0;; shift += BITS ) {
+			if ( shift >= MAX_SHIFT ) {
+				int idx = indexOfCollision(node, key);
+				return (idx >= 0) ? (V)((Leaf)node.m_slots[idx]).value() : null;
+			}
+
+			int bit = bit(hash, shift);
+			if ( (node.m_bitmap & bit) == 0 ) {
+				return null;
+			}
+			Object slot = node.m_slots[slotIndex(node.m_bitmap, bit)];
+			if ( slot instanceof Leaf leaf ) {
+				return leaf.key().equals(key) ? (V)leaf.value() : null;
+			}
+			node = (Trie)slot;
+		}
+	}
+
+	void put(String key, V value) {
+		m_root = put(m_root, 0, hash(key), key, value);
+	}
+
+	/**
+	 * 주어진 키가 없는 경우에만 값을 추가한다.
+	 *
+	 * @return	이미 존재하는 값. 새로 추가된 경우는 {@code null}.
+	 */
+	@Nullable V putIfAbsent(String key, V value) {
+		V prev = get(key);
+		if ( prev == null ) {
+			put(key, value);
+		}
+		return prev;
+	}
+
+	void remove(String key) {
+		Trie root = remove(m_root, 0, hash(key), key);
+		m_root = (root != null) ? root : new Trie(m_owner, 0, NO_SLOTS);
+	}
+
+	private Trie put(Trie node, int shift, int hash, String key, Object value) {
+		if ( shift >= MAX_SHIFT ) {
+			int idx = indexOfCollision(node, key);
+			node = toWritable(node);
+			if ( idx >= 0 ) {
+				node.m_slots[idx] = new Leaf(key, value);
+			}
+			else {
+				node.m_slots = insert(node.m_slots, node.m_slots.length, new Leaf(key, value));
+				++m_size;
+			}
+			return node;
+		}
+
+		int bit = bit(hash, shift);
+		int idx = slotIndex(node.m_bitmap, bit);
+		if ( (node.m_bitmap & bit) == 0 ) {
+			node = toWritable(node);
+			node.m_slots = insert(node.m_slots, idx, new Leaf(key, value));
+			node.m_bitmap |= bit;
+			++m_size;
+			return node;
+		}
+
+		Object slot = node.m_slots[idx];
+		Object replaced;
+		if ( slot instanceof Leaf leaf ) {
+			if ( leaf.key().equals(key) ) {
+				replaced = new Leaf(key, value);
+			}
+			else {
+				// 같은 해시 조각을 갖는 두 키는 하위 노드로 나눈다.
+				Trie sub = new Trie(m_owner, 0, NO_SLOTS);
+				sub = put(sub, shift + BITS, hash(leaf.key()), leaf.key(), leaf.value());
+				--m_size;
+				replaced = put(sub, shift + BITS, hash, key, value);
+			}
+		}
+		else {
+			Trie child = (Trie)slot;
+			replaced = put(child, shift + BITS, hash, key, value);
+			if ( replaced == child ) {
+				return node;
+			}
+		}
+
+		node = toWritable(node);
+		node.m_slots[idx] = replaced;
+		return node;
+	}
+
+	/**
+	 * 주어진 노드에서 키를 삭제한다.
+	 *
+	 * @return	삭제 후의 노드. 노드가 비게 된 경우는 {@code null}.
+	 */
+	private @Nullable Trie remove(Trie node, int shift, int hash, String key) {
+		if ( shift >= MAX_SHIFT ) {
+			int idx = indexOfCollision(node, key);
+			if ( idx < 0 ) {
+				return node;
+			}
+			node = toWritable(node);
+			node.m_slots = delete(node.m_slots, idx);
+			--m_size;
+			return (node.m_slots.length > 0) ? node : null;
+		}
+
+		int bit = bit(hash, shift);
+		if ( (node.m_bitmap & bit) == 0 ) {
+			return node;
+		}
+		int idx = slotIndex(node.m_bitmap, bit);
+		Object slot = node.m_slots[idx];
+		if ( slot instanceof Leaf leaf ) {
+			if ( !leaf.key().equals(key) ) {
+				return node;
+			}
+			--m_size;
+			return deleteSlot(node, idx, bit);
+		}
+
+		Trie child = (Trie)slot;
+		Trie removed = remove(child, shift + BITS, hash, key);
+		if ( removed == child ) {
+			return node;
+		}
+		else if ( removed == null ) {
+			return deleteSlot(node, idx, bit);
+		}
+		else {
+			node = toWritable(node);
+			node.m_slots[idx] = removed;
+			return node;
+		}
+	}
+
+	private @Nullable Trie deleteSlot(Trie node, int idx, int bit) {
+		if ( node.m_bitmap == bit ) {
+			return null;
+		}
+		node = toWritable(node);
+		node.m_slots = delete(node.m_slots, idx);
+		node.m_bitmap &= ~bit;
+		return node;
+	}
+
+	private Trie toWritable(Trie node) {
+		return (node.m_owner == m_owner) ? node : new Trie(m_owner, node.m_bitmap, node.m_slots.clone());
+	}
+
+	private static int indexOfCollision(Trie node, String key) {
+		for ( int i = 0; i < node.m_slots.length; ++i ) {
+			if ( ((Leaf)node.m_slots[i]).key().equals(key) ) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static Object[] insert(Object[] slots, int idx, Object slot) {
+		Object[] inserted = new Object[slots.length + 1];
+		System.arraycopy(slots, 0, inserted, 0, idx);
+		inserted[idx] = slot;
+		System.arraycopy(slots, idx, inserted, idx + 1, slots.length - idx);
+		return inserted;
+	}
+
+	private static Object[] delete(Object[] slots, int idx) {
+		Object[] deleted = Arrays.copyOf(slots, slots.length - 1);
+		System.arraycopy(slots, idx + 1, deleted, idx, slots.length - idx - 1);
+		return deleted;
+	}
+
+	private static int hash(String key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static int bit(int hash, int shift) {
+		return 1 << ((hash >>> shift) & MASK);
+	}
+
+	private static int slotIndex(int bitmap, int bit) {
+		return Integer.bitCount(bitmap & (bit - 1));
+	}
+}
@@ -0,0 +1,112 @@
+package mdt.repository;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.DeserializationException;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.SerializationException;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonDeserializer;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonSerializer;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import mdt.model.InternalException;
+
+
+/**
+ * Submodel에 대한 SubmodelElement 단위의 변경 하나.
+ * <p>
+ * Submodel 전체를 다시 기록하지 않고 변경 내역만을 journal에 기록하기 위해 사용되며,
+ * journal을 재적용(replay)할 때는 기록된 순서대로 {@link #apply(SubmodelElementPathIndex)}를 호출한다.
+ *
+ * @param op	변경 종류.
+ * @param path	대상 element의 idShortPath. {@link Op#ADD}의 경우는 부모 element의 idShortPath이며,
+ * 				Submodel 최상위에 추가하는 경우는 빈 문자열이다.
+ * @param value	{@link Op#ADD}, {@link Op#UPDATE}의 경우는 element의 JSON,
+ * 				{@link Op#VALUE}의 경우는 value-only 형태의 값. {@link Op#DELETE}의 경우는 {@code null}.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SubmodelDelta(@JsonProperty("op") Op op,
+							@JsonProperty("path") String path,
+							@JsonProperty("value") @Nullable JsonNode value) {
+	private static final JsonMapper s_mapper = JsonMapper.builder().build();
+	private static final JsonSerializer s_ser = new JsonSerializer();
+	private static final JsonDeserializer s_deser = new JsonDeserializer();
+
+	public enum Op { ADD, UPDATE, DELETE, VALUE }
+
+	public static SubmodelDelta ADD(String parentPath, SubmodelElement element) {
+		return new SubmodelDelta(Op.ADD, parentPath, toTree(element));
+	}
+
+	public static SubmodelDelta UPDATE(String idShortPath, SubmodelElement element) {
+		return new SubmodelDelta(Op.UPDATE, idShortPath, toTree(element));
+	}
+
+	public static SubmodelDelta DELETE(String idShortPath) {
+		return new SubmodelDelta(Op.DELETE, idShortPath, null);
+	}
+
+	public static SubmodelDelta VALUE(String idShortPath, JsonNode value) {
+		return new SubmodelDelta(Op.VALUE, idShortPath, value.deepCopy());
+	}
+
+	/**
+	 * 변경을 주어진 submodel의 idShortPath 색인을 통해 submodel에 반영한다.
+	 *
+	 * @param index	대상 submodel의 idShortPath 색인.
+	 */
+	void apply(SubmodelElementPathIndex index) {
+		switch ( op ) {
+			case ADD:
+				index.add(path, toElement(value));
+				break;
+			case UPDATE:
+				index.replace(path, toElement(value));
+				break;
+			case DELETE:
+				index.remove(path);
+				break;
+			case VALUE:
+				SubmodelElementValues.update(index, path, value);
+				break;
+		}
+	}
+
+	public String toJson() {
+		try {
+			return s_mapper.writeValueAsString(this);
+		}
+		catch ( JsonProcessingException e ) {
+			throw new InternalException("" + e);
+		}
+	}
+
+	public static SubmodelDelta parseJson(String json) throws JsonProcessingException {
+		return s_mapper.readValue(json, SubmodelDelta.class);
+	}
+
+	private static JsonNode toTree(SubmodelElement element) {
+		try {
+			return s_mapper.readTree(s_ser.write(element));
+		}
+		catch ( SerializationException | JsonProcessingException e ) {
+			throw new InternalException("" + e);
+		}
+	}
+
+	private static SubmodelElement toElement(JsonNode json) {
+		try {
+			return s_deser.read(json.toString(), SubmodelElement.class);
+		}
+		catch ( DeserializationException e ) {
+			throw new InternalException("" + e);
+		}
+	}
+}
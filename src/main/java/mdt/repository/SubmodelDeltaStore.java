@@ -0,0 +1,31 @@
+package mdt.repository;
+
+import java.util.List;
+
+import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
+
+import mdt.model.registry.ResourceNotFoundException;
+
+
+/**
+ * Submodel 전체 대신 SubmodelElement 단위의 변경 내역을 저장할 수 있는 저장소.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public interface SubmodelDeltaStore {
+	/**
+	 * 주어진 submodel에 대한 변경 내역을 순서대로 저장한다.
+	 *
+	 * @param submodelId	대상 submodel 식별자.
+	 * @param deltas		변경 내역 목록.
+	 * @throws ResourceNotFoundException	해당 submodel이 존재하지 않는 경우.
+	 */
+	public void appendSubmodelDeltas(String submodelId, List<SubmodelDelta> deltas);
+
+	/**
+	 * 주어진 submodel 전체를 저장한다. 저장되지 않은 이전 변경 내역은 새 submodel로 대체된다.
+	 *
+	 * @param submodel	저장할 submodel.
+	 */
+	public void replaceSubmodel(Submodel submodel);
+}
@@ -0,0 +1,311 @@
+package mdt.repository;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementList;
+
+import com.google.common.collect.Lists;
+
+import mdt.model.registry.InvalidIdShortPathException;
+import mdt.model.registry.ResourceNotFoundException;
+
+
+/**
+ * Submodel에 포함된 SubmodelElement들의 idShortPath 색인.
+ * <p>
+ * 각 idShortPath에 대해 부모 element의 idShortPath와 부모 내에서의 위치를 유지하기 때문에
+ * 경로에 해당하는 element 조회, 교체, 삭제는 트리 전체를 순회하지 않고 경로의 깊이에 비례하는 비용으로
+ * 수행된다. 경로는 {@code a.b.c}와 같이 '.'으로 연결되며, {@link SubmodelElementList}의 원소는
+ * {@code list[3]}과 같이 위치로 지정된다. 색인은 이 객체를 통한 추가/교체/삭제시 함께 갱신된다.
+ * <p>
+ * 색인은 element 객체를 직접 참조하지 않기 때문에, {@link #copyForStructureUpdate(String)}와
+ * {@link #copyForValueUpdate(String)}를 통해 변경 경로 상의 객체들만 복사한 submodel의 새 버전과
+ * 그에 대한 색인을 만들 수 있다. 복사되지 않은 element들은 이전 버전과 공유된다.
+ * 복사되는 자식 목록({@link ChunkedElementList})과 경로 정보({@link PersistentPathMap})도 변경된 부분만
+ * 새로 만들고 나머지는 이전 버전과 공유하기 때문에, 새 버전을 만드는 비용은 submodel 전체 크기가 아닌
+ * 변경 경로의 길이에 비례한다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+final class SubmodelElementPathIndex {
+	private static final String ROOT = "";
+
+	private final Submodel m_submodel;
+	private final PersistentPathMap<Node> m_nodes;
+
+	private static record Node(String parentPath, int position) { }
+
+	SubmodelElementPathIndex(Submodel submodel) {
+		m_submodel = submodel;
+		m_nodes = new PersistentPathMap<>();
+
+		List<SubmodelElement> elements = submodel.getSubmodelElements();
+		if ( elements != null ) {
+			indexChildren(ROOT, false, elements);
+		}
+	}
+
+	private SubmodelElementPathIndex(Submodel submodel, PersistentPathMap<Node> nodes) {
+		m_submodel = submodel;
+		m_nodes = nodes;
+	}
+
+	Submodel getSubmodel() {
+		return m_submodel;
+	}
+
+	/**
+	 * 주어진 idShortPath의 SubmodelElement를 반환한다.
+	 *
+	 * @param idShortPath	대상 element의 idShortPath.
+	 * @return	SubmodelElement 객체.
+	 * @throws ResourceNotFoundException	해당 경로의 element가 없는 경우.
+	 */
+	SubmodelElement get(String idShortPath) {
+		Node node = locate(idShortPath);
+		List<SubmodelElement> siblings = node.parentPath().equals(ROOT)
+										? m_submodel.getSubmodelElements()
+										: ModelObjects.getChildren(get(node.parentPath()));
+		if ( siblings == null || node.position() >= siblings.size() ) {
+			throw new ResourceNotFoundException("SubmodelElement", idShortPath);
+		}
+		return siblings.get(node.position());
+	}
+
+	/**
+	 * 주어진 부모 element의 자식 목록 변경을 위해, submodel에서 부모 element까지의 경로 상에 있는
+	 * 객체들과 그 자식 목록만을 복사한 새 버전의 submodel과 이에 대한 색인을 생성한다.
+	 * <p>
+	 * 반환된 색인을 통한 추가/교체/삭제는 이 색인과 원래 submodel에 영향을 주지 않는다.
+	 *
+	 * @param parentPath	변경될 자식 목록을 가진 element의 idShortPath. Submodel 최상위인 경우는 빈 문자열.
+	 * @return	새 버전의 submodel에 대한 색인.
+	 */
+	SubmodelElementPathIndex copyForStructureUpdate(String parentPath) {
+		return new SubmodelElementPathIndex(copyPath(parentPath, false), m_nodes.copy());
+	}
+
+	/**
+	 * 주어진 element의 값 변경을 위해, submodel에서 해당 element까지의 경로 상에 있는 객체들과
+	 * element 하위 트리 전체를 복사한 새 버전의 submodel과 이에 대한 색인을 생성한다.
+	 * <p>
+	 * 값 변경은 트리 구조를 바꾸지 않기 때문에 반환된 색인은 이 색인의 경로 정보를 공유한다.
+	 * 따라서 반환된 색인을 통해서는 추가/교체/삭제를 수행하지 않아야 한다.
+	 *
+	 * @param idShortPath	값이 변경될 element의 idShortPath.
+	 * @return	새 버전의 submodel에 대한 색인.
+	 */
+	SubmodelElementPathIndex copyForValueUpdate(String idShortPath) {
+		return new SubmodelElementPathIndex(copyPath(idShortPath, true), m_nodes);
+	}
+
+	/**
+	 * 주어진 부모 element의 마지막 자식으로 element를 추가한다.
+	 *
+	 * @param parentPath	부모 element의 idShortPath. Submodel 최상위에 추가하는 경우는 빈 문자열.
+	 * @param element		추가할 element.
+	 */
+	void add(String parentPath, SubmodelElement element) {
+		boolean ordinal = isOrdinal(parentPath);
+		List<SubmodelElement> children = getChildList(parentPath);
+		int position = children.size();
+		children.add(element);
+
+		String path = toChildPath(parentPath, ordinal, element, position);
+		if ( path != null ) {
+			indexTree(path, parentPath, position, element);
+		}
+	}
+
+	/**
+	 * 주어진 idShortPath의 element를 새 element로 교체한다.
+	 *
+	 * @param idShortPath	교체할 element의 idShortPath.
+	 * @param element		새 element.
+	 */
+	void replace(String idShortPath, SubmodelElement element) {
+		Node node = locate(idShortPath);
+		boolean ordinal = isOrdinal(node.parentPath());
+		SubmodelElement prev = getChildList(node.parentPath()).set(node.position(), element);
+		unindexTree(idShortPath, node, prev);
+
+		String path = toChildPath(node.parentPath(), ordinal, element, node.position());
+		if ( path != null ) {
+			indexTree(path, node.parentPath(), node.position(), element);
+		}
+	}
+
+	/**
+	 * 주어진 idShortPath의 element를 삭제한다.
+	 * <p>
+	 * 삭제된 element 뒤의 형제 element들은 위치가 하나씩 앞당겨지며, 부모가 {@link SubmodelElementList}인
+	 * 경우는 이들의 경로도 함께 변경된다.
+	 *
+	 * @param idShortPath	삭제할 element의 idShortPath.
+	 */
+	void remove(String idShortPath) {
+		Node node = locate(idShortPath);
+		String parentPath = node.parentPath();
+		boolean ordinal = isOrdinal(parentPath);
+		List<SubmodelElement> children = getChildList(parentPath);
+		SubmodelElement removed = children.remove(node.position());
+		unindexTree(idShortPath, node, removed);
+
+		for ( int i = node.position(); i < children.size(); ++i ) {
+			SubmodelElement sibling = children.get(i);
+			if ( ordinal ) {
+				String prevPath = toChildPath(parentPath, true, sibling, i+1);
+				unindexTree(prevPath, new Node(parentPath, i+1), sibling);
+				indexTree(toChildPath(parentPath, true, sibling, i), parentPath, i, sibling);
+			}
+			else {
+				String path = toChildPath(parentPath, false, sibling, i);
+				if ( path != null && new Node(parentPath, i+1).equals(m_nodes.get(path)) ) {
+					m_nodes.put(path, new Node(parentPath, i));
+				}
+			}
+		}
+	}
+
+	/**
+	 * 주어진 idShortPath에서 부모 element의 idShortPath를 구한다.
+	 *
+	 * @param idShortPath	대상 idShortPath.
+	 * @return	부모 element의 idShortPath. 최상위 element인 경우는 빈 문자열.
+	 */
+	static String getParentPath(String idShortPath) {
+		int idx = idShortPath.endsWith("]") ? idShortPath.lastIndexOf('[') : idShortPath.lastIndexOf('.');
+		return (idx >= 0) ? idShortPath.substring(0, idx) : ROOT;
+	}
+
+	/**
+	 * Submodel 객체와 submodel에서 주어진 element까지의 경로 상에 있는 element들을 복사한다.
+	 * 복사된 객체들은 자식 목록도 새로 생성되며, 경로에 포함되지 않은 element들은 원래 객체를 공유한다.
+	 *
+	 * @param idShortPath	경로의 마지막 element의 idShortPath. 빈 문자열인 경우는 submodel만 복사된다.
+	 * @param copySubtree	경로의 마지막 element의 하위 트리 전체를 복사할지 여부.
+	 * @return	복사된 submodel.
+	 */
+	private Submodel copyPath(String idShortPath, boolean copySubtree) {
+		List<Node> nodes = Lists.newArrayList();
+		for ( String path = idShortPath; !path.equals(ROOT); ) {
+			Node node = locate(path);
+			nodes.add(node);
+			path = node.parentPath();
+		}
+
+		Submodel submodel = ModelObjects.shallowCopy(m_submodel);
+		List<SubmodelElement> elements = m_submodel.getSubmodelElements();
+		List<SubmodelElement> children = (elements != null) ? ChunkedElementList.copyOf(elements)
+															: new ChunkedElementList();
+		submodel.setSubmodelElements(children);
+
+		for ( int i = nodes.size() - 1; i >= 0; --i ) {
+			int position = nodes.get(i).position();
+			if ( children == null || position >= children.size() ) {
+				throw new ResourceNotFoundException("SubmodelElement", idShortPath);
+			}
+
+			SubmodelElement element = children.get(position);
+			SubmodelElement copy = (i == 0 && copySubtree) ? ModelObjects.copyTree(element)
+															: ModelObjects.copyNode(element);
+			children.set(position, copy);
+			children = ModelObjects.getChildren(copy);
+		}
+		return submodel;
+	}
+
+	private Node locate(String idShortPath) {
+		Node node = m_nodes.get(idShortPath);
+		if ( node == null ) {
+			throw new ResourceNotFoundException("SubmodelElement", idShortPath);
+		}
+		return node;
+	}
+
+	private void indexTree(String path, String parentPath, int position, SubmodelElement element) {
+		// 동일한 경로의 element가 여러 개인 경우는 앞선 element만 색인한다.
+		if ( m_nodes.putIfAbsent(path, new Node(parentPath, position)) != null ) {
+			return;
+		}
+
+		List<SubmodelElement> children = ModelObjects.getChildren(element);
+		if ( children != null ) {
+			indexChildren(path, element instanceof SubmodelElementList, children);
+		}
+	}
+
+	private void indexChildren(String parentPath, boolean ordinal, List<SubmodelElement> children) {
+		for ( int i = 0; i < children.size(); ++i ) {
+			SubmodelElement child = children.get(i);
+			String path = toChildPath(parentPath, ordinal, child, i);
+			if ( path != null ) {
+				indexTree(path, parentPath, i, child);
+			}
+		}
+	}
+
+	/**
+	 * 주어진 경로가 해당 위치의 element에 대한 것인 경우에만 element와 그 하위 element들의 색인을 제거한다.
+	 */
+	private void unindexTree(@Nullable String path, Node node, SubmodelElement element) {
+		if ( path == null || !node.equals(m_nodes.get(path)) ) {
+			return;
+		}
+		m_nodes.remove(path);
+
+		List<SubmodelElement> children = ModelObjects.getChildren(element);
+		if ( children != null ) {
+			boolean ordinal = element instanceof SubmodelElementList;
+			for ( int i = 0; i < children.size(); ++i ) {
+				SubmodelElement child = children.get(i);
+				unindexTree(toChildPath(path, ordinal, child, i), new Node(path, i), child);
+			}
+		}
+	}
+
+	private boolean isOrdinal(String parentPath) {
+		return !parentPath.equals(ROOT) && get(parentPath) instanceof SubmodelElementList;
+	}
+
+	/**
+	 * 주어진 부모 element의 자식 element 목록을 반환한다. 목록이 없는 경우는 새로 생성한다.
+	 */
+	private List<SubmodelElement> getChildList(String parentPath) {
+		if ( parentPath.equals(ROOT) ) {
+			if ( m_submodel.getSubmodelElements() == null ) {
+				m_submodel.setSubmodelElements(Lists.newArrayList());
+			}
+			return m_submodel.getSubmodelElements();
+		}
+
+		SubmodelElement parent = get(parentPath);
+		List<SubmodelElement> children = ModelObjects.getChildren(parent);
+		if ( children != null ) {
+			return children;
+		}
+
+		children = Lists.newArrayList();
+		if ( !ModelObjects.setChildren(parent, children) ) {
+			throw new InvalidIdShortPathException(parentPath, "Terminal SubmodelElement is not a collection");
+		}
+		return children;
+	}
+
+	private static @Nullable String toChildPath(String parentPath, boolean ordinal, SubmodelElement child,
+												int position) {
+		if ( ordinal ) {
+			return parentPath + "[" + position + "]";
+		}
+
+		String idShort = child.getIdShort();
+		if ( idShort == null ) {
+			return null;
+		}
+		return parentPath.equals(ROOT) ? idShort : parentPath + "." + idShort;
+	}
+}
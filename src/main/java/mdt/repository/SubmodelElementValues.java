@@ -0,0 +1,152 @@
+package mdt.repository;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.digitaltwin.aas4j.v3.model.File;
+import org.eclipse.digitaltwin.aas4j.v3.model.LangStringTextType;
+import org.eclipse.digitaltwin.aas4j.v3.model.MultiLanguageProperty;
+import org.eclipse.digitaltwin.aas4j.v3.model.Property;
+import org.eclipse.digitaltwin.aas4j.v3.model.Range;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementCollection;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementList;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultLangStringTextType;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+
+/**
+ * SubmodelElement의 값 (value-only 표현, {@code $value})을 element 객체에 직접 반영하는 유틸리티.
+ * <p>
+ * Element 객체를 새로 생성하거나 element 전체를 역직렬화하지 않고 값 속성만 변경한다.
+ * 지원되는 element와 value-only 표현은 다음과 같다.
+ * <ul>
+ * 	<li>Property: JSON 기본 값.
+ * 	<li>Range: {@code {"min": ..., "max": ...}}.
+ * 	<li>MultiLanguageProperty: {@code [{"en": "..."}, {"ko": "..."}]}.
+ * 	<li>File: {@code {"contentType": "...", "value": "..."}}.
+ * 	<li>SubmodelElementCollection: 하위 element의 idShort에서 해당 값으로의 JSON 객체.
+ * 	<li>SubmodelElementList: 하위 element 값들의 JSON 배열.
+ * </ul>
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+final class SubmodelElementValues {
+	private SubmodelElementValues() {
+		throw new AssertionError("Should not be called: class=" + SubmodelElementValues.class);
+	}
+
+	/**
+	 * 주어진 idShortPath의 element 값을 변경한다.
+	 * <p>
+	 * Collection/List의 경우 JSON에 포함된 하위 element들만 변경된다.
+	 *
+	 * @param index			대상 submodel의 idShortPath 색인.
+	 * @param idShortPath	대상 element의 idShortPath.
+	 * @param value			value-only 형태의 값.
+	 * @throws IllegalArgumentException	값의 형식이 element 종류와 맞지 않거나
+	 * 									값 변경을 지원하지 않는 element인 경우.
+	 */
+	static void update(SubmodelElementPathIndex index, String idShortPath, JsonNode value) {
+		SubmodelElement element = index.get(idShortPath);
+		if ( element instanceof Property prop ) {
+			prop.setValue(toText(idShortPath, value));
+		}
+		else if ( element instanceof Range range ) {
+			checkType(idShortPath, value.isObject(), "object");
+			if ( value.has("min") ) {
+				range.setMin(toText(idShortPath, value.get("min")));
+			}
+			if ( value.has("max") ) {
+				range.setMax(toText(idShortPath, value.get("max")));
+			}
+		}
+		else if ( element instanceof MultiLanguageProperty mlp ) {
+			checkType(idShortPath, value.isArray(), "array");
+			mlp.setValue(updateLangStrings(idShortPath, mlp.getValue(), value));
+		}
+		else if ( element instanceof File file ) {
+			checkType(idShortPath, value.isObject(), "object");
+			if ( value.has("contentType") ) {
+				file.setContentType(toText(idShortPath, value.get("contentType")));
+			}
+			if ( value.has("value") ) {
+				file.setValue(toText(idShortPath, value.get("value")));
+			}
+		}
+		else if ( element instanceof SubmodelElementCollection ) {
+			checkType(idShortPath, value.isObject(), "object");
+			Iterator<Map.Entry<String,JsonNode>> fields = value.fields();
+			while ( fields.hasNext() ) {
+				Map.Entry<String,JsonNode> field = fields.next();
+				update(index, idShortPath + "." + field.getKey(), field.getValue());
+			}
+		}
+		else if ( element instanceof SubmodelElementList ) {
+			checkType(idShortPath, value.isArray(), "array");
+			for ( int i = 0; i < value.size(); ++i ) {
+				update(index, idShortPath + "[" + i + "]", value.get(i));
+			}
+		}
+		else {
+			throw new IllegalArgumentException("value-only update is not supported: path=" + idShortPath
+												+ ", type=" + element.getClass().getSimpleName());
+		}
+	}
+
+	/**
+	 * 언어별 문자열 목록을 주어진 값으로 변경한다.
+	 * 문자열이 변경되지 않은 언어의 객체는 재사용하고, 주어진 값에 없는 언어는 제거된다.
+	 * 기존 객체는 이전 버전의 submodel과 공유될 수 있기 때문에 직접 변경하지 않는다.
+	 */
+	private static List<LangStringTextType> updateLangStrings(String idShortPath,
+															List<LangStringTextType> current,
+															JsonNode value) {
+		Map<String,LangStringTextType> byLang = Maps.newHashMap();
+		if ( current != null ) {
+			for ( LangStringTextType langStr: current ) {
+				byLang.put(langStr.getLanguage(), langStr);
+			}
+		}
+
+		List<LangStringTextType> updated = Lists.newArrayListWithCapacity(value.size());
+		for ( JsonNode entry: value ) {
+			checkType(idShortPath, entry.isObject(), "object");
+			Iterator<Map.Entry<String,JsonNode>> fields = entry.fields();
+			while ( fields.hasNext() ) {
+				Map.Entry<String,JsonNode> field = fields.next();
+				String text = toText(idShortPath, field.getValue());
+
+				LangStringTextType langStr = byLang.remove(field.getKey());
+				if ( langStr == null || !Objects.equals(langStr.getText(), text) ) {
+					langStr = new DefaultLangStringTextType.Builder()
+															.language(field.getKey())
+															.text(text)
+															.build();
+				}
+				updated.add(langStr);
+			}
+		}
+		return updated;
+	}
+
+	private static String toText(String idShortPath, JsonNode value) {
+		if ( value.isNull() ) {
+			return null;
+		}
+		checkType(idShortPath, value.isValueNode(), "primitive value");
+		return value.asText();
+	}
+
+	private static void checkType(String idShortPath, boolean valid, String expected) {
+		if ( !valid ) {
+			throw new IllegalArgumentException(String.format("invalid value: path=%s, expected=%s",
+																idShortPath, expected));
+		}
+	}
+}
@@ -0,0 +1,202 @@
+package mdt.repository;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+
+/**
+ * Submodel별 변경 내역 ({@link SubmodelDelta}) journal 파일들을 관리한다.
+ * <p>
+ * 각 submodel의 journal은 식별자의 Base64 (URL-safe) 인코딩에 {@value #JOURNAL_SUFFIX}를 붙인 이름의 파일에
+ * 한 줄에 하나의 변경을 JSON으로 기록한다. Checkpoint 과정에서 생성되는 새 snapshot 파일은
+ * {@value #SNAPSHOT_SUFFIX}를 붙인 이름으로 같은 디렉토리에 기록된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+final class SubmodelJournal {
+	private static final Logger s_logger = LoggerFactory.getLogger(SubmodelJournal.class);
+	private static final String JOURNAL_SUFFIX = ".journal";
+	private static final String SNAPSHOT_SUFFIX = ".snapshot";
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+	private static final String QUARANTINE_SUFFIX = ".quarantined";
+
+	private final File m_dir;
+
+	SubmodelJournal(File dir) throws IOException {
+		m_dir = dir;
+		Files.createDirectories(dir.toPath());
+
+		// 기록 도중 비정상 종료된 경우 남아있을 수 있는 임시 파일들을 제거한다.
+		File[] tempFiles = dir.listFiles((d, name) -> name.endsWith(TEMP_FILE_SUFFIX));
+		if ( tempFiles != null ) {
+			for ( File tempFile: tempFiles ) {
+				s_logger.warn("removing a stale temporary submodel snapshot file: {}", tempFile);
+				Files.deleteIfExists(tempFile.toPath());
+			}
+		}
+	}
+
+	File getSnapshotFile(String id) {
+		return new File(m_dir, encode(id) + SNAPSHOT_SUFFIX);
+	}
+
+	File getTempFile(File file) {
+		return new File(m_dir, file.getName() + TEMP_FILE_SUFFIX);
+	}
+
+	/**
+	 * 주어진 변경 내역을 journal 끝에 추가한다. 반환 전에 기록 내용을 디스크에 반영한다.
+	 */
+	void append(String id, List<SubmodelDelta> deltas) throws IOException {
+		StringBuilder builder = new StringBuilder();
+		for ( SubmodelDelta delta: deltas ) {
+			builder.append(delta.toJson()).append('\n');
+		}
+
+		try ( FileOutputStream fos = new FileOutputStream(getJournalFile(id), true) ) {
+			fos.write(builder.toString().getBytes(StandardCharsets.UTF_8));
+			fos.getFD().sync();
+		}
+	}
+
+	/**
+	 * 주어진 submodel의 journal에 기록된 변경 내역을 기록된 순서대로 읽는다.
+	 * <p>
+	 * 기록 도중 비정상 종료되어 마지막 줄이 불완전한 경우는 해당 줄을 무시한다.
+	 *
+	 * @return	변경 내역 목록. Journal이 없는 경우는 빈 목록.
+	 * @throws CorruptedJournalException	마지막 줄이 아닌 곳에 읽을 수 없는 변경이 기록된 경우.
+	 */
+	List<SubmodelDelta> read(String id) throws IOException {
+		File file = getJournalFile(id);
+		if ( !file.exists() ) {
+			return List.of();
+		}
+
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		List<SubmodelDelta> deltas = Lists.newArrayListWithCapacity(lines.size());
+		for ( int i = 0; i < lines.size(); ++i ) {
+			String line = lines.get(i);
+			if ( line.isBlank() ) {
+				continue;
+			}
+			try {
+				deltas.add(SubmodelDelta.parseJson(line));
+			}
+			catch ( JsonProcessingException e ) {
+				if ( i < lines.size() - 1 ) {
+					throw new CorruptedJournalException("corrupted submodel journal: file=" + file
+														+ ", line=" + (i+1));
+				}
+				s_logger.warn("ignore a truncated submodel journal entry: file={}", file);
+			}
+		}
+		return deltas;
+	}
+
+	/**
+	 * Journal 디렉토리의 파일 생성/rename 결과가 디스크에 반영되도록 디렉토리를 동기화한다.
+	 * 디렉토리 동기화를 지원하지 않는 플랫폼에서는 무시한다.
+	 */
+	void sync() {
+		try ( FileChannel dir = FileChannel.open(m_dir.toPath(), StandardOpenOption.READ) ) {
+			dir.force(true);
+		}
+		catch ( IOException e ) {
+			s_logger.debug("directory sync is not supported: dir={}, cause={}", m_dir, e.toString());
+		}
+	}
+
+	void delete(String id) throws IOException {
+		Files.deleteIfExists(getJournalFile(id).toPath());
+	}
+
+	/**
+	 * 주어진 submodel의 journal을 격리(quarantine)한다.
+	 * <p>
+	 * 격리된 journal은 {@value #QUARANTINE_SUFFIX}로 끝나는 이름으로 변경되어 더 이상 journal로
+	 * 취급되지 않으며, 수동 복구를 위해 디렉토리에 보존된다.
+	 *
+	 * @return	격리된 journal 파일.
+	 */
+	File quarantine(String id) throws IOException {
+		File file = getJournalFile(id);
+		File dest = new File(m_dir, file.getName() + "." + System.currentTimeMillis() + QUARANTINE_SUFFIX);
+		Files.move(file.toPath(), dest.toPath());
+		return dest;
+	}
+
+	/**
+	 * Journal이 존재하는 submodel 식별자들을 반환한다.
+	 */
+	Set<String> getJournaledIds() {
+		return listIds(JOURNAL_SUFFIX);
+	}
+
+	/**
+	 * Checkpoint 도중 중단되어 snapshot 파일이 남아있는 submodel 식별자들을 반환한다.
+	 */
+	Set<String> getPendingSnapshotIds() {
+		return listIds(SNAPSHOT_SUFFIX);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[%s]", getClass().getSimpleName(), m_dir);
+	}
+
+	private File getJournalFile(String id) {
+		return new File(m_dir, encode(id) + JOURNAL_SUFFIX);
+	}
+
+	private Set<String> listIds(String suffix) {
+		Set<String> ids = Sets.newHashSet();
+		File[] files = m_dir.listFiles((dir, name) -> name.endsWith(suffix));
+		if ( files != null ) {
+			for ( File file: files ) {
+				String name = file.getName();
+				try {
+					ids.add(decode(name.substring(0, name.length() - suffix.length())));
+				}
+				catch ( IllegalArgumentException e ) {
+					s_logger.warn("ignore an unknown file in the submodel journal directory: {}", file);
+				}
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Journal 파일의 내용이 손상되어 변경 내역을 읽을 수 없는 경우의 예외.
+	 */
+	static final class CorruptedJournalException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		CorruptedJournalException(String msg) {
+			super(msg);
+		}
+	}
+
+	private static String encode(String id) {
+		return Base64.getUrlEncoder().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String decode(String name) {
+		return new String(Base64.getUrlDecoder().decode(name), StandardCharsets.UTF_8);
+	}
+}
@@ -4,12 +4,16 @@ import java.util.List;
 
 import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
 
+import mdt.Page;
+import mdt.model.registry.ResourceNotFoundException;
+
 /**
  *
  * @author Kang-Woo Lee (ETRI)
  */
 public interface SubmodelRepositoryProvider extends AutoCloseable {
 	public List<ServiceIdentifier> getAllSubmodels();
+	public Page<ServiceIdentifier> getSubmodelPage(String cursor, int limit);
 	public ServiceIdentifier getSubmodelById(String id);
 	public List<ServiceIdentifier> getAllSubmodelBySemanticId(String semanticId);
 	public List<ServiceIdentifier> getAllSubmodelsByIdShort(String idShort);
@@ -17,4 +21,16 @@ public interface SubmodelRepositoryProvider extends AutoCloseable {
 	public ServiceIdentifier addSubmodel(Submodel submodel);
 	public ServiceIdentifier updateSubmodelById(Submodel submodel);
 	public void removeSubmodelById(String id);
+	
+	/**
+	 * 주어진 submodel의 내용을 조회/변경하는 SubmodelService를 반환한다.
+	 * <p>
+	 * 서비스를 통한 변경은 늦어도 서비스를 {@code close()}할 때 repository에 반영된다.
+	 * 구현에 따라 반환된 서비스는 여러 호출자가 공유할 수 있다.
+	 *
+	 * @param id	submodel 식별자.
+	 * @return	SubmodelService 객체.
+	 * @throws ResourceNotFoundException	해당 submodel이 존재하지 않는 경우.
+	 */
+	public SubmodelServiceProvider openSubmodelService(String id);
 }
@@ -0,0 +1,200 @@
+package mdt.registry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class SegmentLogDescriptorStorageTest {
+	private static final long SEGMENT_SIZE = 256;
+
+	@TempDir File m_dir;
+
+	@Test
+	public void testReopen() throws IOException {
+		try ( SegmentLogDescriptorStorage storage = open() ) {
+			storage.insert("a", bytes("A1"));
+			storage.insertAll(Map.of("b", bytes("B1"), "c", bytes("C1")));
+			storage.update("a", bytes("A2"));
+			storage.remove("b");
+		}
+
+		try ( SegmentLogDescriptorStorage storage = open() ) {
+			assertThat(storage.getIdAll()).containsExactlyInAnyOrder("a", "c");
+			assertThat(string(storage.get("a").get())).isEqualTo("A2");
+			assertThat(string(storage.get("c").get())).isEqualTo("C1");
+			assertThat(storage.get("b")).isEmpty();
+		}
+	}
+
+	@Test
+	public void testTruncateTornTail() throws IOException {
+		try ( SegmentLogDescriptorStorage storage = open() ) {
+			storage.insert("a", bytes("A1"));
+			storage.insert("b", bytes("B1"));
+		}
+
+		// 마지막 레코드의 본문이 기록되지 못한 경우: 헤더와 길이는 유효하지만 본문이 0으로 채워져 있다.
+		File seg = segmentFile(0);
+		long length = seg.length();
+		try ( RandomAccessFile raf = new RandomAccessFile(seg, "rw") ) {
+			raf.seek(length - 2);
+			raf.write(new byte[2]);
+		}
+
+		try ( SegmentLogDescriptorStorage storage = open() ) {
+			assertThat(storage.getIdAll()).containsExactly("a");
+			assertThat(segmentFile(0).length()).isLessThan(length);
+
+			storage.insert("b", bytes("B2"));
+		}
+		try ( SegmentLogDescriptorStorage storage = open() ) {
+			assertThat(string(storage.get("b").get())).isEqualTo("B2");
+		}
+	}
+
+	@Test
+	public void testCorruptedSealedSegment() throws IOException {
+		try ( SegmentLogDescriptorStorage storage = open() ) {
+			for ( int i = 0; i < 20; ++i ) {
+				storage.insert("id-" + i, bytes("value-" + i));
+			}
+		}
+		assertThat(segmentFile(1)).exists();
+
+		File seg = segmentFile(0);
+		try ( RandomAccessFile raf = new RandomAccessFile(seg, "rw") ) {
+			raf.seek(seg.length() - 1);
+			raf.write(0);
+		}
+
+		assertThatThrownBy(this::open).isInstanceOf(IOException.class)
+										.hasMessageContaining("corrupted segment");
+	}
+
+	@Test
+	public void testCompaction() throws IOException {
+		try ( SegmentLogDescriptorStorage storage = open() ) {
+			for ( int i = 0; i < 10; ++i ) {
+				storage.insert("id-" + i, bytes("value-" + i));
+			}
+			for ( int i = 0; i < 10; ++i ) {
+				if ( i % 3 == 0 ) {
+					storage.remove("id-" + i);
+				}
+				else {
+					storage.update("id-" + i, bytes("updated-" + i));
+				}
+			}
+			storage.compact();
+			assertThat(segmentFile(0)).doesNotExist();
+		}
+
+		try ( SegmentLogDescriptorStorage storage = open() ) {
+			for ( int i = 0; i < 10; ++i ) {
+				if ( i % 3 == 0 ) {
+					assertThat(storage.get("id-" + i)).isEmpty();
+				}
+				else {
+					assertThat(string(storage.get("id-" + i).get())).isEqualTo("updated-" + i);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testKeepTombstoneShadowingOlderSegment() throws IOException {
+		try ( SegmentLogDescriptorStorage storage = open() ) {
+			// segment 0: a, id-0 ~ id-7
+			storage.insert("a", bytes("A1"));
+			for ( int i = 0; i < 8; ++i ) {
+				storage.insert("id-" + i, bytes("value-" + i));
+			}
+			// segment 1: 'a'의 tombstone, id-8 ~ id-15. id-16부터는 segment 2에 기록된다.
+			storage.remove("a");
+			for ( int i = 8; i < 17; ++i ) {
+				storage.insert("id-" + i, bytes("value-" + i));
+			}
+			storage.update("id-8", bytes("updated-8"));
+
+			long length0 = segmentFile(0).length();
+			long length1 = segmentFile(1).length();
+			storage.compact();
+
+			// segment 0의 불필요한 레코드 비율은 기준 값 미만이므로 'a'의 PUT 레코드가 남아 있다.
+			assertThat(segmentFile(0).length()).isEqualTo(length0);
+			assertThat(segmentFile(1).length()).isLessThan(length1);
+		}
+
+		try ( SegmentLogDescriptorStorage storage = open() ) {
+			assertThat(storage.get("a")).isEmpty();
+			assertThat(string(storage.get("id-8").get())).isEqualTo("updated-8");
+			assertThat(string(storage.get("id-9").get())).isEqualTo("value-9");
+		}
+	}
+
+	@Test
+	public void testDropUnshadowingTombstone() throws IOException {
+		File active;
+		long activeLength;
+		try ( SegmentLogDescriptorStorage storage = open() ) {
+			for ( int i = 0; i < 9; ++i ) {
+				storage.insert("id-" + i, bytes("value-" + i));
+			}
+			// segment 1: 'b'의 PUT과 tombstone, id-9 ~ id-15. id-16부터는 segment 2에 기록된다.
+			storage.insert("b", bytes("B1"));
+			storage.remove("b");
+			for ( int i = 9; i < 17; ++i ) {
+				storage.insert("id-" + i, bytes("value-" + i));
+			}
+			for ( int i = 9; i < 17; ++i ) {
+				storage.update("id-" + i, bytes("updated-" + i));
+			}
+
+			int last = 2;
+			while ( segmentFile(last + 1).exists() ) {
+				++last;
+			}
+			active = segmentFile(last);
+			activeLength = active.length();
+			storage.compact();
+
+			// 더 오래된 segment에 'b'의 PUT 레코드가 없으므로 tombstone은 옮겨지지 않는다.
+			assertThat(segmentFile(1)).doesNotExist();
+			assertThat(active.length()).isEqualTo(activeLength);
+		}
+
+		try ( SegmentLogDescriptorStorage storage = open() ) {
+			assertThat(storage.get("b")).isEmpty();
+			assertThat(string(storage.get("id-12").get())).isEqualTo("updated-12");
+		}
+	}
+
+	private SegmentLogDescriptorStorage open() throws IOException {
+		return new SegmentLogDescriptorStorage(m_dir, SEGMENT_SIZE, 0.1);
+	}
+
+	private File segmentFile(int seqNo) {
+		return new File(m_dir, String.format("%08d.seg", seqNo));
+	}
+
+	private static byte[] bytes(String str) {
+		return str.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String string(byte[] bytes) {
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,215 @@
+package mdt.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
+import org.eclipse.digitaltwin.aas4j.v3.model.EntityType;
+import org.eclipse.digitaltwin.aas4j.v3.model.Property;
+import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementList;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultEntity;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodel;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodelElementCollection;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodelElementList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.Lists;
+
+import mdt.model.registry.ResourceNotFoundException;
+
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class SubmodelElementPathIndexTest {
+	private Submodel m_submodel;
+	private SubmodelElementPathIndex m_index;
+
+	/**
+	 * 다음 구조의 submodel을 생성한다.
+	 * <pre>
+	 * p1
+	 * a
+	 *   b: [ {c: c0}, {c: c1}, {c: c2} ]
+	 * e
+	 *   s
+	 * p2
+	 * </pre>
+	 */
+	@BeforeEach
+	public void setUp() {
+		List<SubmodelElement> entries = Lists.newArrayList();
+		for ( int i = 0; i < 3; ++i ) {
+			entries.add(new DefaultSubmodelElementCollection.Builder()
+														.value(Lists.newArrayList(property("c", "c" + i)))
+														.build());
+		}
+		SubmodelElement list = new DefaultSubmodelElementList.Builder()
+															.idShort("b")
+															.value(entries)
+															.build();
+		SubmodelElement a = new DefaultSubmodelElementCollection.Builder()
+															.idShort("a")
+															.value(Lists.newArrayList(list))
+															.build();
+		SubmodelElement e = new DefaultEntity.Builder()
+											.idShort("e")
+											.entityType(EntityType.SELF_MANAGED_ENTITY)
+											.statements(Lists.newArrayList(property("s", "statement")))
+											.build();
+
+		m_submodel = new DefaultSubmodel.Builder()
+										.id("urn:mdt:test:submodel")
+										.idShort("Test")
+										.submodelElements(Lists.newArrayList(property("p1", "v1"), a, e,
+																			property("p2", "v2")))
+										.build();
+		m_index = new SubmodelElementPathIndex(m_submodel);
+	}
+
+	@Test
+	public void testResolveNestedPath() {
+		assertThat(value("p1")).isEqualTo("v1");
+		assertThat(value("a.b[0].c")).isEqualTo("c0");
+		assertThat(value("a.b[2].c")).isEqualTo("c2");
+		assertThat(value("e.s")).isEqualTo("statement");
+		assertThat(m_index.get("a.b")).isInstanceOf(SubmodelElementList.class);
+
+		assertThatThrownBy(() -> m_index.get("a.b[3]")).isInstanceOf(ResourceNotFoundException.class);
+		assertThatThrownBy(() -> m_index.get("a.x")).isInstanceOf(ResourceNotFoundException.class);
+	}
+
+	@Test
+	public void testRemoveListEntryShiftsLaterEntries() {
+		m_index.remove("a.b[1]");
+
+		assertThat(value("a.b[0].c")).isEqualTo("c0");
+		assertThat(value("a.b[1].c")).isEqualTo("c2");
+		assertThatThrownBy(() -> m_index.get("a.b[2]")).isInstanceOf(ResourceNotFoundException.class);
+		assertThatThrownBy(() -> m_index.get("a.b[2].c")).isInstanceOf(ResourceNotFoundException.class);
+		assertThat(((SubmodelElementList)m_index.get("a.b")).getValue()).hasSize(2);
+	}
+
+	@Test
+	public void testRemoveTopLevelElement() {
+		m_index.remove("p1");
+
+		assertThatThrownBy(() -> m_index.get("p1")).isInstanceOf(ResourceNotFoundException.class);
+		assertThat(value("p2")).isEqualTo("v2");
+		assertThat(value("a.b[2].c")).isEqualTo("c2");
+		assertThat(value("e.s")).isEqualTo("statement");
+		assertThat(m_submodel.getSubmodelElements()).hasSize(3);
+	}
+
+	@Test
+	public void testAddAndReplace() {
+		m_index.add("a.b", new DefaultSubmodelElementCollection.Builder()
+															.value(Lists.newArrayList(property("c", "c3")))
+															.build());
+		assertThat(value("a.b[3].c")).isEqualTo("c3");
+
+		m_index.add("", property("p3", "v3"));
+		assertThat(value("p3")).isEqualTo("v3");
+
+		m_index.replace("a.b[1]", property(null, "replaced"));
+		assertThat(value("a.b[1]")).isEqualTo("replaced");
+		assertThatThrownBy(() -> m_index.get("a.b[1].c")).isInstanceOf(ResourceNotFoundException.class);
+		assertThat(value("a.b[2].c")).isEqualTo("c2");
+	}
+
+	@Test
+	public void testDuplicateIdShort() {
+		m_index.add("", property("p1", "duplicated"));
+
+		// 동일한 경로의 element가 여러 개인 경우는 앞선 element가 선택된다.
+		assertThat(value("p1")).isEqualTo("v1");
+	}
+
+	@Test
+	public void testCopyForStructureUpdate() {
+		SubmodelElementPathIndex next = m_index.copyForStructureUpdate("a.b");
+		next.remove("a.b[0]");
+
+		assertThat(next.getSubmodel()).isNotSameAs(m_submodel);
+		assertThat(value(next, "a.b[0].c")).isEqualTo("c1");
+		assertThat(value("a.b[0].c")).isEqualTo("c0");
+		assertThat(((SubmodelElementList)m_index.get("a.b")).getValue()).hasSize(3);
+
+		// 변경 경로에 포함되지 않은 element는 이전 버전과 공유된다.
+		assertThat(next.get("e")).isSameAs(m_index.get("e"));
+	}
+
+	@Test
+	public void testCopyForValueUpdate() {
+		SubmodelElementPathIndex next = m_index.copyForValueUpdate("a.b[1].c");
+		((Property)next.get("a.b[1].c")).setValue("updated");
+
+		assertThat(value(next, "a.b[1].c")).isEqualTo("updated");
+		assertThat(value("a.b[1].c")).isEqualTo("c1");
+		assertThat(next.get("a.b[0]")).isSameAs(m_index.get("a.b[0]"));
+	}
+
+	@Test
+	public void testSuccessiveCopiesOfLargeSubmodel() {
+		List<SubmodelElement> elements = Lists.newArrayList();
+		for ( int i = 0; i < 200; ++i ) {
+			elements.add(property("p" + i, "v" + i));
+		}
+		Submodel submodel = new DefaultSubmodel.Builder()
+												.id("urn:mdt:test:large")
+												.submodelElements(elements)
+												.build();
+		SubmodelElementPathIndex v0 = new SubmodelElementPathIndex(submodel);
+
+		SubmodelElementPathIndex v1 = v0.copyForStructureUpdate("");
+		v1.replace("p10", property("p10", "replaced"));
+		SubmodelElementPathIndex v2 = v1.copyForStructureUpdate("");
+		v2.remove("p0");
+		v2.add("", property("p200", "v200"));
+		SubmodelElementPathIndex v3 = v2.copyForStructureUpdate("");
+		v3.replace("p150", property("p150", "replaced"));
+
+		assertThat(value(v0, "p10")).isEqualTo("v10");
+		assertThat(value(v1, "p10")).isEqualTo("replaced");
+		assertThat(value(v1, "p0")).isEqualTo("v0");
+		assertThatThrownBy(() -> v1.get("p200")).isInstanceOf(ResourceNotFoundException.class);
+		assertThatThrownBy(() -> v2.get("p0")).isInstanceOf(ResourceNotFoundException.class);
+		assertThat(value(v2, "p150")).isEqualTo("v150");
+		assertThat(value(v3, "p150")).isEqualTo("replaced");
+		assertThat(value(v3, "p200")).isEqualTo("v200");
+		assertThat(v3.getSubmodel().getSubmodelElements().get(0).getIdShort()).isEqualTo("p1");
+		assertThat(v0.getSubmodel().getSubmodelElements()).hasSize(200);
+		assertThat(v3.getSubmodel().getSubmodelElements()).hasSize(200);
+	}
+
+	@Test
+	public void testGetParentPath() {
+		assertThat(SubmodelElementPathIndex.getParentPath("p1")).isEqualTo("");
+		assertThat(SubmodelElementPathIndex.getParentPath("a.b")).isEqualTo("a");
+		assertThat(SubmodelElementPathIndex.getParentPath("a.b[2]")).isEqualTo("a.b");
+		assertThat(SubmodelElementPathIndex.getParentPath("a.b[2].c")).isEqualTo("a.b[2]");
+	}
+
+	private String value(String idShortPath) {
+		return value(m_index, idShortPath);
+	}
+
+	private static String value(SubmodelElementPathIndex index, String idShortPath) {
+		return ((Property)index.get(idShortPath)).getValue();
+	}
+
+	private static Property property(String idShort, String value) {
+		return new DefaultProperty.Builder()
+								.idShort(idShort)
+								.valueType(DataTypeDefXsd.STRING)
+								.value(value)
+								.build();
+	}
+}
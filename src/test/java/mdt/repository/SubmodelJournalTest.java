@@ -0,0 +1,176 @@
+package mdt.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+
+import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
+import org.eclipse.digitaltwin.aas4j.v3.model.Property;
+import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodel;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodelElementList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.google.common.collect.Lists;
+
+import mdt.repository.FileBasedSubmodelRepository.CheckpointPolicy;
+
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class SubmodelJournalTest {
+	private static final String SUBMODEL_ID = "urn:mdt:test:submodel";
+	private static final String TORN_ENTRY = "{\"op\":\"VALUE\",\"pa";
+
+	@TempDir File m_dir;
+	private File m_journalDir;
+	private File m_submodelDir;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		m_journalDir = new File(m_dir, "journal");
+		m_submodelDir = new File(m_dir, "submodels");
+		Files.createDirectories(m_submodelDir.toPath());
+	}
+
+	@Test
+	public void testAppendAndRead() throws IOException {
+		SubmodelJournal journal = new SubmodelJournal(m_journalDir);
+		List<SubmodelDelta> deltas = List.of(SubmodelDelta.VALUE("p1", TextNode.valueOf("42")),
+											SubmodelDelta.DELETE("list[0]"),
+											SubmodelDelta.ADD("", property("p2", "v2")));
+		journal.append(SUBMODEL_ID, deltas.subList(0, 2));
+		journal.append(SUBMODEL_ID, deltas.subList(2, 3));
+
+		assertThat(journal.read(SUBMODEL_ID)).containsExactlyElementsOf(deltas);
+		assertThat(journal.getJournaledIds()).containsExactly(SUBMODEL_ID);
+		assertThat(journal.read("urn:mdt:test:unknown")).isEmpty();
+	}
+
+	@Test
+	public void testIgnoreTruncatedLastLine() throws IOException {
+		SubmodelJournal journal = new SubmodelJournal(m_journalDir);
+		List<SubmodelDelta> deltas = List.of(SubmodelDelta.VALUE("p1", TextNode.valueOf("42")),
+											SubmodelDelta.DELETE("list[0]"));
+		journal.append(SUBMODEL_ID, deltas);
+
+		// 마지막 변경을 기록하는 도중 비정상 종료된 경우
+		appendRaw(TORN_ENTRY);
+
+		assertThat(journal.read(SUBMODEL_ID)).containsExactlyElementsOf(deltas);
+	}
+
+	@Test
+	public void testCorruptedMiddleLine() throws IOException {
+		SubmodelJournal journal = new SubmodelJournal(m_journalDir);
+		journal.append(SUBMODEL_ID, List.of(SubmodelDelta.VALUE("p1", TextNode.valueOf("42"))));
+		appendRaw(TORN_ENTRY + "\n");
+		journal.append(SUBMODEL_ID, List.of(SubmodelDelta.DELETE("list[0]")));
+
+		assertThatThrownBy(() -> journal.read(SUBMODEL_ID))
+								.isInstanceOf(SubmodelJournal.CorruptedJournalException.class);
+	}
+
+	@Test
+	public void testReplayAfterCrash() throws Exception {
+		// 비정상 종료를 흉내내기 위해 첫번째 repository는 close하지 않는다.
+		FileBasedSubmodelRepository crashed = openRepository();
+		crashed.addSubmodel(newSubmodel());
+		crashed.appendSubmodelDeltas(SUBMODEL_ID, List.of(SubmodelDelta.VALUE("p1", TextNode.valueOf("42")),
+														SubmodelDelta.DELETE("list[0]")));
+		crashed.appendSubmodelDeltas(SUBMODEL_ID, List.of(SubmodelDelta.ADD("", property("p2", "v2"))));
+		appendRaw(TORN_ENTRY);
+
+		FileBasedSubmodelRepository repo = openRepository();
+		try {
+			// 기동시 남은 journal은 submodel 파일에 반영되고 삭제된다.
+			assertThat(new SubmodelJournal(m_journalDir).getJournaledIds()).isEmpty();
+
+			SubmodelElementPathIndex index = new SubmodelElementPathIndex(repo.loadSubmodel(SUBMODEL_ID));
+			assertThat(value(index, "p1")).isEqualTo("42");
+			assertThat(value(index, "list[0]")).isEqualTo("item1");
+			assertThat(value(index, "list[1]")).isEqualTo("item2");
+			assertThat(value(index, "p2")).isEqualTo("v2");
+
+			// 복구 이후의 변경도 정상적으로 기록되어야 한다.
+			repo.appendSubmodelDeltas(SUBMODEL_ID, List.of(SubmodelDelta.DELETE("list[0]")));
+			index = new SubmodelElementPathIndex(repo.loadSubmodel(SUBMODEL_ID));
+			assertThat(value(index, "list[0]")).isEqualTo("item2");
+		}
+		finally {
+			repo.close();
+		}
+	}
+
+	@Test
+	public void testQuarantineUnreplayableJournal() throws Exception {
+		FileBasedSubmodelRepository crashed = openRepository();
+		crashed.addSubmodel(newSubmodel());
+		crashed.appendSubmodelDeltas(SUBMODEL_ID, List.of(SubmodelDelta.DELETE("unknown")));
+
+		FileBasedSubmodelRepository repo = openRepository();
+		try {
+			assertThat(new SubmodelJournal(m_journalDir).getJournaledIds()).isEmpty();
+			assertThat(m_journalDir.list((dir, name) -> name.endsWith(".quarantined"))).hasSize(1);
+
+			SubmodelElementPathIndex index = new SubmodelElementPathIndex(repo.loadSubmodel(SUBMODEL_ID));
+			assertThat(value(index, "p1")).isEqualTo("v1");
+		}
+		finally {
+			repo.close();
+		}
+	}
+
+	private FileBasedSubmodelRepository openRepository() throws IOException {
+		CheckpointPolicy policy = new CheckpointPolicy(m_journalDir, 1000, Duration.ofHours(1));
+		return new FileBasedSubmodelRepository(m_submodelDir, policy);
+	}
+
+	private void appendRaw(String str) throws IOException {
+		File[] journals = m_journalDir.listFiles((dir, name) -> name.endsWith(".journal"));
+		assertThat(journals).hasSize(1);
+		try ( FileOutputStream fos = new FileOutputStream(journals[0], true) ) {
+			fos.write(str.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static Submodel newSubmodel() {
+		List<SubmodelElement> items = Lists.newArrayList(property(null, "item0"), property(null, "item1"),
+														property(null, "item2"));
+		SubmodelElement list = new DefaultSubmodelElementList.Builder()
+															.idShort("list")
+															.value(items)
+															.build();
+		return new DefaultSubmodel.Builder()
+								.id(SUBMODEL_ID)
+								.idShort("Test")
+								.submodelElements(Lists.newArrayList(property("p1", "v1"), list))
+								.build();
+	}
+
+	private static String value(SubmodelElementPathIndex index, String idShortPath) {
+		return ((Property)index.get(idShortPath)).getValue();
+	}
+
+	private static Property property(String idShort, String value) {
+		return new DefaultProperty.Builder()
+								.idShort(idShort)
+								.valueType(DataTypeDefXsd.STRING)
+								.value(value)
+								.build();
+	}
+}